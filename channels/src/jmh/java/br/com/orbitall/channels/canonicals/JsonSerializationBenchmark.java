@@ -0,0 +1,59 @@
+package br.com.orbitall.channels.canonicals;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    private ObjectWriter customerWriter;
+    private ObjectWriter transactionWriter;
+
+    private CustomerOutput customer;
+    private TransactionOutput transaction;
+
+    @Setup
+    public void setUp() {
+        // Mesma configuração de módulos (JavaTimeModule etc.) que o Spring MVC usa
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        customerWriter = objectMapper.writerFor(CustomerOutput.class);
+        transactionWriter = objectMapper.writerFor(TransactionOutput.class);
+
+        LocalDateTime now = LocalDateTime.now();
+        customer = new CustomerOutput(UUID.randomUUID(), "Maria da Silva", "maria@example.com",
+                "+55 11 90000-0000", now, now, true, 0);
+        transaction = new TransactionOutput(UUID.randomUUID(), customer.id(), new BigDecimal("150.75"),
+                "VISA", now, true, 0);
+    }
+
+    @Benchmark
+    public byte[] serializeCustomerOutput() throws Exception {
+        return customerWriter.writeValueAsBytes(customer);
+    }
+
+    @Benchmark
+    public byte[] serializeTransactionOutput() throws Exception {
+        return transactionWriter.writeValueAsBytes(transaction);
+    }
+}
@@ -0,0 +1,117 @@
+package br.com.orbitall.channels.controllers;
+
+import br.com.orbitall.channels.ChannelsApplication;
+import br.com.orbitall.channels.canonicals.CustomerInput;
+import br.com.orbitall.channels.canonicals.TransactionInput;
+import br.com.orbitall.channels.services.CustomerService;
+import br.com.orbitall.channels.services.TransactionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+// Custo de uma sondagem (poll) com e sem If-None-Match: GET /customers/{id} e GET /transactions?customerId= com
+// HISTORY_SIZE transações, lidos do banco ou do modelo de leitura em memória (readModel=true). Os bytes de cada
+// resposta são impressos no setup; use -prof gc para a alocação por poll
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConditionalGetBenchmark {
+
+    private static final int HISTORY_SIZE = 100;
+
+    @Param({"false", "true"})
+    public boolean readModel;
+
+    private ConfigurableApplicationContext context;
+    private MockMvc mockMvc;
+
+    private MockHttpServletRequestBuilder customerFull;
+    private MockHttpServletRequestBuilder customerRevalidated;
+    private MockHttpServletRequestBuilder historyFull;
+    private MockHttpServletRequestBuilder historyRevalidated;
+
+    @Setup
+    public void setUp() throws Exception {
+        context = new SpringApplicationBuilder(ChannelsApplication.class)
+                .properties("spring.jpa.show-sql=false",
+                        "logging.level.root=WARN")
+                .run("--spring.datasource.url=jdbc:h2:mem:jmh-conditional-get-" + readModel + ";DB_CLOSE_DELAY=-1",
+                        "--server.port=0",
+                        "--channels.read-model.enabled=" + readModel);
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+
+        UUID customerId = context.getBean(CustomerService.class)
+                .create(new CustomerInput("Maria da Silva", "maria@example.com", "+55 11 90000-0000"))
+                .id();
+        TransactionService transactionService = context.getBean(TransactionService.class);
+        for (int i = 0; i < HISTORY_SIZE; i++) {
+            transactionService.create(new TransactionInput(customerId, new BigDecimal("10.00"), "VISA"));
+        }
+
+        customerFull = get("/customers/" + customerId);
+        historyFull = get("/transactions").param("customerId", customerId.toString());
+        customerRevalidated = get("/customers/" + customerId).header("If-None-Match", poll(customerFull).getHeader("ETag"));
+        historyRevalidated = get("/transactions").param("customerId", customerId.toString())
+                .header("If-None-Match", poll(historyFull).getHeader("ETag"));
+
+        System.out.printf("%nbytes per poll: customer %d -> %d (status %d), history %d -> %d (status %d)%n",
+                poll(customerFull).getContentAsByteArray().length, poll(customerRevalidated).getContentAsByteArray().length,
+                poll(customerRevalidated).getStatus(),
+                poll(historyFull).getContentAsByteArray().length, poll(historyRevalidated).getContentAsByteArray().length,
+                poll(historyRevalidated).getStatus());
+    }
+
+    private MockHttpServletResponse poll(MockHttpServletRequestBuilder request) throws Exception {
+        return mockMvc.perform(request).andReturn().getResponse();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public MockHttpServletResponse customerFull() throws Exception {
+        return poll(customerFull);
+    }
+
+    @Benchmark
+    public MockHttpServletResponse customerRevalidated() throws Exception {
+        return poll(customerRevalidated);
+    }
+
+    @Benchmark
+    public MockHttpServletResponse historyFull() throws Exception {
+        return poll(historyFull);
+    }
+
+    @Benchmark
+    public MockHttpServletResponse historyRevalidated() throws Exception {
+        return poll(historyRevalidated);
+    }
+}
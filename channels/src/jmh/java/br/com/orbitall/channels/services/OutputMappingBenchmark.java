@@ -0,0 +1,68 @@
+package br.com.orbitall.channels.services;
+
+import br.com.orbitall.channels.canonicals.CustomerOutput;
+import br.com.orbitall.channels.canonicals.TransactionOutput;
+import br.com.orbitall.channels.models.Customer;
+import br.com.orbitall.channels.models.Transaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OutputMappingBenchmark {
+
+    private final CustomerService customerService = new CustomerService();
+    private final TransactionService transactionService = new TransactionService();
+
+    private Customer customer;
+    private Transaction transaction;
+
+    @Setup
+    public void setUp() {
+        LocalDateTime now = LocalDateTime.now();
+
+        customer = new Customer();
+        customer.setId(UUID.randomUUID());
+        customer.setFullName("Maria da Silva");
+        customer.setEmail("maria@example.com");
+        customer.setPhone("+55 11 90000-0000");
+        customer.setCreatedAt(now);
+        customer.setUpdatedAt(now);
+        customer.setActive(true);
+
+        transaction = new Transaction();
+        transaction.setId(UUID.randomUUID());
+        transaction.setCustomerId(customer.getId());
+        transaction.setAmount(new BigDecimal("150.75"));
+        transaction.setCardType("VISA");
+        transaction.setCreatedAt(now);
+        transaction.setActive(true);
+    }
+
+    @Benchmark
+    public CustomerOutput customerToOutput() {
+        return customerService.toOutput(customer);
+    }
+
+    @Benchmark
+    public TransactionOutput transactionToOutput() {
+        return transactionService.toOutput(transaction);
+    }
+}
@@ -0,0 +1,89 @@
+package br.com.orbitall.channels.services;
+
+import br.com.orbitall.channels.ChannelsApplication;
+import br.com.orbitall.channels.canonicals.CustomerInput;
+import br.com.orbitall.channels.canonicals.TransactionInput;
+import br.com.orbitall.channels.canonicals.TransactionOutput;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+// Vazão de TransactionService.create com 8 threads e 1 a 8 shards (um H2 em memória por shard), espalhada por
+// 256 clientes; a consulta do histórico do cliente mede a leitura roteada para um único shard
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class ShardingBenchmark {
+
+    private static final int CUSTOMERS = 256;
+
+    @Param({"1", "2", "4", "8"})
+    public int shards;
+
+    private ConfigurableApplicationContext context;
+    private TransactionService transactionService;
+    private final List<TransactionInput> inputs = new ArrayList<>(CUSTOMERS);
+
+    @Setup
+    public void setUp() {
+        String urls = IntStream.range(0, shards)
+                .mapToObj(shard -> "jdbc:h2:mem:jmh-shards-" + shards + "-" + shard + ";DB_CLOSE_DELAY=-1")
+                .collect(Collectors.joining(","));
+        context = new SpringApplicationBuilder(ChannelsApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.jpa.show-sql=false",
+                        "logging.level.root=WARN")
+                .run("--channels.sharding.urls=" + urls, "--spring.datasource.hikari.minimum-idle=8");
+        transactionService = context.getBean(TransactionService.class);
+
+        CustomerService customerService = context.getBean(CustomerService.class);
+        for (int i = 0; i < CUSTOMERS; i++) {
+            UUID customerId = customerService.create(
+                    new CustomerInput("Cliente " + i, "cliente" + i + "@example.com", "+55 11 90000-0000")).id();
+            inputs.add(new TransactionInput(customerId, new BigDecimal("150.75"), "VISA"));
+        }
+        // Primeira transação de cada cliente antes das threads: cria a linha do agregado sem disputa pelo INSERT inicial
+        inputs.forEach(transactionService::create);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public TransactionOutput create() {
+        return transactionService.create(inputs.get(ThreadLocalRandom.current().nextInt(CUSTOMERS)));
+    }
+
+    @Benchmark
+    public List<TransactionOutput> findByCustomer() {
+        return transactionService.findByCustomer(inputs.get(ThreadLocalRandom.current().nextInt(CUSTOMERS)).customerId());
+    }
+}
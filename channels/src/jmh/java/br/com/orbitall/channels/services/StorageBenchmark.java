@@ -0,0 +1,102 @@
+package br.com.orbitall.channels.services;
+
+import br.com.orbitall.channels.ChannelsApplication;
+import br.com.orbitall.channels.canonicals.CustomerInput;
+import br.com.orbitall.channels.canonicals.TransactionInput;
+import br.com.orbitall.channels.canonicals.TransactionOutput;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// channels.storage=jpa (H2) x memory: mesmas chamadas de serviço, trocando apenas o armazenamento de clientes/transações
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StorageBenchmark {
+
+    private static final int HISTORY_SIZE = 100;
+
+    @Param({"jpa", "memory"})
+    public String storage;
+
+    private ConfigurableApplicationContext context;
+    private TransactionService transactionService;
+
+    private TransactionInput input;
+    private UUID customerId;
+    private UUID transactionId;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(ChannelsApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.jpa.show-sql=false",
+                        "logging.level.root=WARN")
+                // Argumentos de linha de comando: têm precedência sobre o application.properties
+                .run("--spring.datasource.url=jdbc:h2:mem:jmh-storage-" + storage + ";DB_CLOSE_DELAY=-1",
+                        "--channels.storage=" + storage);
+        transactionService = context.getBean(TransactionService.class);
+
+        // Histórico fixo em um cliente para as leituras; as criações vão para outro cliente
+        UUID historyCustomerId = newCustomer("Maria da Silva", "maria@example.com");
+        for (int i = 0; i < HISTORY_SIZE; i++) {
+            transactionId = transactionService.create(new TransactionInput(historyCustomerId, new BigDecimal("10.00"), "VISA")).id();
+        }
+        customerId = historyCustomerId;
+
+        input = new TransactionInput(newCustomer("João Souza", "joao@example.com"), new BigDecimal("150.75"), "VISA");
+    }
+
+    private UUID newCustomer(String fullName, String email) {
+        return context.getBean(CustomerService.class)
+                .create(new CustomerInput(fullName, email, "+55 11 90000-0000"))
+                .id();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public TransactionOutput create() {
+        return transactionService.create(input);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public TransactionOutput createConcurrent() {
+        return transactionService.create(input);
+    }
+
+    @Benchmark
+    public TransactionOutput retrieve() {
+        return transactionService.retrieve(transactionId);
+    }
+
+    @Benchmark
+    public List<TransactionOutput> findByCustomer() {
+        return transactionService.findByCustomer(customerId);
+    }
+}
@@ -0,0 +1,71 @@
+package br.com.orbitall.channels.services;
+
+import br.com.orbitall.channels.ChannelsApplication;
+import br.com.orbitall.channels.canonicals.CustomerInput;
+import br.com.orbitall.channels.canonicals.TransactionInput;
+import br.com.orbitall.channels.canonicals.TransactionOutput;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Ponta a ponta: contexto Spring completo (sem servidor web) sobre H2 em memória; changeFeed=true inclui a gravação
+// do evento no outbox na mesma transação e o relay numerando em paralelo
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionCreateBenchmark {
+
+    @Param({"false", "true"})
+    public boolean changeFeed;
+
+    private ConfigurableApplicationContext context;
+    private TransactionService transactionService;
+
+    private TransactionInput input;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(ChannelsApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.datasource.url=jdbc:h2:mem:jmh;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=WARN",
+                        "channels.change-feed.enabled=" + changeFeed)
+                .run();
+        transactionService = context.getBean(TransactionService.class);
+
+        UUID customerId = context.getBean(CustomerService.class)
+                .create(new CustomerInput("Maria da Silva", "maria@example.com", "+55 11 90000-0000"))
+                .id();
+        input = new TransactionInput(customerId, new BigDecimal("150.75"), "VISA");
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public TransactionOutput create() {
+        return transactionService.create(input);
+    }
+}
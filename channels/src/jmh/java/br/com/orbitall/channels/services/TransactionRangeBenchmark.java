@@ -0,0 +1,100 @@
+package br.com.orbitall.channels.services;
+
+import br.com.orbitall.channels.ChannelsApplication;
+import br.com.orbitall.channels.canonicals.TransactionOutput;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// GET /transactions?from&to: página 1 x página 10.000 (páginas de 10 linhas). Paginação por chave (createdAt, id)
+// contra OFFSET sobre a mesma ordenação, para mostrar que só o OFFSET cresce com a profundidade
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionRangeBenchmark {
+
+    private static final int PAGE_SIZE = 10;
+    private static final int PAGES = 10_000;
+    private static final LocalDateTime FROM = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final LocalDateTime TO = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+    @Param({"1", "10000"})
+    public int page;
+
+    private ConfigurableApplicationContext context;
+    private TransactionService transactionService;
+    private JdbcTemplate jdbcTemplate;
+
+    // Última linha da página anterior (cursor), como o cliente a receberia
+    private LocalDateTime afterCreatedAt;
+    private UUID afterId;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(ChannelsApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.jpa.show-sql=false",
+                        "logging.level.root=WARN")
+                // Sem reaproveitar o resultado da consulta anterior idêntica (o H2 faria isso com os mesmos parâmetros)
+                .run("--spring.datasource.url=jdbc:h2:mem:jmh-range;DB_CLOSE_DELAY=-1;OPTIMIZE_REUSE_RESULTS=0");
+        transactionService = context.getBean(TransactionService.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        // Carga direta: PAGES * PAGE_SIZE transações, uma por segundo, de 100 clientes
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < PAGES * PAGE_SIZE; i++) {
+            rows.add(new Object[]{UUID.randomUUID(), new UUID(0, i % 100), Timestamp.valueOf(FROM.plusSeconds(i))});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO TRANSACTIONS (id, customer_id, amount, card_type, created_at, active, version) "
+                + "VALUES (?, ?, 10.00, 'VISA', ?, TRUE, 0)", rows);
+
+        if (page > 1) {
+            int offset = (page - 1) * PAGE_SIZE - 1;
+            jdbcTemplate.query("SELECT created_at, id FROM TRANSACTIONS ORDER BY created_at, id OFFSET ? ROWS FETCH FIRST 1 ROW ONLY",
+                    rs -> {
+                        afterCreatedAt = rs.getTimestamp(1).toLocalDateTime();
+                        afterId = rs.getObject(2, UUID.class);
+                    }, offset);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<TransactionOutput> keyset() {
+        return transactionService.findInRange(FROM, TO, "VISA", afterCreatedAt, afterId, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<UUID> offset() {
+        return jdbcTemplate.queryForList("SELECT id FROM TRANSACTIONS WHERE created_at >= ? AND created_at < ? "
+                        + "AND active = TRUE AND card_type = 'VISA' ORDER BY created_at, id OFFSET ? ROWS FETCH FIRST ? ROWS ONLY",
+                UUID.class, FROM, TO, (page - 1) * PAGE_SIZE, PAGE_SIZE);
+    }
+}
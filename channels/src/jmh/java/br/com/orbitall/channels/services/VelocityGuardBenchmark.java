@@ -0,0 +1,74 @@
+package br.com.orbitall.channels.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Custo de acquire() com 64 threads disputando a janela do mesmo cliente x cada thread com seu cliente.
+// Os limites são altos o bastante para nenhuma reserva ser recusada: mede só a contabilização
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VelocityGuardBenchmark {
+
+    private static final BigDecimal AMOUNT = new BigDecimal("150.75");
+
+    private VelocityGuard guard;
+    private UUID sharedCustomer;
+
+    @State(Scope.Thread)
+    public static class ThreadCustomer {
+        UUID customerId = UUID.randomUUID();
+    }
+
+    @Setup
+    public void setUp() {
+        guard = new VelocityGuard();
+        ReflectionTestUtils.setField(guard, "enabled", true);
+        ReflectionTestUtils.setField(guard, "window", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(guard, "slices", 60);
+        ReflectionTestUtils.setField(guard, "maxTransactions", Long.MAX_VALUE);
+        ReflectionTestUtils.setField(guard, "maxAmount", new BigDecimal("90000000000000"));
+        ReflectionTestUtils.setField(guard, "perCardType", false);
+        ReflectionTestUtils.setField(guard, "maxTrackedCustomers", 1_000_000L);
+        ReflectionTestUtils.setField(guard, "registry", new SimpleMeterRegistry());
+        guard.init();
+        sharedCustomer = UUID.randomUUID();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public VelocityGuard.Reservation sameCustomerSingleThread() {
+        return guard.acquire(sharedCustomer, "VISA", AMOUNT);
+    }
+
+    @Benchmark
+    @Threads(64)
+    public VelocityGuard.Reservation sameCustomer64Threads() {
+        return guard.acquire(sharedCustomer, "VISA", AMOUNT);
+    }
+
+    @Benchmark
+    @Threads(64)
+    public VelocityGuard.Reservation distinctCustomers64Threads(ThreadCustomer thread) {
+        return guard.acquire(thread.customerId, "VISA", AMOUNT);
+    }
+}
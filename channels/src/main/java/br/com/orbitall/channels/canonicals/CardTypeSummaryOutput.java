@@ -0,0 +1,9 @@
+package br.com.orbitall.channels.canonicals;
+
+import java.math.BigDecimal;
+
+public record CardTypeSummaryOutput(
+        long transactionCount,
+        BigDecimal totalAmount
+) {
+}
@@ -0,0 +1,9 @@
+package br.com.orbitall.channels.canonicals;
+
+public enum ChangeType {
+    CUSTOMER_CREATED,
+    CUSTOMER_UPDATED,
+    CUSTOMER_DEACTIVATED,
+    TRANSACTION_CREATED,
+    TRANSACTION_DEACTIVATED
+}
@@ -0,0 +1,7 @@
+package br.com.orbitall.channels.canonicals;
+
+public record CustomerImportErrorOutput(
+        long line,
+        String error
+) {
+}
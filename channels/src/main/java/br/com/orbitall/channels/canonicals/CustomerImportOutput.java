@@ -0,0 +1,15 @@
+package br.com.orbitall.channels.canonicals;
+
+import java.util.List;
+
+public record CustomerImportOutput(
+        long rows,
+        long imported,
+        long rejected,
+        long elapsedMillis,
+        double rowsPerSecond,
+        long peakHeapBytes,
+        boolean errorsTruncated,
+        List<CustomerImportErrorOutput> errors
+) {
+}
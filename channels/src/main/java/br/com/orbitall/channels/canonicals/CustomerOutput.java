@@ -1,5 +1,7 @@
 package br.com.orbitall.channels.canonicals;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import java.time.LocalDateTime;
 import java.util.UUID;
 
@@ -10,6 +12,8 @@ public record CustomerOutput(
         String phone,
         LocalDateTime createdAt,
         LocalDateTime updatedAt,
-        boolean active
+        boolean active,
+        // Vai no cabeçalho ETag, não no corpo
+        @JsonIgnore long version
 ) {
 }
@@ -0,0 +1,13 @@
+package br.com.orbitall.channels.canonicals;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.UUID;
+
+public record CustomerSummaryOutput(
+        UUID customerId,
+        long transactionCount,
+        BigDecimal totalAmount,
+        Map<String, CardTypeSummaryOutput> cardTypes
+) {
+}
@@ -0,0 +1,9 @@
+package br.com.orbitall.channels.canonicals;
+
+public record TransactionBatchItemOutput(
+        int index,
+        int status,
+        TransactionOutput transaction,
+        String error
+) {
+}
@@ -0,0 +1,10 @@
+package br.com.orbitall.channels.canonicals;
+
+import java.util.UUID;
+
+public record TransactionLookupItemOutput(
+        UUID id,
+        int status,
+        TransactionOutput transaction
+) {
+}
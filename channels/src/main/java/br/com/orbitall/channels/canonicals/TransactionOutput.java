@@ -1,5 +1,7 @@
 package br.com.orbitall.channels.canonicals;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.UUID;
@@ -10,6 +12,7 @@ public record TransactionOutput(
         BigDecimal amount,
         String cardType,
         LocalDateTime createdAt,
-        boolean active
+        boolean active,
+        @JsonIgnore long version
 ) {
 }
@@ -0,0 +1,7 @@
+package br.com.orbitall.channels.canonicals;
+
+public enum TransactionWriteStatus {
+    QUEUED,
+    PERSISTED,
+    FAILED
+}
@@ -0,0 +1,31 @@
+package br.com.orbitall.channels.controllers;
+
+import br.com.orbitall.channels.canonicals.CustomerOutput;
+import br.com.orbitall.channels.canonicals.TransactionOutput;
+import br.com.orbitall.channels.services.ArchivalService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.UUID;
+
+// Consulta explícita às tabelas de arquivo; GET /customers/{id} e /transactions/{id} não procuram aqui
+@RestController
+@RequestMapping("/archive")
+public class ArchiveController {
+
+    @Autowired
+    private ArchivalService service;
+
+    @GetMapping("/customers/{id}")
+    public CustomerOutput retrieveCustomer(@PathVariable UUID id) {
+        return service.retrieveCustomer(id);
+    }
+
+    @GetMapping("/transactions/{id}")
+    public TransactionOutput retrieveTransaction(@PathVariable UUID id) {
+        return service.retrieveTransaction(id);
+    }
+}
@@ -0,0 +1,62 @@
+package br.com.orbitall.channels.controllers;
+
+import br.com.orbitall.channels.canonicals.ChangeType;
+import br.com.orbitall.channels.services.ChangeFeedService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/changes")
+@ConditionalOnProperty(name = "channels.change-feed.enabled", havingValue = "true")
+public class ChangeFeedController {
+
+    @Autowired
+    private ChangeFeedService service;
+
+    @Value("${channels.change-feed.timeout:30m}")
+    private Duration timeout;
+
+    // Cada evento leva o offset como id: ao reconectar, o EventSource reenvia o último em Last-Event-ID
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter changes(@RequestParam(required = false) UUID customerId,
+                              @RequestParam(required = false) Set<ChangeType> types,
+                              @RequestParam(required = false) Long after,
+                              @RequestHeader(name = "Last-Event-ID", required = false) Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+
+        ChangeFeedService.Subscription subscription = service.subscribe(customerId, types,
+                lastEventId != null ? lastEventId : after, new ChangeFeedService.Sink() {
+                    @Override
+                    public void send(ChangeFeedService.Change change) throws IOException {
+                        emitter.send(SseEmitter.event()
+                                .id(Long.toString(change.sequenceNumber()))
+                                .name(change.type().name())
+                                .data(change.payload()));
+                    }
+
+                    @Override
+                    public void keepAlive() throws IOException {
+                        emitter.send(SseEmitter.event().comment("keep-alive"));
+                    }
+
+                    @Override
+                    public void close() {
+                        emitter.complete();
+                    }
+                });
+
+        emitter.onCompletion(subscription::close);
+        emitter.onTimeout(subscription::close);
+        emitter.onError(error -> subscription.close());
+        return emitter;
+    }
+}
@@ -1,12 +1,29 @@
 package br.com.orbitall.channels.controllers;
 
+import br.com.orbitall.channels.canonicals.CustomerImportOutput;
 import br.com.orbitall.channels.canonicals.CustomerInput;
+import br.com.orbitall.channels.canonicals.CustomerLookupItemOutput;
 import br.com.orbitall.channels.canonicals.CustomerOutput;
+import br.com.orbitall.channels.canonicals.CustomerSummaryOutput;
+import br.com.orbitall.channels.models.EntityVersion;
+import br.com.orbitall.channels.services.CustomerImportService;
 import br.com.orbitall.channels.services.CustomerService;
+import br.com.orbitall.channels.services.CustomerSummaryService;
+import br.com.orbitall.channels.services.ReadModel;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Size;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.UUID;
 
@@ -14,33 +31,118 @@ import java.util.UUID;
 @RequestMapping("/customers")
 public class CustomerController {
 
+    private static final String NDJSON = "application/x-ndjson";
+    private static final String CSV = "text/csv";
+
     @Autowired
     private CustomerService service;
 
+    @Autowired
+    private CustomerSummaryService summaryService;
+
+    @Autowired
+    private CustomerImportService importService;
+
+    @Autowired
+    private ReadModel readModel;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @PostMapping
     public CustomerOutput create(@Valid @RequestBody CustomerInput input) {
         return service.create(input);
     }
 
+    // Importação em massa: o corpo é lido em streaming, sem ser carregado inteiro em memória
+    @PostMapping(path = "/import", consumes = CSV)
+    public CustomerImportOutput importCsv(InputStream body) {
+        return importService.importCustomers(body, CustomerImportService.Format.CSV);
+    }
+
+    @PostMapping(path = "/import", consumes = NDJSON)
+    public CustomerImportOutput importNdjson(InputStream body) {
+        return importService.importCustomers(body, CustomerImportService.Format.NDJSON);
+    }
+
+    // Vários clientes em uma requisição, na ordem pedida (status 404 por item para ausentes ou inativos)
+    @PostMapping("/lookup")
+    public List<CustomerLookupItemOutput> lookup(@RequestBody @Size(max = CustomerService.MAX_LOOKUP_SIZE) List<UUID> ids) {
+        return service.lookup(ids);
+    }
+
+    // Com If-None-Match, a consulta só da versão decide o 304, sem carregar nem serializar o cliente
     @GetMapping("/{id}")
-    public CustomerOutput retrieve(@PathVariable UUID id) {
-        return service.retrieve(id);
+    public ResponseEntity<CustomerOutput> retrieve(@PathVariable UUID id,
+                                                   @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        // Modelo de leitura: resposta pronta em memória, sem banco
+        ReadModel.View view = readModel.view(id);
+        if (view != null) {
+            CustomerOutput projected = view.customer();
+            String etag = EntityTags.of(projected.version());
+            if (EntityTags.matches(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .eTag(etag)
+                        .lastModified(EntityTags.epochMillis(projected.updatedAt()))
+                        .build();
+            }
+            return withETag(projected);
+        }
+
+        if (ifNoneMatch != null) {
+            EntityVersion current = service.retrieveVersion(id);
+            String etag = EntityTags.of(current.version());
+            if (EntityTags.matches(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .eTag(etag)
+                        .lastModified(EntityTags.epochMillis(current.lastModified()))
+                        .build();
+            }
+        }
+        return withETag(service.retrieve(id));
+    }
+
+    @GetMapping("/{id}/summary")
+    public CustomerSummaryOutput summary(@PathVariable UUID id) {
+        return summaryService.retrieve(id);
     }
 
     @PutMapping("/{id}")
-    public CustomerOutput update(@PathVariable UUID id, @RequestBody CustomerInput input) {
-        return service.update(id, input);
+    public ResponseEntity<CustomerOutput> update(@PathVariable UUID id, @RequestBody CustomerInput input,
+                                                 @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return withETag(service.update(id, input, EntityTags.expectedVersion(ifMatch)));
     }
 
     @DeleteMapping("/{id}")
-    public CustomerOutput delete(@PathVariable UUID id) {
-        return service.delete(id);
+    public ResponseEntity<CustomerOutput> delete(@PathVariable UUID id,
+                                                 @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return withETag(service.delete(id, EntityTags.expectedVersion(ifMatch)));
     }
 
     @GetMapping
-    public List<CustomerOutput> findAll() {
-        return service.findAll();
+    public List<CustomerOutput> findAll(@RequestParam(required = false) UUID after,
+                                        @RequestParam(defaultValue = "100") int limit) {
+        return service.findAll(after, limit);
     }
-}
 
+    @GetMapping(produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamAll(@RequestParam(defaultValue = "500") int chunkSize) {
+        StreamingResponseBody body = out -> service.forEachActive(chunkSize, customer -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(customer));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+    }
 
+    private static ResponseEntity<CustomerOutput> withETag(CustomerOutput customer) {
+        return ResponseEntity.ok()
+                .eTag(EntityTags.of(customer.version()))
+                .lastModified(EntityTags.epochMillis(customer.updatedAt()))
+                .body(customer);
+    }
+}
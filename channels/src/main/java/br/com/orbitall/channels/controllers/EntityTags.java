@@ -0,0 +1,63 @@
+package br.com.orbitall.channels.controllers;
+
+import br.com.orbitall.channels.exceptions.PreconditionFailedException;
+import br.com.orbitall.channels.models.TransactionHistoryVersion;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+// ETag forte a partir da versão da entidade ("3"), leitura do If-Match correspondente e comparação do If-None-Match
+final class EntityTags {
+
+    private EntityTags() {
+    }
+
+    static String of(long version) {
+        return "\"" + version + "\"";
+    }
+
+    // Histórico de um cliente: quantidade e impressão digital dos ids, que muda com qualquer entrada ou saída
+    static String ofHistory(TransactionHistoryVersion version) {
+        return "\"" + version.count() + "-" + Long.toHexString(version.fingerprint()) + "\"";
+    }
+
+    static long epochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    // If-None-Match com a ETag atual (ou "*"): o cliente já tem esta representação. Comparação fraca, como em GET
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Ausente ou "*": a escrita não confere a versão
+    static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+
+        String tag = ifMatch.trim();
+        if (tag.length() < 3 || tag.charAt(0) != '"' || tag.charAt(tag.length() - 1) != '"') {
+            throw new PreconditionFailedException("If-Match must be a single strong ETag (got: " + ifMatch + ")");
+        }
+
+        try {
+            return Long.parseLong(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new PreconditionFailedException("If-Match does not match any version (got: " + ifMatch + ")");
+        }
+    }
+}
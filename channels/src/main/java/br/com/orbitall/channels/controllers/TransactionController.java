@@ -1,12 +1,30 @@
 package br.com.orbitall.channels.controllers;
 
+import br.com.orbitall.channels.canonicals.TransactionBatchItemOutput;
 import br.com.orbitall.channels.canonicals.TransactionInput;
+import br.com.orbitall.channels.canonicals.TransactionLookupItemOutput;
 import br.com.orbitall.channels.canonicals.TransactionOutput;
+import br.com.orbitall.channels.models.EntityVersion;
+import br.com.orbitall.channels.models.TransactionHistoryVersion;
+import br.com.orbitall.channels.services.IdempotencyService;
+import br.com.orbitall.channels.services.ReadModel;
 import br.com.orbitall.channels.services.TransactionService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Size;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -14,28 +32,178 @@ import java.util.UUID;
 @RequestMapping("/transactions")
 public class TransactionController {
 
+    private static final String NDJSON = "application/x-ndjson";
+    private static final String CSV = "text/csv";
+    private static final String CSV_HEADER = "id,customerId,amount,cardType,createdAt,active\n";
+
+    // Limites usados quando from/to não são informados na exportação
+    private static final LocalDateTime EXPORT_FROM = LocalDateTime.of(1, 1, 1, 0, 0);
+    private static final LocalDateTime EXPORT_TO = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
     @Autowired
     private TransactionService service;
 
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private ReadModel readModel;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @PostMapping
-    public TransactionOutput create(@Valid @RequestBody TransactionInput input) {
-        return service.create(input);
+    public TransactionOutput create(@Valid @RequestBody TransactionInput input,
+                                    @RequestHeader(name = "Idempotency-Key", required = false) @Size(min = 1, max = 255) String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return service.create(input);
+        }
+        return idempotencyService.create(idempotencyKey, input);
     }
 
+    @PostMapping("/batch")
+    public List<TransactionBatchItemOutput> createBatch(
+            @RequestBody @Size(max = TransactionService.MAX_BATCH_SIZE) List<TransactionInput> inputs) {
+        return service.createBatch(inputs);
+    }
+
+    // Várias transações em uma requisição, na ordem pedida (status 404 por item para ausentes ou inativas)
+    @PostMapping("/lookup")
+    public List<TransactionLookupItemOutput> lookup(@RequestBody @Size(max = TransactionService.MAX_LOOKUP_SIZE) List<UUID> ids) {
+        return service.lookup(ids);
+    }
+
+    // Com If-None-Match, a consulta só da versão decide o 304, sem carregar nem serializar a transação
     @GetMapping("/{id}")
-    public TransactionOutput retrieve(@PathVariable UUID id) {
-        return service.retrieve(id);
+    public ResponseEntity<TransactionOutput> retrieve(@PathVariable UUID id,
+                                                      @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (ifNoneMatch != null) {
+            EntityVersion current = service.retrieveVersion(id);
+            String etag = EntityTags.of(current.version());
+            if (EntityTags.matches(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .eTag(etag)
+                        .lastModified(EntityTags.epochMillis(current.lastModified()))
+                        .build();
+            }
+        }
+        return withETag(service.retrieve(id));
     }
 
+    // Mesma ideia para o histórico: quantidade e impressão digital dos ids das transações ativas do cliente
     @GetMapping
-    public List<TransactionOutput> findByCustomer(@RequestParam UUID customerId) {
-        return service.findByCustomer(customerId);
+    public ResponseEntity<List<TransactionOutput>> findByCustomer(
+            @RequestParam UUID customerId,
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        // Modelo de leitura: a lista já pronta e imutável do cliente, sem banco
+        ReadModel.View view = readModel.view(customerId);
+        if (view != null) {
+            return history(view.transactions(), view.history(), ifNoneMatch);
+        }
+
+        if (ifNoneMatch != null) {
+            String etag = EntityTags.ofHistory(service.findHistoryVersion(customerId));
+            if (EntityTags.matches(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+        }
+
+        // Lista lida do banco: a versão sai da própria lista, já percorrida para a resposta
+        List<TransactionOutput> transactions = service.findByCustomer(customerId);
+        long fingerprint = 0;
+        for (TransactionOutput transaction : transactions) {
+            fingerprint ^= TransactionHistoryVersion.fingerprint(transaction.id());
+        }
+        return history(transactions, new TransactionHistoryVersion(transactions.size(), fingerprint), null);
+    }
+
+    // Com o modelo de leitura a versão vem pronta da visão: um 304 não percorre o histórico
+    private static ResponseEntity<List<TransactionOutput>> history(List<TransactionOutput> transactions,
+                                                                   TransactionHistoryVersion version, String ifNoneMatch) {
+        String etag = EntityTags.ofHistory(version);
+        if (EntityTags.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok().eTag(etag).body(transactions);
+    }
+
+    // Conciliação: sem customerId, from/to selecionam o intervalo de todos os clientes, paginado por (createdAt, id)
+    @GetMapping(params = {"!customerId", "from", "to"})
+    public List<TransactionOutput> findInRange(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cardType,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime afterCreatedAt,
+            @RequestParam(required = false) UUID afterId,
+            @RequestParam(defaultValue = "100") int limit) {
+        return service.findInRange(from, to, cardType, afterCreatedAt, afterId, limit);
+    }
+
+    @GetMapping(path = "/export", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportNdjson(
+            @RequestParam UUID customerId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        StreamingResponseBody body = out -> export(customerId, from, to, transaction -> {
+            out.write(objectMapper.writeValueAsBytes(transaction));
+            out.write('\n');
+        });
+
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+    }
+
+    @GetMapping(path = "/export", produces = CSV)
+    public ResponseEntity<StreamingResponseBody> exportCsv(
+            @RequestParam UUID customerId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        StreamingResponseBody body = out -> {
+            out.write(CSV_HEADER.getBytes(StandardCharsets.UTF_8));
+            export(customerId, from, to, transaction -> out.write(csvLine(transaction).getBytes(StandardCharsets.UTF_8)));
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(CSV))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"transactions-" + customerId + ".csv\"")
+                .body(body);
     }
 
     @DeleteMapping("/{id}")
-    public TransactionOutput delete(@PathVariable UUID id) {
-        return service.delete(id);
+    public ResponseEntity<TransactionOutput> delete(@PathVariable UUID id,
+                                                    @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return withETag(service.delete(id, EntityTags.expectedVersion(ifMatch)));
     }
-}
 
+    private static ResponseEntity<TransactionOutput> withETag(TransactionOutput transaction) {
+        return ResponseEntity.ok()
+                .eTag(EntityTags.of(transaction.version()))
+                .lastModified(EntityTags.epochMillis(transaction.createdAt()))
+                .body(transaction);
+    }
 
+    private interface RowWriter {
+        void write(TransactionOutput transaction) throws IOException;
+    }
+
+    private void export(UUID customerId, LocalDateTime from, LocalDateTime to, RowWriter writer) {
+        service.exportByCustomer(customerId, from != null ? from : EXPORT_FROM, to != null ? to : EXPORT_TO, transaction -> {
+            try {
+                writer.write(transaction);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private static String csvLine(TransactionOutput transaction) {
+        return transaction.id() + "," + transaction.customerId() + "," + transaction.amount().toPlainString() + ","
+                + csvField(transaction.cardType()) + "," + transaction.createdAt() + "," + transaction.active() + "\n";
+    }
+
+    private static String csvField(String value) {
+        if (value.contains(",") || value.contains("\"") || value.contains("\n")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+}
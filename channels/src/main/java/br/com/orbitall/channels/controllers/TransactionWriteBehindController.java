@@ -0,0 +1,35 @@
+package br.com.orbitall.channels.controllers;
+
+import br.com.orbitall.channels.canonicals.TransactionInput;
+import br.com.orbitall.channels.canonicals.TransactionStatusOutput;
+import br.com.orbitall.channels.services.TransactionWriteBehindService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/transactions")
+@ConditionalOnProperty(name = "channels.write-behind.enabled", havingValue = "true")
+public class TransactionWriteBehindController {
+
+    @Autowired
+    private TransactionWriteBehindService service;
+
+    @PostMapping("/async")
+    public ResponseEntity<TransactionStatusOutput> accept(@Valid @RequestBody TransactionInput input) {
+        TransactionStatusOutput output = service.accept(input);
+        return ResponseEntity.accepted()
+                .location(URI.create("/transactions/" + output.id() + "/status"))
+                .body(output);
+    }
+
+    @GetMapping("/{id}/status")
+    public TransactionStatusOutput status(@PathVariable UUID id) {
+        return service.status(id);
+    }
+}
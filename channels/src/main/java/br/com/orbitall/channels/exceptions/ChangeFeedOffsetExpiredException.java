@@ -0,0 +1,9 @@
+package br.com.orbitall.channels.exceptions;
+
+public class ChangeFeedOffsetExpiredException extends RuntimeException {
+
+    public ChangeFeedOffsetExpiredException(String message) {
+        super(message);
+    }
+
+}
@@ -0,0 +1,9 @@
+package br.com.orbitall.channels.exceptions;
+
+public class ExportDeadlineExceededException extends RuntimeException {
+
+    public ExportDeadlineExceededException(String message) {
+        super(message);
+    }
+
+}
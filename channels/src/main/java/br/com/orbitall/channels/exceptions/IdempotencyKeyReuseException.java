@@ -0,0 +1,9 @@
+package br.com.orbitall.channels.exceptions;
+
+public class IdempotencyKeyReuseException extends RuntimeException {
+
+    public IdempotencyKeyReuseException(String message) {
+        super(message);
+    }
+
+}
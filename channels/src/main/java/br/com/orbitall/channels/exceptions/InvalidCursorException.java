@@ -0,0 +1,9 @@
+package br.com.orbitall.channels.exceptions;
+
+public class InvalidCursorException extends RuntimeException {
+
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+
+}
@@ -0,0 +1,9 @@
+package br.com.orbitall.channels.exceptions;
+
+public class InvalidImportException extends RuntimeException {
+
+    public InvalidImportException(String message) {
+        super(message);
+    }
+
+}
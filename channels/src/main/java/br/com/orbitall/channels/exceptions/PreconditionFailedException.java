@@ -0,0 +1,9 @@
+package br.com.orbitall.channels.exceptions;
+
+public class PreconditionFailedException extends RuntimeException {
+
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+
+}
@@ -0,0 +1,115 @@
+package br.com.orbitall.channels.exceptions;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.sql.SQLTransientConnectionException;
+
+@RestControllerAdvice
+public class RestExceptionHandler {
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> registry;
+
+    @ExceptionHandler(ResourceNotFoundException.class)
+    public ResponseEntity<ProblemDetail> handleNotFound(ResourceNotFoundException e, HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        registry.ifAvailable(meters -> meters.counter("channels.not.found",
+                "method", request.getMethod(),
+                "uri", pattern != null ? pattern.toString() : "UNKNOWN").increment());
+
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(ProblemDetail.forStatusAndDetail(HttpStatus.NOT_FOUND, e.getMessage()));
+    }
+
+    @ExceptionHandler(InvalidImportException.class)
+    public ResponseEntity<ProblemDetail> handleInvalidImport(InvalidImportException e) {
+        return ResponseEntity.badRequest()
+                .body(ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, e.getMessage()));
+    }
+
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<ProblemDetail> handleInvalidCursor(InvalidCursorException e) {
+        return ResponseEntity.badRequest()
+                .body(ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, e.getMessage()));
+    }
+
+    @ExceptionHandler(IdempotencyKeyReuseException.class)
+    public ResponseEntity<ProblemDetail> handleKeyReuse(IdempotencyKeyReuseException e) {
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                .body(ProblemDetail.forStatusAndDetail(HttpStatus.UNPROCESSABLE_ENTITY, e.getMessage()));
+    }
+
+    // If-Match com versão diferente da atual: o cliente deve reler o recurso antes de tentar de novo
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<ProblemDetail> handlePreconditionFailed(PreconditionFailedException e) {
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+                .body(ProblemDetail.forStatusAndDetail(HttpStatus.PRECONDITION_FAILED, e.getMessage()));
+    }
+
+    // Pool de conexões esgotado (connection-timeout do Hikari): sinaliza sobrecarga ao cliente em vez de erro interno.
+    // Outras falhas de conexão (banco fora do ar, credenciais, rede) não passam com uma nova tentativa: seguem como 500
+    @ExceptionHandler({CannotCreateTransactionException.class, DataAccessResourceFailureException.class})
+    public ResponseEntity<ProblemDetail> handleUnavailable(RuntimeException e) {
+        if (!isPoolTimeout(e)) {
+            throw e;
+        }
+
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE,
+                "Database connections exhausted, retry later");
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(problem);
+    }
+
+    // O Hikari sinaliza a espera esgotada com SQLTransientConnectionException, embrulhada pelo Hibernate e pelo Spring
+    private static boolean isPoolTimeout(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause() == cause ? null : cause.getCause()) {
+            if (cause instanceof SQLTransientConnectionException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Limite de velocidade: 429 com Retry-After quando a janela libera espaço; 422 quando o valor sozinho passa do limite
+    @ExceptionHandler(VelocityLimitExceededException.class)
+    public ResponseEntity<ProblemDetail> handleVelocityLimit(VelocityLimitExceededException e) {
+        if (e.getRetryAfter() == null) {
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                    .body(ProblemDetail.forStatusAndDetail(HttpStatus.UNPROCESSABLE_ENTITY, e.getMessage()));
+        }
+
+        long seconds = Math.max(1, (e.getRetryAfter().toMillis() + 999) / 1000);
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(seconds))
+                .body(ProblemDetail.forStatusAndDetail(HttpStatus.TOO_MANY_REQUESTS, e.getMessage()));
+    }
+
+    // Fila do write-behind cheia: recusa na entrada em vez de acumular memória
+    @ExceptionHandler(WriteQueueFullException.class)
+    public ResponseEntity<ProblemDetail> handleQueueFull(WriteQueueFullException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(ProblemDetail.forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage()));
+    }
+
+    // Offset do change feed já apagado pela retenção: o assinante precisa ressincronizar por outro caminho
+    @ExceptionHandler(ChangeFeedOffsetExpiredException.class)
+    public ResponseEntity<ProblemDetail> handleOffsetExpired(ChangeFeedOffsetExpiredException e) {
+        return ResponseEntity.status(HttpStatus.GONE)
+                .body(ProblemDetail.forStatusAndDetail(HttpStatus.GONE, e.getMessage()));
+    }
+}
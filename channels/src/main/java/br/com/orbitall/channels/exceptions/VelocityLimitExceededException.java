@@ -0,0 +1,19 @@
+package br.com.orbitall.channels.exceptions;
+
+import java.time.Duration;
+
+public class VelocityLimitExceededException extends RuntimeException {
+
+    // Nulo quando esperar não adianta (o valor da transação sozinho passa do limite da janela)
+    private final Duration retryAfter;
+
+    public VelocityLimitExceededException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+}
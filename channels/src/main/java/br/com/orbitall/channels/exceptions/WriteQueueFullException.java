@@ -0,0 +1,9 @@
+package br.com.orbitall.channels.exceptions;
+
+public class WriteQueueFullException extends RuntimeException {
+
+    public WriteQueueFullException(String message) {
+        super(message);
+    }
+
+}
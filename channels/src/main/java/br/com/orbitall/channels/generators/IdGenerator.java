@@ -0,0 +1,9 @@
+package br.com.orbitall.channels.generators;
+
+import java.util.UUID;
+
+public interface IdGenerator {
+
+    UUID next();
+
+}
@@ -0,0 +1,57 @@
+package br.com.orbitall.channels.generators;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+// UUIDv7 (RFC 9562): 48 bits de timestamp em ms + 12 bits de sequência + 62 bits aleatórios.
+// Timestamp e sequência avançam juntos em um único AtomicLong (CAS, sem lock), garantindo ids
+// estritamente crescentes mesmo com várias threads no mesmo milissegundo; se a sequência
+// estourar, o timestamp é adiantado em 1 ms (método 3 da RFC).
+@Component
+@ConditionalOnProperty(name = "channels.id-generator", havingValue = "uuid-v7", matchIfMissing = true)
+public class TimeOrderedUuidGenerator implements IdGenerator {
+
+    private static final int SEQUENCE_BITS = 12;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final long VERSION_7 = 0x7000L;
+    private static final long VARIANT_MASK = 0x3FFF_FFFF_FFFF_FFFFL;
+    private static final long VARIANT_RFC = 0x8000_0000_0000_0000L;
+
+    private final AtomicLong lastTimestampAndSequence = new AtomicLong();
+
+    private final LongSupplier clock;
+
+    public TimeOrderedUuidGenerator() {
+        this(System::currentTimeMillis);
+    }
+
+    TimeOrderedUuidGenerator(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public UUID next() {
+        long candidate = clock.getAsLong() << SEQUENCE_BITS;
+
+        long current;
+        long next;
+        do {
+            current = lastTimestampAndSequence.get();
+            next = Math.max(candidate, current + 1);
+        } while (!lastTimestampAndSequence.compareAndSet(current, next));
+
+        long timestamp = next >>> SEQUENCE_BITS;
+        long sequence = next & SEQUENCE_MASK;
+
+        long mostSigBits = (timestamp << 16) | VERSION_7 | sequence;
+        long leastSigBits = (ThreadLocalRandom.current().nextLong() & VARIANT_MASK) | VARIANT_RFC;
+
+        return new UUID(mostSigBits, leastSigBits);
+    }
+
+}
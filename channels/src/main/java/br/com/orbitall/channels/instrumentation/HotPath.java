@@ -0,0 +1,13 @@
+package br.com.orbitall.channels.instrumentation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Ponto de entrada do caminho quente: ganha timer channels.service e etapa no perfil da requisição.
+// Na classe vale para todos os métodos públicos dela
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface HotPath {
+}
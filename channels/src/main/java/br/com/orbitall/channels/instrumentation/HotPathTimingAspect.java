@@ -0,0 +1,121 @@
+package br.com.orbitall.channels.instrumentation;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Timers channels.service (métodos @HotPath) / channels.repository por método e registro das etapas da requisição corrente
+@Aspect
+@Component
+public class HotPathTimingAspect {
+
+    static final String SERVICE_TIMER = "channels.service";
+    static final String REPOSITORY_TIMER = "channels.repository";
+    static final String CONTROLLER_STAGE_PREFIX = "controller:";
+
+    @Autowired
+    private MeterRegistry registry;
+
+    // Timers de sucesso em cache por (classe, método) para não montar tags a cada chamada
+    private final ClassValue<Map<Method, Timer>> successTimers = new ClassValue<>() {
+        @Override
+        protected Map<Method, Timer> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    // Nome da interface do repositório (ex.: CustomerRepository) a partir do proxy do Spring Data
+    // ou, no armazenamento em memória, da classe por trás do proxy CGLIB
+    private static final ClassValue<String> REPOSITORY_NAMES = new ClassValue<>() {
+        @Override
+        protected String computeValue(Class<?> type) {
+            for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+                for (Class<?> candidate : current.getInterfaces()) {
+                    if (Repository.class.isAssignableFrom(candidate)) {
+                        return candidate.getSimpleName();
+                    }
+                }
+            }
+            return type.getSimpleName();
+        }
+    };
+
+    // Só os pontos de entrada marcados com @HotPath: utilitários públicos chamados por linha ou por item
+    // (modelo de leitura, agregados, outbox) não pagam um timer por chamada
+    @Around("execution(public * *(..)) && (@within(br.com.orbitall.channels.instrumentation.HotPath)"
+            + " || @annotation(br.com.orbitall.channels.instrumentation.HotPath))")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        Class<?> type = AopUtils.getTargetClass(joinPoint.getTarget());
+        return time(joinPoint, SERVICE_TIMER, "class", type, type.getSimpleName());
+    }
+
+    @Around("this(org.springframework.data.repository.Repository)")
+    public Object timeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        Class<?> type = joinPoint.getThis().getClass();
+        return time(joinPoint, REPOSITORY_TIMER, "repository", type, REPOSITORY_NAMES.get(type));
+    }
+
+    // Controllers não ganham timer próprio (http.server.requests já cobre); só delimitam binding/validação e serialização
+    @Around("within(br.com.orbitall.channels.controllers..*) && execution(public * *(..))")
+    public Object markController(ProceedingJoinPoint joinPoint) throws Throwable {
+        RequestProfile profile = RequestProfile.current();
+        if (profile == null) {
+            return joinPoint.proceed();
+        }
+
+        int depth = profile.enter();
+        long start = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            profile.exit(CONTROLLER_STAGE_PREFIX + joinPoint.getSignature().getDeclaringType().getSimpleName()
+                    + "." + joinPoint.getSignature().getName(), depth, start, System.nanoTime());
+        }
+    }
+
+    private Object time(ProceedingJoinPoint joinPoint, String timerName, String typeTag, Class<?> type,
+                        String typeName) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        RequestProfile profile = RequestProfile.current();
+        int depth = profile != null ? profile.enter() : 0;
+        long start = System.nanoTime();
+        Throwable failure = null;
+
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            failure = e;
+            throw e;
+        } finally {
+            long end = System.nanoTime();
+            Timer timer = failure == null
+                    ? successTimers.get(type).computeIfAbsent(method, m -> timer(timerName, typeTag, typeName, m, "none"))
+                    : timer(timerName, typeTag, typeName, method, failure.getClass().getSimpleName());
+            timer.record(end - start, TimeUnit.NANOSECONDS);
+
+            if (profile != null) {
+                profile.exit(typeName + "." + method.getName(), depth, start, end);
+            }
+        }
+    }
+
+    private Timer timer(String name, String typeTag, String typeName, Method method, String exception) {
+        return Timer.builder(name)
+                .tag(typeTag, typeName)
+                .tag("method", method.getName())
+                .tag("exception", exception)
+                .register(registry);
+    }
+}
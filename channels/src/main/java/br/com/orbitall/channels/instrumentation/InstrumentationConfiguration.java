@@ -0,0 +1,19 @@
+package br.com.orbitall.channels.instrumentation;
+
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Configuration
+public class InstrumentationConfiguration {
+
+    // Primeiro filtro da cadeia, para que o tempo total inclua os demais filtros
+    @Bean
+    public FilterRegistrationBean<RequestProfilingFilter> requestProfilingFilter(SlowRequestLog slowRequestLog) {
+        FilterRegistrationBean<RequestProfilingFilter> registration =
+                new FilterRegistrationBean<>(new RequestProfilingFilter(slowRequestLog));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
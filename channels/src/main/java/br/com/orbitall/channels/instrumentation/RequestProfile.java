@@ -0,0 +1,55 @@
+package br.com.orbitall.channels.instrumentation;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+// Etapas medidas durante uma requisição HTTP; vive em ThreadLocal apenas enquanto o filtro está ativo
+final class RequestProfile {
+
+    static final int MAX_STAGES = 64;
+
+    private static final ThreadLocal<RequestProfile> CURRENT = new ThreadLocal<>();
+
+    record Stage(String name, int depth, long startNanos, long durationNanos) {
+    }
+
+    final Instant startedAt = Instant.now();
+    final long startNanos = System.nanoTime();
+
+    private final List<Stage> stages = new ArrayList<>();
+    private int depth;
+
+    static RequestProfile start() {
+        RequestProfile profile = new RequestProfile();
+        CURRENT.set(profile);
+        return profile;
+    }
+
+    static RequestProfile current() {
+        return CURRENT.get();
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+
+    int enter() {
+        return depth++;
+    }
+
+    void exit(String name, int stageDepth, long start, long end) {
+        depth = stageDepth;
+        if (stages.size() < MAX_STAGES) {
+            stages.add(new Stage(name, stageDepth, start - startNanos, end - start));
+        }
+    }
+
+    // Etapas em ordem de início (são registradas ao terminar, logo as internas chegam antes das externas)
+    List<Stage> stages() {
+        List<Stage> sorted = new ArrayList<>(stages);
+        sorted.sort(Comparator.comparingLong(Stage::startNanos).thenComparingInt(Stage::depth));
+        return sorted;
+    }
+}
@@ -0,0 +1,58 @@
+package br.com.orbitall.channels.instrumentation;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+// Abre o perfil da requisição e, ao final, deriva as etapas fora do controller (binding/validação e serialização)
+public class RequestProfilingFilter extends OncePerRequestFilter {
+
+    static final String BINDING_STAGE = "request.binding-validation";
+    static final String WRITING_STAGE = "response.serialization";
+
+    private final SlowRequestLog slowRequestLog;
+
+    public RequestProfilingFilter(SlowRequestLog slowRequestLog) {
+        this.slowRequestLog = slowRequestLog;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        return path.startsWith("/actuator") || path.startsWith("/h2-console");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestProfile profile = RequestProfile.start();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            long end = System.nanoTime();
+            RequestProfile.clear();
+            // Caminho comum: requisição mais rápida que as retidas, nada é montado
+            if (slowRequestLog.shouldRecord(end - profile.startNanos, end)) {
+                complete(profile, end);
+                slowRequestLog.record(profile, request.getMethod(), request.getRequestURI(), response.getStatus(),
+                        end - profile.startNanos);
+            }
+        }
+    }
+
+    private static void complete(RequestProfile profile, long end) {
+        profile.stages().stream()
+                .filter(stage -> stage.name().startsWith(HotPathTimingAspect.CONTROLLER_STAGE_PREFIX))
+                .findFirst()
+                .ifPresent(controller -> {
+                    long controllerStart = profile.startNanos + controller.startNanos();
+                    long controllerEnd = controllerStart + controller.durationNanos();
+                    profile.exit(BINDING_STAGE, 0, profile.startNanos, controllerStart);
+                    profile.exit(WRITING_STAGE, 0, controllerEnd, end);
+                });
+    }
+}
@@ -0,0 +1,93 @@
+package br.com.orbitall.channels.instrumentation;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+// Mantém as N requisições mais lentas dentro da janela recente; requisições rápidas são descartadas sem lock
+@Component
+public class SlowRequestLog {
+
+    public record StageTiming(String stage, int depth, double startMs, double durationMs) {
+    }
+
+    public record SlowRequest(Instant startedAt, String method, String uri, int status, double durationMs,
+                              List<StageTiming> stages) {
+    }
+
+    private record Entry(long recordedAtNanos, long durationNanos, SlowRequest request) {
+    }
+
+    private final int capacity;
+    private final long windowNanos;
+
+    private final PriorityQueue<Entry> slowest = new PriorityQueue<>(Comparator.comparingLong(Entry::durationNanos));
+
+    // Menor duração retida quando a fila está cheia e instante em que a entrada mais antiga expira
+    private volatile long threshold;
+    private volatile long nextExpiry = Long.MAX_VALUE;
+
+    public SlowRequestLog(@Value("${channels.instrumentation.slow-requests.size:20}") int capacity,
+                          @Value("${channels.instrumentation.slow-requests.window:5m}") Duration window) {
+        this.capacity = capacity;
+        this.windowNanos = window.toNanos();
+    }
+
+    boolean shouldRecord(long durationNanos, long nowNanos) {
+        return durationNanos > threshold || nowNanos - nextExpiry >= 0;
+    }
+
+    void record(RequestProfile profile, String method, String uri, int status, long durationNanos) {
+        long now = System.nanoTime();
+        if (!shouldRecord(durationNanos, now)) {
+            return;
+        }
+
+        SlowRequest request = new SlowRequest(profile.startedAt, method, uri, status, millis(durationNanos),
+                profile.stages().stream()
+                        .map(stage -> new StageTiming(stage.name(), stage.depth(), millis(stage.startNanos()),
+                                millis(stage.durationNanos())))
+                        .toList());
+
+        synchronized (slowest) {
+            evictExpired(now);
+            slowest.add(new Entry(now, durationNanos, request));
+            if (slowest.size() > capacity) {
+                slowest.poll();
+            }
+            refresh();
+        }
+    }
+
+    public List<SlowRequest> snapshot() {
+        List<Entry> entries;
+        synchronized (slowest) {
+            evictExpired(System.nanoTime());
+            refresh();
+            entries = new ArrayList<>(slowest);
+        }
+
+        entries.sort(Comparator.comparingLong(Entry::durationNanos).reversed());
+        return entries.stream().map(Entry::request).toList();
+    }
+
+    private void evictExpired(long now) {
+        slowest.removeIf(entry -> now - entry.recordedAtNanos() >= windowNanos);
+    }
+
+    private void refresh() {
+        threshold = slowest.size() < capacity ? 0 : slowest.peek().durationNanos();
+        nextExpiry = slowest.stream().mapToLong(Entry::recordedAtNanos).min().orElse(Long.MAX_VALUE - windowNanos)
+                + windowNanos;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
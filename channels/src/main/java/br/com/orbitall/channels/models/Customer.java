@@ -2,16 +2,23 @@ package br.com.orbitall.channels.models;
 
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "CUSTOMERS")
+@Table(name = "CUSTOMERS", indexes = {
+        @Index(name = "IDX_CUSTOMERS_ACTIVE_ID", columnList = "active, id")
+})
 @Data
-public class Customer {
+@EqualsAndHashCode(callSuper = false)
+public class Customer extends PersistableEntity<UUID> {
     @Id private UUID id;
     private String fullName;
     private String email;
@@ -19,4 +26,9 @@ public class Customer {
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     private boolean active;
+    // Incrementada a cada alteração; exposta como ETag e conferida contra If-Match.
+    // O DEFAULT 0 mantém válidos os INSERTs JDBC que não informam a coluna (importação em massa)
+    @Version
+    @ColumnDefault("0")
+    private long version;
 }
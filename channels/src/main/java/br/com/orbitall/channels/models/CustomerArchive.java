@@ -0,0 +1,26 @@
+package br.com.orbitall.channels.models;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Clientes inativos retirados de CUSTOMERS pela compactação; consultados apenas pela busca de arquivo
+@Entity
+@Table(name = "CUSTOMERS_ARCHIVE")
+@Data
+@EqualsAndHashCode(callSuper = false)
+public class CustomerArchive extends PersistableEntity<UUID> {
+    @Id private UUID id;
+    private String fullName;
+    private String email;
+    private String phone;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private long version;
+    private LocalDateTime archivedAt;
+}
@@ -0,0 +1,7 @@
+package br.com.orbitall.channels.models;
+
+import java.time.LocalDateTime;
+
+// Projeção para revalidação (If-None-Match): só a versão e a data da última alteração, sem carregar a entidade
+public record EntityVersion(long version, LocalDateTime lastModified) {
+}
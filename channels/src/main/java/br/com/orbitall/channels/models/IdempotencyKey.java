@@ -0,0 +1,32 @@
+package br.com.orbitall.channels.models;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Resultado original de um POST /transactions com Idempotency-Key; os dados da requisição ficam
+// junto para detectar a reutilização da mesma chave com outro corpo
+@Entity
+@Table(name = "IDEMPOTENCY_KEYS", indexes = {
+        @Index(name = "IDX_IDEMPOTENCY_KEYS_CREATED", columnList = "createdAt")
+})
+@Data
+@EqualsAndHashCode(callSuper = false)
+public class IdempotencyKey extends PersistableEntity<String> {
+    @Id
+    @Column(name = "idempotency_key")
+    private String id;
+    private UUID transactionId;
+    private UUID customerId;
+    private BigDecimal amount;
+    private String cardType;
+    private LocalDateTime createdAt;
+}
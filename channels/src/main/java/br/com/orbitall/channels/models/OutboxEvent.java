@@ -0,0 +1,38 @@
+package br.com.orbitall.channels.models;
+
+import br.com.orbitall.channels.canonicals.ChangeType;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Mudança de cliente ou transação gravada na mesma transação da escrita (transactional outbox).
+// sequenceNumber fica nulo até o relay do change feed numerar o evento, na ordem em que os commits ficaram visíveis
+@Entity
+@Table(name = "OUTBOX_EVENTS", indexes = {
+        @Index(name = "IDX_OUTBOX_EVENTS_SEQUENCE", columnList = "sequenceNumber", unique = true),
+        @Index(name = "IDX_OUTBOX_EVENTS_CREATED", columnList = "createdAt")
+})
+@Data
+@EqualsAndHashCode(callSuper = false)
+public class OutboxEvent extends PersistableEntity<UUID> {
+    @Id
+    private UUID id;
+    private Long sequenceNumber;
+    @Enumerated(EnumType.STRING)
+    private ChangeType type;
+    private UUID customerId;
+    private UUID entityId;
+    // CustomerOutput ou TransactionOutput em JSON, como na API
+    @Column(length = 4000)
+    private String payload;
+    private LocalDateTime createdAt;
+}
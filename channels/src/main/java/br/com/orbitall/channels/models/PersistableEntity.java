@@ -0,0 +1,27 @@
+package br.com.orbitall.channels.models;
+
+import jakarta.persistence.MappedSuperclass;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Transient;
+import org.springframework.data.domain.Persistable;
+
+// Os ids são gerados pela aplicação antes do save(); sem isso o Spring Data trataria toda entidade
+// como existente e faria merge (SELECT + INSERT) em vez de persist (apenas INSERT).
+@MappedSuperclass
+public abstract class PersistableEntity<ID> implements Persistable<ID> {
+
+    @Transient
+    private boolean newEntity = true;
+
+    @Override
+    public boolean isNew() {
+        return newEntity;
+    }
+
+    @PostLoad
+    @PostPersist
+    public void markNotNew() {
+        newEntity = false;
+    }
+}
@@ -2,17 +2,26 @@ package br.com.orbitall.channels.models;
 
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "TRANSACTIONS")
+@Table(name = "TRANSACTIONS", indexes = {
+        @Index(name = "IDX_TRANSACTIONS_CUSTOMER_ACTIVE_CREATED", columnList = "customerId, active, createdAt"),
+        @Index(name = "IDX_TRANSACTIONS_CREATED", columnList = "createdAt, id"),
+        @Index(name = "IDX_TRANSACTIONS_DEACTIVATED", columnList = "deactivatedAt")
+})
 @Data
-public class Transaction {
+@EqualsAndHashCode(callSuper = false)
+public class Transaction extends PersistableEntity<UUID> {
     @Id
     private UUID id;
     private UUID customerId;
@@ -20,4 +29,9 @@ public class Transaction {
     private String cardType;
     private LocalDateTime createdAt;
     private boolean active;
+    // Momento da exclusão lógica (nulo enquanto ativa): a retenção do arquivamento conta a partir dele
+    private LocalDateTime deactivatedAt;
+    @Version
+    @ColumnDefault("0")
+    private long version;
 }
@@ -0,0 +1,37 @@
+package br.com.orbitall.channels.models;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.UUID;
+
+// Totais de transações ativas por cliente e bandeira, mantidos incrementalmente a cada create/delete
+@Entity
+@Table(name = "TRANSACTION_AGGREGATES")
+@IdClass(TransactionAggregate.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionAggregate {
+    @Id
+    private UUID customerId;
+    @Id
+    private String cardType;
+    private long transactionCount;
+    private BigDecimal totalAmount;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private UUID customerId;
+        private String cardType;
+    }
+}
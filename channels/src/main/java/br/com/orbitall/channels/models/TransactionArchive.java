@@ -0,0 +1,30 @@
+package br.com.orbitall.channels.models;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "TRANSACTIONS_ARCHIVE", indexes = {
+        @Index(name = "IDX_TRANSACTIONS_ARCHIVE_CUSTOMER", columnList = "customerId")
+})
+@Data
+@EqualsAndHashCode(callSuper = false)
+public class TransactionArchive extends PersistableEntity<UUID> {
+    @Id
+    private UUID id;
+    private UUID customerId;
+    private BigDecimal amount;
+    private String cardType;
+    private LocalDateTime createdAt;
+    private LocalDateTime deactivatedAt;
+    private long version;
+    private LocalDateTime archivedAt;
+}
@@ -0,0 +1,25 @@
+package br.com.orbitall.channels.models;
+
+import java.util.UUID;
+
+// Projeção para revalidação do histórico de um cliente: quantidade de transações ativas e a impressão digital do
+// conjunto (XOR dos ids). Transações ativas não mudam, então o mesmo conjunto de ids é a mesma resposta; qualquer
+// entrada ou saída muda a impressão digital, mesmo que a quantidade e a mais recente continuem iguais
+public record TransactionHistoryVersion(long count, long fingerprint) {
+
+    public static final TransactionHistoryVersion EMPTY = new TransactionHistoryVersion(0, 0);
+
+    // Entrada e saída de uma transação do conjunto, sem recalcular as demais (o XOR é o próprio inverso)
+    public TransactionHistoryVersion plus(UUID id) {
+        return new TransactionHistoryVersion(count + 1, fingerprint ^ fingerprint(id));
+    }
+
+    public TransactionHistoryVersion minus(UUID id) {
+        return new TransactionHistoryVersion(count - 1, fingerprint ^ fingerprint(id));
+    }
+
+    // Parcela de uma transação: XOR das duas metades do id, a mesma conta feita pelo banco
+    public static long fingerprint(UUID id) {
+        return id.getMostSignificantBits() ^ id.getLeastSignificantBits();
+    }
+}
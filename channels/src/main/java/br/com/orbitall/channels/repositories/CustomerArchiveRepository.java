@@ -0,0 +1,11 @@
+package br.com.orbitall.channels.repositories;
+
+import br.com.orbitall.channels.models.CustomerArchive;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+@Repository
+public interface CustomerArchiveRepository extends JpaRepository<CustomerArchive, UUID> {
+}
@@ -1,12 +1,78 @@
 package br.com.orbitall.channels.repositories;
 
 import br.com.orbitall.channels.models.Customer;
-import org.springframework.data.jpa.repository.JpaRepository;
+import br.com.orbitall.channels.models.EntityVersion;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.ListCrudRepository;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
+// Só as operações de CRUD (sem ordenação/paginação genéricas nem consultas por exemplo): o repositório em memória
+// implementa a mesma interface por inteiro
 @Repository
-public interface CustomerRepository extends JpaRepository<Customer, UUID> {
-    // Aqui você pode adicionar queries customizadas se precisar
+public interface CustomerRepository extends ListCrudRepository<Customer, UUID> {
+    // Paginação por cursor (keyset): primeira página e páginas seguintes a partir do último id.
+    // Ordenar por (active, id) deixa o H2 ler já ordenado pelo índice, sem ordenar o restante da tabela a cada página.
+    @Query("select c from Customer c where c.active = true order by c.active, c.id")
+    List<Customer> findActivePage(Limit limit);
+
+    @Query("select c from Customer c where c.active = true and c.id > :after order by c.active, c.id")
+    List<Customer> findActivePageAfter(UUID after, Limit limit);
+
+    // Todos os ids (ativos e inativos), para rotinas que varrem a tabela inteira
+    @Query("select c.id from Customer c order by c.id")
+    List<UUID> findIdPage(Limit limit);
+
+    @Query("select c.id from Customer c where c.id > :after order by c.id")
+    List<UUID> findIdPageAfter(UUID after, Limit limit);
+
+    boolean existsByIdAndActiveTrue(UUID id);
+
+    // Revalidação de GET /customers/{id}: versão e updatedAt, sem montar a entidade
+    @Query("select new br.com.orbitall.channels.models.EntityVersion(c.version, c.updatedAt) "
+            + "from Customer c where c.id = :id and c.active = true")
+    Optional<EntityVersion> findActiveVersion(UUID id);
+
+    // Valida vários clientes de uma vez (ingestão em lote)
+    @Query("select c.id from Customer c where c.id in :ids and c.active = true")
+    Set<UUID> findActiveIdsByIdIn(Collection<UUID> ids);
+
+    // Consulta em lote (POST /customers/lookup): um IN por bloco de ids
+    @Query("select c from Customer c where c.id in :ids and c.active = true")
+    List<Customer> findActiveByIdIn(Collection<UUID> ids);
+
+    // Escritas em um único comando: UPDATE condicional (ativo e, se informada, na versão esperada) devolvendo a linha
+    // já alterada via FINAL TABLE do H2. Vazio quando nenhuma linha atende à condição.
+    @Transactional
+    @Query(value = "SELECT * FROM FINAL TABLE (UPDATE CUSTOMERS SET full_name = :fullName, email = :email, phone = :phone, "
+            + "updated_at = :updatedAt, version = version + 1 "
+            + "WHERE id = :id AND active = TRUE AND (CAST(:version AS BIGINT) IS NULL OR version = :version))", nativeQuery = true)
+    Optional<Customer> updateActive(UUID id, String fullName, String email, String phone, LocalDateTime updatedAt, Long version);
+
+    @Transactional
+    @Query(value = "SELECT * FROM FINAL TABLE (UPDATE CUSTOMERS SET active = FALSE, updated_at = :updatedAt, version = version + 1 "
+            + "WHERE id = :id AND active = TRUE AND (CAST(:version AS BIGINT) IS NULL OR version = :version))", nativeQuery = true)
+    Optional<Customer> deactivate(UUID id, LocalDateTime updatedAt, Long version);
+
+    // Compactação: clientes inativos cuja última alteração (a desativação) é anterior ao corte
+    @Query("select c from Customer c where c.active = false and c.updatedAt < :cutoff")
+    List<Customer> findArchivable(LocalDateTime cutoff, Limit limit);
+
+    @Query("select min(c.updatedAt) from Customer c where c.active = false and c.updatedAt < :cutoff")
+    LocalDateTime findOldestArchivable(LocalDateTime cutoff);
+
+    // Remove o bloco arquivado em um único DELETE ... WHERE id IN
+    @Transactional
+    @Modifying
+    @Query("delete from Customer c where c.id in :ids")
+    int deleteByIds(Collection<UUID> ids);
 }
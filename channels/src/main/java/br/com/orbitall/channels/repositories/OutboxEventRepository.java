@@ -0,0 +1,44 @@
+package br.com.orbitall.channels.repositories;
+
+import br.com.orbitall.channels.canonicals.ChangeType;
+import br.com.orbitall.channels.models.OutboxEvent;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, UUID> {
+
+    // Eventos já commitados e ainda sem número, na ordem em que foram gravados
+    @Query("select e from OutboxEvent e where e.sequenceNumber is null order by e.createdAt, e.id")
+    List<OutboxEvent> findUnsequenced(Limit limit);
+
+    @Query("select coalesce(max(e.sequenceNumber), 0) from OutboxEvent e")
+    long findLastSequenceNumber();
+
+    @Query("select min(e.sequenceNumber) from OutboxEvent e")
+    Long findFirstSequenceNumber();
+
+    // Leitura a partir de um offset, pelo índice único de sequenceNumber
+    @Query("select e from OutboxEvent e where e.sequenceNumber > :after "
+            + "and (:customerId is null or e.customerId = :customerId) and e.type in :types "
+            + "order by e.sequenceNumber")
+    List<OutboxEvent> findSequencedAfter(long after, UUID customerId, Collection<ChangeType> types, Limit limit);
+
+    @Query("select max(e.sequenceNumber) from OutboxEvent e where e.createdAt < :before")
+    Long findLastSequenceNumberBefore(LocalDateTime before);
+
+    // Retenção: apaga por número (e não por data) para que o primeiro offset retido seja o mesmo em todos os shards
+    @Transactional
+    @Modifying
+    @Query("delete from OutboxEvent e where e.sequenceNumber <= :last")
+    int deleteSequencedThrough(long last);
+}
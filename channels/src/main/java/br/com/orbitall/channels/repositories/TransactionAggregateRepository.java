@@ -0,0 +1,40 @@
+package br.com.orbitall.channels.repositories;
+
+import br.com.orbitall.channels.models.TransactionAggregate;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface TransactionAggregateRepository extends JpaRepository<TransactionAggregate, TransactionAggregate.Key> {
+
+    List<TransactionAggregate> findByCustomerId(UUID customerId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select a from TransactionAggregate a where a.customerId = :customerId")
+    List<TransactionAggregate> lockByCustomerId(UUID customerId);
+
+    // Soma em O(1) na linha (cliente, bandeira); 0 linhas afetadas quando a bandeira ainda não tem agregado
+    @Modifying
+    @Query("update TransactionAggregate a set a.transactionCount = a.transactionCount + :count, "
+            + "a.totalAmount = a.totalAmount + :amount where a.customerId = :customerId and a.cardType = :cardType")
+    int add(UUID customerId, String cardType, long count, BigDecimal amount);
+
+    // Exclusões subtraem o valor da transação, sem recalcular o histórico do cliente
+    @Modifying
+    @Query("update TransactionAggregate a set a.transactionCount = a.transactionCount - 1, "
+            + "a.totalAmount = a.totalAmount - :amount where a.customerId = :customerId and a.cardType = :cardType")
+    int subtract(UUID customerId, String cardType, BigDecimal amount);
+
+    // Cliente desativado com todas as transações: os totais deixam de existir
+    @Modifying
+    @Query("delete from TransactionAggregate a where a.customerId = :customerId")
+    int deleteByCustomerId(UUID customerId);
+}
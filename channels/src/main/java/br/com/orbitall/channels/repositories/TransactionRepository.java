@@ -1,14 +1,116 @@
 package br.com.orbitall.channels.repositories;
 
+import br.com.orbitall.channels.models.EntityVersion;
 import br.com.orbitall.channels.models.Transaction;
-import org.springframework.data.jpa.repository.JpaRepository;
+import br.com.orbitall.channels.models.TransactionAggregate;
+import br.com.orbitall.channels.models.TransactionHistoryVersion;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.ListCrudRepository;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
+// Só as operações de CRUD (sem ordenação/paginação genéricas nem consultas por exemplo): o repositório em memória
+// implementa a mesma interface por inteiro
 @Repository
-public interface TransactionRepository extends JpaRepository<Transaction, UUID> {
-    // Buscar todas as transações de um cliente
-    List<Transaction> findByCustomerId(UUID customerId);
+public interface TransactionRepository extends ListCrudRepository<Transaction, UUID> {
+    // Buscar as transações ativas de um cliente, em ordem cronológica.
+    // A ordenação repete o prefixo do índice para o H2 ler já ordenado, sem etapa de sort.
+    @Query("select t from Transaction t where t.customerId = :customerId and t.active = true "
+            + "order by t.customerId, t.active, t.createdAt")
+    List<Transaction> findActiveByCustomer(UUID customerId);
+
+    // Revalidação de GET /transactions/{id}: transações só mudam ao serem desativadas, então createdAt é a última alteração
+    @Query("select new br.com.orbitall.channels.models.EntityVersion(t.version, t.createdAt) "
+            + "from Transaction t where t.id = :id and t.active = true")
+    Optional<EntityVersion> findActiveVersion(UUID id);
+
+    // Revalidação de GET /transactions?customerId=: quantidade e XOR das metades de cada id, sem carregar entidades
+    @Query(value = "SELECT COUNT(*) AS count, COALESCE(BIT_XOR_AGG(BITXOR("
+            + "CAST(SUBSTRING(CAST(id AS VARBINARY(16)) FROM 1 FOR 8) AS BIGINT), "
+            + "CAST(SUBSTRING(CAST(id AS VARBINARY(16)) FROM 9 FOR 8) AS BIGINT))), 0) AS fingerprint "
+            + "FROM TRANSACTIONS WHERE customer_id = :customerId AND active = TRUE", nativeQuery = true)
+    TransactionHistoryVersion findActiveHistoryVersion(UUID customerId);
+
+    // Exportação: cursor forward-only com fetch size fixo e entidades somente leitura (sem snapshot de dirty checking),
+    // na mesma ordem do índice; o intervalo é [from, to)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("select t from Transaction t where t.customerId = :customerId and t.active = true "
+            + "and t.createdAt >= :from and t.createdAt < :to "
+            + "order by t.customerId, t.active, t.createdAt")
+    Stream<Transaction> streamActiveByCustomer(UUID customerId, LocalDateTime from, LocalDateTime to);
+
+    // Consulta em lote (POST /transactions/lookup): um IN por bloco de ids
+    @Query("select t from Transaction t where t.id in :ids and t.active = true")
+    List<Transaction> findActiveByIdIn(Collection<UUID> ids);
+
+    // Conciliação: transações ativas de todos os clientes em [from, to), opcionalmente de uma bandeira.
+    // Paginação por chave (createdAt, id) sobre o índice de mesmo nome: cada página é uma leitura de intervalo,
+    // sem OFFSET, e custa o mesmo na primeira página ou na milésima
+    @Query("select t from Transaction t where t.createdAt >= :from and t.createdAt < :to and t.active = true "
+            + "and (:cardType is null or t.cardType = :cardType) "
+            + "order by t.createdAt, t.id")
+    List<Transaction> findActiveInRange(LocalDateTime from, LocalDateTime to, String cardType, Limit limit);
+
+    // Próxima página: continua logo após a última (createdAt, id) entregue
+    @Query("select t from Transaction t where t.createdAt >= :afterCreatedAt and t.createdAt < :to "
+            + "and (t.createdAt > :afterCreatedAt or t.id > :afterId) and t.active = true "
+            + "and (:cardType is null or t.cardType = :cardType) "
+            + "order by t.createdAt, t.id")
+    List<Transaction> findActiveInRangeAfter(LocalDateTime afterCreatedAt, UUID afterId, LocalDateTime to, String cardType,
+                                             Limit limit);
+
+    // Totais de um cliente por bandeira calculados a partir de TRANSACTIONS (usado pela rotina de reconstrução)
+    @Query("select new br.com.orbitall.channels.models.TransactionAggregate(t.customerId, t.cardType, count(t), sum(t.amount)) "
+            + "from Transaction t where t.customerId = :customerId and t.active = true group by t.customerId, t.cardType")
+    List<TransactionAggregate> aggregateActiveByCustomer(UUID customerId);
+
+    // Exclusão lógica em um único comando, como em CustomerRepository.deactivate
+    @Transactional
+    @Query(value = "SELECT * FROM FINAL TABLE (UPDATE TRANSACTIONS SET active = FALSE, deactivated_at = :deactivatedAt, "
+            + "version = version + 1 "
+            + "WHERE id = :id AND active = TRUE AND (CAST(:version AS BIGINT) IS NULL OR version = :version))", nativeQuery = true)
+    Optional<Transaction> deactivate(UUID id, LocalDateTime deactivatedAt, Long version);
+
+    // Cascata da desativação do cliente: UPDATE em lote sobre o índice (customerId, active, createdAt), sem carregar entidades
+    @Transactional
+    @Modifying
+    @Query("update Transaction t set t.active = false, t.deactivatedAt = :deactivatedAt, t.version = t.version + 1 "
+            + "where t.customerId = :customerId and t.active = true")
+    int deactivateByCustomer(UUID customerId, LocalDateTime deactivatedAt);
+
+    // Mesma operação limitada a um bloco de linhas, para históricos grandes (cada bloco em sua própria transação)
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE TRANSACTIONS SET active = FALSE, deactivated_at = :deactivatedAt, version = version + 1 "
+            + "WHERE customer_id = :customerId AND active = TRUE FETCH FIRST :limit ROWS ONLY", nativeQuery = true)
+    int deactivateByCustomer(UUID customerId, LocalDateTime deactivatedAt, int limit);
+
+    // Compactação: transações desativadas antes do corte; o índice em deactivatedAt cobre só o intervalo (ativas têm nulo)
+    @Query("select t from Transaction t where t.active = false and t.deactivatedAt < :cutoff")
+    List<Transaction> findArchivable(LocalDateTime cutoff, Limit limit);
+
+    @Query("select min(t.deactivatedAt) from Transaction t where t.active = false and t.deactivatedAt < :cutoff")
+    LocalDateTime findOldestArchivable(LocalDateTime cutoff);
+
+    // Remove o bloco arquivado em um único DELETE ... WHERE id IN
+    @Transactional
+    @Modifying
+    @Query("delete from Transaction t where t.id in :ids")
+    int deleteByIds(Collection<UUID> ids);
 }
@@ -0,0 +1,232 @@
+package br.com.orbitall.channels.repositories.memory;
+
+import br.com.orbitall.channels.models.Customer;
+import br.com.orbitall.channels.models.EntityVersion;
+import br.com.orbitall.channels.repositories.CustomerRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Stream;
+
+// channels.storage=memory: substitui o repositório JPA de clientes
+@Repository
+@Primary
+@ConditionalOnProperty(name = "channels.storage", havingValue = "memory")
+public class InMemoryCustomerRepository extends InMemoryRepository<Customer, UUID> implements CustomerRepository {
+
+    // Mesma ordem de UUID do H2 (bytes sem sinal), para o cursor das páginas ser igual ao do modo JPA
+    // (também usada para intercalar páginas de vários shards)
+    public static final Comparator<UUID> UUID_ORDER = (a, b) -> {
+        int compare = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return compare != 0 ? compare : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    };
+
+    private static final UUID MIN_ID = new UUID(0, 0);
+
+    private final ConcurrentSkipListSet<UUID> ids = new ConcurrentSkipListSet<>(UUID_ORDER);
+
+    private final ConcurrentSkipListSet<UUID> activeIds = new ConcurrentSkipListSet<>(UUID_ORDER);
+
+    // Clientes inativos por (updatedAt, id): o arquivamento lê só os mais antigos que o corte, sem varrer o mapa
+    private record Inactive(LocalDateTime updatedAt, UUID id) {
+    }
+
+    private final ConcurrentSkipListSet<Inactive> inactiveByUpdate = new ConcurrentSkipListSet<>(
+            Comparator.comparing(Inactive::updatedAt).thenComparing(Inactive::id, UUID_ORDER));
+
+    @Override
+    protected Customer copy(Customer customer) {
+        Customer copy = new Customer();
+        copy.setId(customer.getId());
+        copy.setFullName(customer.getFullName());
+        copy.setEmail(customer.getEmail());
+        copy.setPhone(customer.getPhone());
+        copy.setCreatedAt(customer.getCreatedAt());
+        copy.setUpdatedAt(customer.getUpdatedAt());
+        copy.setActive(customer.isActive());
+        copy.setVersion(customer.getVersion());
+        if (!customer.isNew()) {
+            copy.markNotNew();
+        }
+        return copy;
+    }
+
+    @Override
+    protected void index(Customer previous, Customer current) {
+        if (previous != null && (current == null || !current.isActive())) {
+            activeIds.remove(previous.getId());
+        }
+        if (previous != null && !previous.isActive() && previous.getUpdatedAt() != null) {
+            inactiveByUpdate.remove(new Inactive(previous.getUpdatedAt(), previous.getId()));
+        }
+        if (current == null) {
+            ids.remove(previous.getId());
+            return;
+        }
+
+        ids.add(current.getId());
+        if (current.isActive()) {
+            activeIds.add(current.getId());
+        } else if (current.getUpdatedAt() != null) {
+            inactiveByUpdate.add(new Inactive(current.getUpdatedAt(), current.getId()));
+        }
+    }
+
+    @Override
+    public List<Customer> findActivePage(Limit limit) {
+        return activePage(activeIds, limit);
+    }
+
+    @Override
+    public List<Customer> findActivePageAfter(UUID after, Limit limit) {
+        return activePage(activeIds.tailSet(after, false), limit);
+    }
+
+    @Override
+    public List<UUID> findIdPage(Limit limit) {
+        return idPage(ids, limit);
+    }
+
+    @Override
+    public List<UUID> findIdPageAfter(UUID after, Limit limit) {
+        return idPage(ids.tailSet(after, false), limit);
+    }
+
+    @Override
+    public boolean existsByIdAndActiveTrue(UUID id) {
+        Customer customer = stored(id);
+        return customer != null && customer.isActive();
+    }
+
+    @Override
+    public Optional<EntityVersion> findActiveVersion(UUID id) {
+        Customer customer = stored(id);
+        if (customer == null || !customer.isActive()) {
+            return Optional.empty();
+        }
+        return Optional.of(new EntityVersion(customer.getVersion(), customer.getUpdatedAt()));
+    }
+
+    @Override
+    public List<Customer> findActiveByIdIn(Collection<UUID> ids) {
+        List<Customer> customers = new ArrayList<>();
+        ids.forEach(id -> {
+            Customer customer = read(id);
+            if (customer != null && customer.isActive()) {
+                customers.add(customer);
+            }
+        });
+        return customers;
+    }
+
+    @Override
+    public Set<UUID> findActiveIdsByIdIn(Collection<UUID> candidates) {
+        Set<UUID> active = new HashSet<>();
+        candidates.forEach(id -> {
+            if (existsByIdAndActiveTrue(id)) {
+                active.add(id);
+            }
+        });
+        return active;
+    }
+
+    @Override
+    public Optional<Customer> updateActive(UUID id, String fullName, String email, String phone, LocalDateTime updatedAt,
+                                           Long version) {
+        return update(id, customer -> {
+            if (!customer.isActive() || (version != null && customer.getVersion() != version)) {
+                return null;
+            }
+            customer.setFullName(fullName);
+            customer.setEmail(email);
+            customer.setPhone(phone);
+            customer.setUpdatedAt(updatedAt);
+            customer.setVersion(customer.getVersion() + 1);
+            return customer;
+        });
+    }
+
+    @Override
+    public Optional<Customer> deactivate(UUID id, LocalDateTime updatedAt, Long version) {
+        return update(id, customer -> {
+            if (!customer.isActive() || (version != null && customer.getVersion() != version)) {
+                return null;
+            }
+            customer.setActive(false);
+            customer.setUpdatedAt(updatedAt);
+            customer.setVersion(customer.getVersion() + 1);
+            return customer;
+        });
+    }
+
+    @Override
+    public List<Customer> findArchivable(LocalDateTime cutoff, Limit limit) {
+        return archivable(cutoff)
+                .limit(max(limit))
+                .map(this::copy)
+                .toList();
+    }
+
+    @Override
+    public LocalDateTime findOldestArchivable(LocalDateTime cutoff) {
+        return archivable(cutoff)
+                .map(Customer::getUpdatedAt)
+                .findFirst()
+                .orElse(null);
+    }
+
+    // Do mais antigo para o mais recente, conferindo cada linha (o índice pode estar um passo atrás)
+    private Stream<Customer> archivable(LocalDateTime cutoff) {
+        return inactiveByUpdate.headSet(new Inactive(cutoff, MIN_ID), false).stream()
+                .map(inactive -> stored(inactive.id()))
+                .filter(customer -> customer != null && !customer.isActive()
+                        && customer.getUpdatedAt() != null && customer.getUpdatedAt().isBefore(cutoff));
+    }
+
+    // O índice pode estar um passo atrás do mapa durante uma escrita; o estado é sempre conferido no mapa
+    private List<Customer> activePage(NavigableSet<UUID> candidates, Limit limit) {
+        int max = max(limit);
+        List<Customer> page = new ArrayList<>(Math.min(max, 1024));
+
+        for (UUID id : candidates) {
+            if (page.size() >= max) {
+                break;
+            }
+            Customer customer = stored(id);
+            if (customer != null && customer.isActive()) {
+                page.add(copy(customer));
+            }
+        }
+        return page;
+    }
+
+    private static List<UUID> idPage(NavigableSet<UUID> candidates, Limit limit) {
+        int max = max(limit);
+        List<UUID> page = new ArrayList<>(Math.min(max, 1024));
+
+        for (UUID id : candidates) {
+            if (page.size() >= max) {
+                break;
+            }
+            page.add(id);
+        }
+        return page;
+    }
+
+    private static int max(Limit limit) {
+        return limit.isLimited() ? limit.max() : Integer.MAX_VALUE;
+    }
+}
@@ -0,0 +1,296 @@
+package br.com.orbitall.channels.repositories.memory;
+
+import br.com.orbitall.channels.models.PersistableEntity;
+import org.springframework.core.Ordered;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.repository.ListCrudRepository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+// Armazenamento em memória: mapa concorrente por id com cópias das entidades (leituras sem lock) e uma trava por
+// linha para as escritas. Dentro de uma transação Spring as escritas ficam pendentes, visíveis só para ela, e a
+// trava de cada linha escrita fica com a transação até o fim: no commit as linhas são publicadas no mapa e nos
+// índices secundários, no rollback são descartadas. Fora de uma transação a escrita é publicada na hora.
+public abstract class InMemoryRepository<T extends PersistableEntity<ID>, ID> implements ListCrudRepository<T, ID> {
+
+    // Espera por uma linha travada por outra transação, como o LOCK_TIMEOUT de um banco
+    private static final long LOCK_TIMEOUT_MILLIS = 10_000;
+
+    protected final ConcurrentHashMap<ID, T> store = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<ID, ReentrantLock> rowLocks = new ConcurrentHashMap<>();
+
+    // Cópia independente: o chamador pode alterar o objeto devolvido sem afetar o armazenamento (como uma entidade destacada)
+    protected abstract T copy(T entity);
+
+    // Atualiza os índices secundários; previous ou current podem ser nulos (inclusão ou remoção)
+    protected abstract void index(T previous, T current);
+
+    // Versão da linha visível para quem chama, sem cópia: a escrita pendente da própria transação ou a publicada.
+    // Os índices secundários só conhecem linhas publicadas; cada linha encontrada por eles é conferida aqui.
+    protected T stored(ID id) {
+        Pending pending = pending();
+        if (pending != null && pending.writes.containsKey(id)) {
+            return pending.writes.get(id);
+        }
+        return store.get(id);
+    }
+
+    protected T read(ID id) {
+        T stored = stored(id);
+        return stored == null ? null : copy(stored);
+    }
+
+    // Entidade nova com id já existente falha como o INSERT do JPA, com chave duplicada
+    @Override
+    public <S extends T> S save(S entity) {
+        T stored = copy(entity);
+        stored.markNotNew();
+        locked(entity.getId(), () -> {
+            if (entity.isNew() && stored(entity.getId()) != null) {
+                throw new DuplicateKeyException("Duplicate id: " + entity.getId());
+            }
+            write(entity.getId(), stored);
+            return null;
+        });
+        entity.markNotNew();
+        return entity;
+    }
+
+    @Override
+    public <S extends T> List<S> saveAll(Iterable<S> entities) {
+        List<S> saved = new ArrayList<>();
+        entities.forEach(entity -> saved.add(save(entity)));
+        return saved;
+    }
+
+    @Override
+    public Optional<T> findById(ID id) {
+        return Optional.ofNullable(read(id));
+    }
+
+    @Override
+    public boolean existsById(ID id) {
+        return stored(id) != null;
+    }
+
+    @Override
+    public List<T> findAll() {
+        Pending pending = pending();
+        List<T> all = new ArrayList<>(store.size());
+        store.forEach((id, entity) -> {
+            if (pending == null || !pending.writes.containsKey(id)) {
+                all.add(copy(entity));
+            }
+        });
+        if (pending != null) {
+            pending.writes.values().forEach(entity -> {
+                if (entity != null) {
+                    all.add(copy(entity));
+                }
+            });
+        }
+        return all;
+    }
+
+    @Override
+    public List<T> findAllById(Iterable<ID> ids) {
+        List<T> found = new ArrayList<>();
+        ids.forEach(id -> {
+            T entity = read(id);
+            if (entity != null) {
+                found.add(entity);
+            }
+        });
+        return found;
+    }
+
+    @Override
+    public long count() {
+        long count = store.size();
+        Pending pending = pending();
+        if (pending != null) {
+            for (Map.Entry<ID, T> write : pending.writes.entrySet()) {
+                count += (write.getValue() != null ? 1 : 0) - (store.containsKey(write.getKey()) ? 1 : 0);
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public void deleteById(ID id) {
+        locked(id, () -> {
+            write(id, null);
+            return null;
+        });
+    }
+
+    @Override
+    public void delete(T entity) {
+        deleteById(entity.getId());
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends ID> ids) {
+        ids.forEach(this::deleteById);
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends T> entities) {
+        entities.forEach(this::delete);
+    }
+
+    @Override
+    public void deleteAll() {
+        findAll().forEach(this::delete);
+    }
+
+    public int deleteByIds(Collection<ID> ids) {
+        int deleted = 0;
+        for (ID id : ids) {
+            boolean existed = locked(id, () -> {
+                if (stored(id) == null) {
+                    return false;
+                }
+                write(id, null);
+                return true;
+            });
+            if (existed) {
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    // Equivalente em memória a um UPDATE condicional: change recebe uma cópia da versão atual
+    // e devolve a nova (ou null para não alterar), tudo com a trava da linha
+    protected Optional<T> update(ID id, UnaryOperator<T> change) {
+        return locked(id, () -> {
+            T stored = stored(id);
+            T updated = stored == null ? null : change.apply(copy(stored));
+            if (updated == null) {
+                return Optional.empty();
+            }
+            write(id, updated);
+            return Optional.of(copy(updated));
+        });
+    }
+
+    // Na transação a trava da linha é tomada uma vez e liberada no fim dela; fora, só durante a ação
+    private <R> R locked(ID id, Supplier<R> action) {
+        Pending pending = pending();
+        if (pending == null && TransactionSynchronizationManager.isSynchronizationActive()) {
+            pending = new Pending();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+
+        if (pending != null) {
+            if (!pending.locks.containsKey(id)) {
+                pending.locks.put(id, lockRow(id));
+            }
+            return action.get();
+        }
+
+        ReentrantLock lock = lockRow(id);
+        try {
+            return action.get();
+        } finally {
+            unlockRow(id, lock);
+        }
+    }
+
+    // Chamado com a trava da linha
+    private void write(ID id, T current) {
+        Pending pending = pending();
+        if (pending != null) {
+            pending.writes.put(id, current);
+        } else {
+            publish(id, current);
+        }
+    }
+
+    // Chamado com a trava da linha
+    private void publish(ID id, T current) {
+        T previous = current == null ? store.remove(id) : store.put(id, current);
+        index(previous, current);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Pending pending() {
+        return (Pending) TransactionSynchronizationManager.getResource(this);
+    }
+
+    // A trava sai do mapa ao ser liberada; quem esperava por uma trava já descartada tenta de novo com a atual
+    private ReentrantLock lockRow(ID id) {
+        while (true) {
+            ReentrantLock lock = rowLocks.computeIfAbsent(id, key -> new ReentrantLock());
+            try {
+                if (!lock.tryLock(LOCK_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                    throw new CannotAcquireLockException("Timeout waiting for the lock of row " + id);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CannotAcquireLockException("Interrupted waiting for the lock of row " + id, e);
+            }
+            if (rowLocks.get(id) == lock) {
+                return lock;
+            }
+            lock.unlock();
+        }
+    }
+
+    private void unlockRow(ID id, ReentrantLock lock) {
+        rowLocks.remove(id, lock);
+        lock.unlock();
+    }
+
+    // Escritas e travas de uma transação; publicada antes dos demais afterCommit, que podem ler as linhas
+    private final class Pending implements TransactionSynchronization {
+
+        private final Map<ID, T> writes = new LinkedHashMap<>();
+
+        private final Map<ID, ReentrantLock> locks = new HashMap<>();
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+
+        // Transação interna (REQUIRES_NEW): a externa fica suspensa e não enxerga nem recebe as escritas da interna
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResource(InMemoryRepository.this);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(InMemoryRepository.this, this);
+        }
+
+        @Override
+        public void afterCommit() {
+            writes.forEach(InMemoryRepository.this::publish);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(InMemoryRepository.this);
+            locks.forEach(InMemoryRepository.this::unlockRow);
+        }
+    }
+}
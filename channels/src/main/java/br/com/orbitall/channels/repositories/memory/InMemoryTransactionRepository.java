@@ -0,0 +1,268 @@
+package br.com.orbitall.channels.repositories.memory;
+
+import br.com.orbitall.channels.models.EntityVersion;
+import br.com.orbitall.channels.models.Transaction;
+import br.com.orbitall.channels.models.TransactionAggregate;
+import br.com.orbitall.channels.models.TransactionHistoryVersion;
+import br.com.orbitall.channels.repositories.TransactionRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Stream;
+
+// channels.storage=memory: substitui o repositório JPA de transações
+@Repository
+@Primary
+@ConditionalOnProperty(name = "channels.storage", havingValue = "memory")
+public class InMemoryTransactionRepository extends InMemoryRepository<Transaction, UUID> implements TransactionRepository {
+
+    private static final UUID MIN_ID = new UUID(0, 0);
+
+    // Equivalente ao índice (customerId, active, createdAt): por cliente, as transações ativas em ordem cronológica
+    // (também usado como (deactivatedAt, id) no índice de inativas)
+    private record Key(LocalDateTime time, UUID id) {
+    }
+
+    private static final Comparator<Key> KEY_ORDER = Comparator.comparing(Key::time)
+            .thenComparing(Key::id, InMemoryCustomerRepository.UUID_ORDER);
+
+    private final ConcurrentHashMap<UUID, ConcurrentSkipListSet<Key>> activeByCustomer = new ConcurrentHashMap<>();
+
+    // Equivalente ao índice (createdAt, id): todas as transações ativas em ordem cronológica
+    private final ConcurrentSkipListSet<Key> activeByTime = new ConcurrentSkipListSet<>(KEY_ORDER);
+
+    // Equivalente ao índice em deactivatedAt: as inativas em ordem de exclusão, para o arquivamento não varrer o mapa
+    private final ConcurrentSkipListSet<Key> inactiveByDeactivation = new ConcurrentSkipListSet<>(KEY_ORDER);
+
+    @Override
+    protected Transaction copy(Transaction transaction) {
+        Transaction copy = new Transaction();
+        copy.setId(transaction.getId());
+        copy.setCustomerId(transaction.getCustomerId());
+        copy.setAmount(transaction.getAmount());
+        copy.setCardType(transaction.getCardType());
+        copy.setCreatedAt(transaction.getCreatedAt());
+        copy.setActive(transaction.isActive());
+        copy.setDeactivatedAt(transaction.getDeactivatedAt());
+        copy.setVersion(transaction.getVersion());
+        if (!transaction.isNew()) {
+            copy.markNotNew();
+        }
+        return copy;
+    }
+
+    @Override
+    protected void index(Transaction previous, Transaction current) {
+        if (previous != null && previous.isActive()) {
+            Key key = new Key(previous.getCreatedAt(), previous.getId());
+            // O conjunto vazio sai do mapa na mesma operação atômica que removeu a última transação do cliente
+            activeByCustomer.computeIfPresent(previous.getCustomerId(), (id, keys) -> {
+                keys.remove(key);
+                return keys.isEmpty() ? null : keys;
+            });
+            activeByTime.remove(key);
+        }
+        if (previous != null && !previous.isActive() && previous.getDeactivatedAt() != null) {
+            inactiveByDeactivation.remove(new Key(previous.getDeactivatedAt(), previous.getId()));
+        }
+        if (current != null && current.isActive()) {
+            Key key = new Key(current.getCreatedAt(), current.getId());
+            activeByCustomer.compute(current.getCustomerId(), (id, keys) -> {
+                ConcurrentSkipListSet<Key> added = keys != null ? keys : new ConcurrentSkipListSet<>(KEY_ORDER);
+                added.add(key);
+                return added;
+            });
+            activeByTime.add(key);
+        } else if (current != null && current.getDeactivatedAt() != null) {
+            inactiveByDeactivation.add(new Key(current.getDeactivatedAt(), current.getId()));
+        }
+    }
+
+    @Override
+    public List<Transaction> findActiveByCustomer(UUID customerId) {
+        List<Transaction> transactions = new ArrayList<>();
+        active(customerId, keys(customerId)).forEach(transactions::add);
+        return transactions;
+    }
+
+    @Override
+    public Stream<Transaction> streamActiveByCustomer(UUID customerId, LocalDateTime from, LocalDateTime to) {
+        NavigableSet<Key> keys = keys(customerId);
+        if (from.isBefore(to)) {
+            keys = keys.subSet(new Key(from, MIN_ID), true, new Key(to, MIN_ID), false);
+        } else {
+            keys = new ConcurrentSkipListSet<>(KEY_ORDER);
+        }
+        return active(customerId, keys);
+    }
+
+    @Override
+    public Optional<EntityVersion> findActiveVersion(UUID id) {
+        Transaction transaction = stored(id);
+        if (transaction == null || !transaction.isActive()) {
+            return Optional.empty();
+        }
+        return Optional.of(new EntityVersion(transaction.getVersion(), transaction.getCreatedAt()));
+    }
+
+    // Percorre o índice do cliente sem copiar as transações
+    @Override
+    public TransactionHistoryVersion findActiveHistoryVersion(UUID customerId) {
+        long count = 0;
+        long fingerprint = 0;
+        for (Key key : keys(customerId)) {
+            Transaction transaction = stored(key.id());
+            if (transaction != null && transaction.isActive() && customerId.equals(transaction.getCustomerId())) {
+                count++;
+                fingerprint ^= TransactionHistoryVersion.fingerprint(key.id());
+            }
+        }
+        return new TransactionHistoryVersion(count, fingerprint);
+    }
+
+    @Override
+    public List<Transaction> findActiveByIdIn(Collection<UUID> ids) {
+        List<Transaction> transactions = new ArrayList<>();
+        ids.forEach(id -> {
+            Transaction transaction = read(id);
+            if (transaction != null && transaction.isActive()) {
+                transactions.add(transaction);
+            }
+        });
+        return transactions;
+    }
+
+    @Override
+    public List<Transaction> findActiveInRange(LocalDateTime from, LocalDateTime to, String cardType, Limit limit) {
+        if (!from.isBefore(to)) {
+            return List.of();
+        }
+        return inRange(activeByTime.subSet(new Key(from, MIN_ID), true, new Key(to, MIN_ID), false), cardType, limit);
+    }
+
+    @Override
+    public List<Transaction> findActiveInRangeAfter(LocalDateTime afterCreatedAt, UUID afterId, LocalDateTime to,
+                                                    String cardType, Limit limit) {
+        if (!afterCreatedAt.isBefore(to)) {
+            return List.of();
+        }
+        return inRange(activeByTime.subSet(new Key(afterCreatedAt, afterId), false, new Key(to, MIN_ID), false), cardType, limit);
+    }
+
+    @Override
+    public List<TransactionAggregate> aggregateActiveByCustomer(UUID customerId) {
+        Map<String, TransactionAggregate> byCardType = new LinkedHashMap<>();
+        active(customerId, keys(customerId)).forEach(transaction -> {
+            TransactionAggregate aggregate = byCardType.computeIfAbsent(transaction.getCardType(),
+                    cardType -> new TransactionAggregate(customerId, cardType, 0, BigDecimal.ZERO));
+            aggregate.setTransactionCount(aggregate.getTransactionCount() + 1);
+            aggregate.setTotalAmount(aggregate.getTotalAmount().add(transaction.getAmount()));
+        });
+        return new ArrayList<>(byCardType.values());
+    }
+
+    @Override
+    public Optional<Transaction> deactivate(UUID id, LocalDateTime deactivatedAt, Long version) {
+        return update(id, transaction -> {
+            if (!transaction.isActive() || (version != null && transaction.getVersion() != version)) {
+                return null;
+            }
+            transaction.setActive(false);
+            transaction.setDeactivatedAt(deactivatedAt);
+            transaction.setVersion(transaction.getVersion() + 1);
+            return transaction;
+        });
+    }
+
+    @Override
+    public int deactivateByCustomer(UUID customerId, LocalDateTime deactivatedAt) {
+        return deactivateByCustomer(customerId, deactivatedAt, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int deactivateByCustomer(UUID customerId, LocalDateTime deactivatedAt, int limit) {
+        int updated = 0;
+        for (Key key : keys(customerId)) {
+            if (updated >= limit) {
+                break;
+            }
+            boolean changed = update(key.id(), transaction -> {
+                if (!transaction.isActive() || !customerId.equals(transaction.getCustomerId())) {
+                    return null;
+                }
+                transaction.setActive(false);
+                transaction.setDeactivatedAt(deactivatedAt);
+                transaction.setVersion(transaction.getVersion() + 1);
+                return transaction;
+            }).isPresent();
+            if (changed) {
+                updated++;
+            }
+        }
+        return updated;
+    }
+
+    @Override
+    public List<Transaction> findArchivable(LocalDateTime cutoff, Limit limit) {
+        return archivable(cutoff)
+                .limit(limit.isLimited() ? limit.max() : Long.MAX_VALUE)
+                .map(this::copy)
+                .toList();
+    }
+
+    @Override
+    public LocalDateTime findOldestArchivable(LocalDateTime cutoff) {
+        return archivable(cutoff)
+                .map(Transaction::getDeactivatedAt)
+                .findFirst()
+                .orElse(null);
+    }
+
+    // Da exclusão mais antiga para a mais recente, conferindo cada linha (o índice pode estar um passo atrás)
+    private Stream<Transaction> archivable(LocalDateTime cutoff) {
+        return inactiveByDeactivation.headSet(new Key(cutoff, MIN_ID), false).stream()
+                .map(key -> stored(key.id()))
+                .filter(transaction -> transaction != null && !transaction.isActive()
+                        && transaction.getDeactivatedAt() != null && transaction.getDeactivatedAt().isBefore(cutoff));
+    }
+
+    private List<Transaction> inRange(NavigableSet<Key> keys, String cardType, Limit limit) {
+        return keys.stream()
+                .map(key -> stored(key.id()))
+                .filter(Objects::nonNull)
+                .filter(transaction -> transaction.isActive() && (cardType == null || cardType.equals(transaction.getCardType())))
+                .limit(limit.isLimited() ? limit.max() : Long.MAX_VALUE)
+                .map(this::copy)
+                .toList();
+    }
+
+    private NavigableSet<Key> keys(UUID customerId) {
+        NavigableSet<Key> keys = activeByCustomer.get(customerId);
+        return keys != null ? keys : new ConcurrentSkipListSet<>(KEY_ORDER);
+    }
+
+    // Percorre o índice de forma preguiçosa e confere cada linha no mapa (o índice pode estar um passo atrás)
+    private Stream<Transaction> active(UUID customerId, NavigableSet<Key> keys) {
+        return keys.stream()
+                .map(key -> stored(key.id()))
+                .filter(Objects::nonNull)
+                .filter(transaction -> transaction.isActive() && customerId.equals(transaction.getCustomerId()))
+                .map(this::copy);
+    }
+}
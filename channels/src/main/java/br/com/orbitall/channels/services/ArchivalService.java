@@ -0,0 +1,232 @@
+package br.com.orbitall.channels.services;
+
+import br.com.orbitall.channels.canonicals.CustomerOutput;
+import br.com.orbitall.channels.canonicals.TransactionOutput;
+import br.com.orbitall.channels.exceptions.ResourceNotFoundException;
+import br.com.orbitall.channels.models.Customer;
+import br.com.orbitall.channels.models.CustomerArchive;
+import br.com.orbitall.channels.models.Transaction;
+import br.com.orbitall.channels.models.TransactionArchive;
+import br.com.orbitall.channels.repositories.CustomerArchiveRepository;
+import br.com.orbitall.channels.repositories.CustomerRepository;
+import br.com.orbitall.channels.repositories.TransactionArchiveRepository;
+import br.com.orbitall.channels.repositories.TransactionRepository;
+import br.com.orbitall.channels.sharding.ShardRouter;
+import br.com.orbitall.channels.sharding.ShardedBy;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// Compactação: move linhas inativas mais antigas que a retenção para CUSTOMERS_ARCHIVE / TRANSACTIONS_ARCHIVE.
+// Cada bloco é lido, copiado e removido em sua própria transação, com uma pausa entre blocos para não competir com o tráfego.
+@Service
+public class ArchivalService {
+
+    private static final Logger log = LoggerFactory.getLogger(ArchivalService.class);
+
+    static final String ROWS_COUNTER = "channels.archival.rows";
+    static final String CHUNK_TIMER = "channels.archival.chunk";
+    static final String LAG_GAUGE = "channels.archival.lag";
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private CustomerArchiveRepository customerArchiveRepository;
+
+    @Autowired
+    private TransactionArchiveRepository transactionArchiveRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Autowired
+    private ShardRouter router;
+
+    @Value("${channels.archival.retention:30d}")
+    private Duration retention;
+
+    @Value("${channels.archival.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${channels.archival.pause:100ms}")
+    private Duration pause;
+
+    // Idade (s) da linha arquivável mais antiga além da retenção, medida ao fim de cada execução
+    private final AtomicLong customersLag = new AtomicLong();
+    private final AtomicLong transactionsLag = new AtomicLong();
+
+    public record ArchivalReport(long customers, long transactions) {
+    }
+
+    @PostConstruct
+    void registerGauges() {
+        Gauge.builder(LAG_GAUGE, customersLag, AtomicLong::get).tag("table", "customers").baseUnit("seconds").register(registry);
+        Gauge.builder(LAG_GAUGE, transactionsLag, AtomicLong::get).tag("table", "transactions").baseUnit("seconds").register(registry);
+    }
+
+    @Scheduled(cron = "${channels.archival.cron:-}")
+    public void scheduledArchive() {
+        archive();
+    }
+
+    public ArchivalReport archive() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime cutoff = now.minus(retention);
+
+        // Um shard por vez; o atraso publicado é o do shard mais atrasado
+        AtomicLong customersLagRun = new AtomicLong();
+        AtomicLong transactionsLagRun = new AtomicLong();
+        long customers = 0;
+        long transactions = 0;
+        for (ArchivalReport shard : router.onEachShard(() -> archiveShard(now, cutoff, customersLagRun, transactionsLagRun))) {
+            customers += shard.customers();
+            transactions += shard.transactions();
+        }
+        customersLag.set(customersLagRun.get());
+        transactionsLag.set(transactionsLagRun.get());
+
+        if (customers + transactions > 0) {
+            log.info("Archived {} customers and {} transactions inactive for more than {}", customers, transactions, retention);
+        }
+        return new ArchivalReport(customers, transactions);
+    }
+
+    private ArchivalReport archiveShard(LocalDateTime now, LocalDateTime cutoff, AtomicLong customersLag, AtomicLong transactionsLag) {
+        long transactions = archiveChunks("transactions", transactionsLag, cutoff,
+                limit -> transactionRepository.findArchivable(cutoff, limit), Transaction::getId,
+                transaction -> toArchive(transaction, now), transactionArchiveRepository::saveAll,
+                transactionRepository::deleteByIds,
+                () -> transactionRepository.findOldestArchivable(cutoff));
+
+        long customers = archiveChunks("customers", customersLag, cutoff,
+                limit -> customerRepository.findArchivable(cutoff, limit), Customer::getId,
+                customer -> toArchive(customer, now), customerArchiveRepository::saveAll,
+                customerRepository::deleteByIds,
+                () -> customerRepository.findOldestArchivable(cutoff));
+
+        return new ArchivalReport(customers, transactions);
+    }
+
+    private <T, A> long archiveChunks(String table, AtomicLong lag, LocalDateTime cutoff,
+                                      Function<Limit, List<T>> find, Function<T, UUID> id, Function<T, A> toArchive,
+                                      Function<List<A>, ?> saveArchive, Consumer<List<UUID>> delete,
+                                      Supplier<LocalDateTime> oldest) {
+        Counter rows = registry.counter(ROWS_COUNTER, "table", table);
+        Timer chunkTimer = registry.timer(CHUNK_TIMER, "table", table);
+        long total = 0;
+        int moved;
+
+        do {
+            Timer.Sample sample = Timer.start(registry);
+            moved = transactionTemplate.execute(status -> {
+                List<T> chunk = find.apply(Limit.of(chunkSize));
+                if (chunk.isEmpty()) {
+                    return 0;
+                }
+
+                List<A> archived = new ArrayList<>(chunk.size());
+                List<UUID> ids = new ArrayList<>(chunk.size());
+                chunk.forEach(row -> {
+                    archived.add(toArchive.apply(row));
+                    ids.add(id.apply(row));
+                });
+
+                saveArchive.apply(archived);
+                delete.accept(ids);
+                return chunk.size();
+            });
+            sample.stop(chunkTimer);
+
+            rows.increment(moved);
+            total += moved;
+        } while (moved == chunkSize && throttle());
+
+        LocalDateTime oldestLeft = oldest.get();
+        lag.accumulateAndGet(oldestLeft == null ? 0 : Duration.between(oldestLeft, cutoff).toSeconds(), Math::max);
+        return total;
+    }
+
+    // Pausa entre blocos; uma interrupção (desligamento) encerra a execução, que continua na próxima
+    private boolean throttle() {
+        if (pause.isZero()) {
+            return true;
+        }
+        try {
+            Thread.sleep(pause);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @ShardedBy("#id")
+    public CustomerOutput retrieveCustomer(UUID id) {
+        CustomerArchive customer = customerArchiveRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Archived customer not found (id: " + id + ")"));
+
+        return new CustomerOutput(customer.getId(), customer.getFullName(), customer.getEmail(), customer.getPhone(),
+                customer.getCreatedAt(), customer.getUpdatedAt(), false, customer.getVersion());
+    }
+
+    public TransactionOutput retrieveTransaction(UUID id) {
+        TransactionArchive transaction = router.findFirst(() -> transactionArchiveRepository.findById(id))
+                .orElseThrow(() -> new ResourceNotFoundException("Archived transaction not found (id: " + id + ")"));
+
+        return new TransactionOutput(transaction.getId(), transaction.getCustomerId(), transaction.getAmount(),
+                transaction.getCardType(), transaction.getCreatedAt(), false, transaction.getVersion());
+    }
+
+    private static CustomerArchive toArchive(Customer customer, LocalDateTime archivedAt) {
+        CustomerArchive archive = new CustomerArchive();
+        archive.setId(customer.getId());
+        archive.setFullName(customer.getFullName());
+        archive.setEmail(customer.getEmail());
+        archive.setPhone(customer.getPhone());
+        archive.setCreatedAt(customer.getCreatedAt());
+        archive.setUpdatedAt(customer.getUpdatedAt());
+        archive.setVersion(customer.getVersion());
+        archive.setArchivedAt(archivedAt);
+        return archive;
+    }
+
+    private static TransactionArchive toArchive(Transaction transaction, LocalDateTime archivedAt) {
+        TransactionArchive archive = new TransactionArchive();
+        archive.setId(transaction.getId());
+        archive.setCustomerId(transaction.getCustomerId());
+        archive.setAmount(transaction.getAmount());
+        archive.setCardType(transaction.getCardType());
+        archive.setCreatedAt(transaction.getCreatedAt());
+        archive.setDeactivatedAt(transaction.getDeactivatedAt());
+        archive.setVersion(transaction.getVersion());
+        archive.setArchivedAt(archivedAt);
+        return archive;
+    }
+}
@@ -0,0 +1,422 @@
+package br.com.orbitall.channels.services;
+
+import br.com.orbitall.channels.canonicals.ChangeType;
+import br.com.orbitall.channels.exceptions.ChangeFeedOffsetExpiredException;
+import br.com.orbitall.channels.models.OutboxEvent;
+import br.com.orbitall.channels.repositories.OutboxEventRepository;
+import br.com.orbitall.channels.sharding.ShardRouter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Change feed (GET /changes): um relay numera os eventos commitados do outbox e publica os números contíguos numa janela
+// em memória. Cada assinatura tem uma virtual thread que lê, no próprio ritmo, lotes de até subscriber-buffer eventos
+// (da janela ou, se ficou para trás, do banco): o relay nunca espera por assinantes e os ociosos ficam só estacionados
+@Service
+@ConditionalOnProperty(name = "channels.change-feed.enabled", havingValue = "true")
+public class ChangeFeedService implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(ChangeFeedService.class);
+
+    private static final Set<ChangeType> ALL_TYPES = Collections.unmodifiableSet(EnumSet.allOf(ChangeType.class));
+    private static final Comparator<OutboxEvent> BY_SEQUENCE = Comparator.comparing(OutboxEvent::getSequenceNumber);
+
+    public record Change(long sequenceNumber, ChangeType type, UUID customerId, String payload) {
+    }
+
+    // Destino de uma assinatura; send e keepAlive são chamados apenas pela thread da assinatura
+    public interface Sink {
+        void send(Change change) throws IOException;
+
+        void keepAlive() throws IOException;
+
+        void close();
+    }
+
+    public final class Subscription implements AutoCloseable {
+
+        private final UUID customerId;
+        private final Set<ChangeType> types;
+        private final Sink sink;
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private Thread sender;
+
+        // Último número já lido por esta assinatura (entregue ou descartado pelo filtro); só a thread dela altera
+        private long cursor;
+
+        private Subscription(UUID customerId, Set<ChangeType> types, long cursor, Sink sink) {
+            this.customerId = customerId;
+            this.types = types;
+            this.cursor = cursor;
+            this.sink = sink;
+        }
+
+        private boolean matches(Change change) {
+            return (customerId == null || customerId.equals(change.customerId())) && types.contains(change.type());
+        }
+
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true)) {
+                subscriptions.remove(this);
+                if (sender != Thread.currentThread()) {
+                    sender.interrupt();
+                }
+                sink.close();
+            }
+        }
+    }
+
+    @Autowired
+    private OutboxEventRepository repository;
+
+    @Autowired
+    private ShardRouter router;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${channels.change-feed.retention:7d}")
+    private Duration retention;
+
+    private final boolean sequencer;
+    private final Duration pollInterval;
+    private final int batchSize;
+    private final int bufferSize;
+    private final int windowSize;
+    private final Duration keepAlive;
+
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private final Counter relayed;
+
+    // Assinaturas em espera acordam aqui quando lastPublished avança (lock em vez de monitor: não prende virtual threads)
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition published = lock.newCondition();
+
+    // Últimos window-size eventos publicados, contíguos e em ordem; trocada a cada publicação, nunca alterada.
+    // Escrita antes de lastPublished: quem lê lastPublished e depois a janela enxerga uma janela que o contém
+    private volatile List<Change> window = List.of();
+    private volatile long lastPublished;
+
+    // Último número atribuído pelo sequenciador; só a thread do relay usa
+    private long lastSequenced;
+
+    private volatile boolean running;
+    private volatile boolean accepting = true;
+    private Thread relay;
+
+    public ChangeFeedService(
+            MeterRegistry registry,
+            @Value("${channels.change-feed.sequencer:true}") boolean sequencer,
+            @Value("${channels.change-feed.poll-interval:100ms}") Duration pollInterval,
+            @Value("${channels.change-feed.batch-size:1000}") int batchSize,
+            @Value("${channels.change-feed.subscriber-buffer:256}") int bufferSize,
+            @Value("${channels.change-feed.window-size:10000}") int windowSize,
+            @Value("${channels.change-feed.keep-alive:15s}") Duration keepAlive) {
+        this.sequencer = sequencer;
+        this.pollInterval = pollInterval;
+        this.batchSize = batchSize;
+        this.bufferSize = bufferSize;
+        this.windowSize = windowSize;
+        this.keepAlive = keepAlive;
+
+        registry.gaugeCollectionSize("channels.change-feed.subscribers", Tags.empty(), subscriptions);
+        this.relayed = registry.counter("channels.change-feed.relayed");
+    }
+
+    // types vazio = todos; after nulo = só o que for publicado daqui em diante
+    public Subscription subscribe(UUID customerId, Set<ChangeType> types, Long after, Sink sink) {
+        if (after != null) {
+            long first = firstRetainedSequenceNumber();
+            if (after + 1 < first) {
+                throw new ChangeFeedOffsetExpiredException("Offset " + after + " is no longer retained; the oldest available is " + first);
+            }
+        }
+
+        Subscription subscription = new Subscription(customerId,
+                types == null || types.isEmpty() ? ALL_TYPES : EnumSet.copyOf(types),
+                after != null ? after : lastPublished, sink);
+        subscription.sender = Thread.ofVirtual().name("change-feed-subscriber").unstarted(() -> deliver(subscription));
+        subscriptions.add(subscription);
+        subscription.sender.start();
+
+        // Contexto fechando: devolve o stream já encerrado em vez de segurar o desligamento gracioso
+        if (!accepting) {
+            subscription.close();
+        }
+        return subscription;
+    }
+
+    public long lastPublished() {
+        return lastPublished;
+    }
+
+    @Override
+    public void start() {
+        lastSequenced = lastSequenceNumber();
+        lastPublished = lastSequenced;
+        running = true;
+        relay = Thread.ofPlatform().name("change-feed-relay").daemon().start(this::relay);
+    }
+
+    // Mesma fase do write-behind: o relay já roda quando o servidor web começa a aceitar assinaturas
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        relay.interrupt();
+        try {
+            relay.join(pollInterval.toMillis() + 5_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List.copyOf(subscriptions).forEach(Subscription::close);
+    }
+
+    // Publicado antes da parada dos beans: encerra os streams abertos para o desligamento gracioso do servidor web
+    // não esperar por eles até o timeout. Os clientes reconectam com Last-Event-ID em outra instância
+    @EventListener(ContextClosedEvent.class)
+    public void closeSubscriptions() {
+        accepting = false;
+        List.copyOf(subscriptions).forEach(Subscription::close);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Apaga, em todos os shards, os eventos numerados mais antigos que retention; o último número sempre fica,
+    // para o sequenciador retomar dele após um reinício
+    @Scheduled(cron = "${channels.change-feed.purge-cron:0 */10 * * * *}")
+    public int purge() {
+        LocalDateTime before = LocalDateTime.now().minus(retention);
+        long expired = router.onEachShard(() -> repository.findLastSequenceNumberBefore(before)).stream()
+                .filter(Objects::nonNull)
+                .mapToLong(Long::longValue)
+                .max().orElse(0);
+        long through = Math.min(expired, lastSequenceNumber() - 1);
+        if (through <= 0) {
+            return 0;
+        }
+
+        int deleted = router.onEachShard(() -> repository.deleteSequencedThrough(through)).stream().mapToInt(Integer::intValue).sum();
+        log.info("Change feed purge: {} events through offset {} deleted", deleted, through);
+        return deleted;
+    }
+
+    private void relay() {
+        while (running) {
+            boolean more;
+            try {
+                more = sequencer && sequence();
+                more |= tail();
+            } catch (RuntimeException e) {
+                log.error("Change feed relay failed; retrying in {}", pollInterval, e);
+                more = false;
+            }
+
+            if (!more) {
+                try {
+                    Thread.sleep(pollInterval);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+    // Numera os eventos ainda sem número, um commit por shard: a numeração segue a ordem em que os commits ficaram
+    // visíveis, então um leitor no offset N nunca perde um evento que depois receba número menor que N
+    private boolean sequence() {
+        boolean more = false;
+        for (int shard = 0; shard < router.shards(); shard++) {
+            try {
+                int count = router.onShard(shard, () -> transactionTemplate.execute(status -> number(lastSequenced)));
+                lastSequenced += count;
+                more |= count == batchSize;
+            } catch (RuntimeException e) {
+                // O commit pode ter acontecido ou não: retoma do que está no banco
+                lastSequenced = lastSequenceNumber();
+                throw e;
+            }
+        }
+        return more;
+    }
+
+    private int number(long last) {
+        List<OutboxEvent> events = repository.findUnsequenced(Limit.of(batchSize));
+        for (OutboxEvent event : events) {
+            event.setSequenceNumber(++last);
+        }
+        repository.saveAll(events);
+        return events.size();
+    }
+
+    // Lê os numerados depois de lastPublished e publica só a parte contígua: com shards, um commit do sequenciador
+    // pode estar visível num shard antes de um anterior ficar visível em outro (instâncias que só leem)
+    private boolean tail() {
+        long after = lastPublished;
+        List<OutboxEvent> events = ShardRouter.merge(
+                router.onEachShard(() -> repository.findSequencedAfter(after, null, ALL_TYPES, Limit.of(batchSize))),
+                BY_SEQUENCE, batchSize);
+
+        List<Change> changes = new ArrayList<>(events.size());
+        for (OutboxEvent event : events) {
+            if (event.getSequenceNumber() != after + changes.size() + 1) {
+                break;
+            }
+            changes.add(toChange(event));
+        }
+
+        if (!changes.isEmpty()) {
+            publish(changes);
+            relayed.increment(changes.size());
+        }
+        return changes.size() == batchSize;
+    }
+
+    private void publish(List<Change> changes) {
+        List<Change> current = window;
+        int size = Math.min(windowSize, current.size() + changes.size());
+        int added = Math.min(changes.size(), size);
+        List<Change> next = new ArrayList<>(size);
+        next.addAll(current.subList(current.size() - (size - added), current.size()));
+        next.addAll(changes.subList(changes.size() - added, changes.size()));
+        window = Collections.unmodifiableList(next);
+
+        lock.lock();
+        try {
+            lastPublished = changes.get(changes.size() - 1).sequenceNumber();
+            published.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void deliver(Subscription subscription) {
+        try {
+            while (!subscription.closed.get()) {
+                long upTo = lastPublished;
+                if (subscription.cursor >= upTo) {
+                    if (!awaitPublished(subscription.cursor)) {
+                        subscription.sink.keepAlive();
+                    }
+                    continue;
+                }
+
+                for (Change change : read(subscription, upTo)) {
+                    subscription.sink.send(change);
+                }
+            }
+        } catch (InterruptedException e) {
+            // Fechada por close() ou na parada
+        } catch (IOException | RuntimeException e) {
+            log.debug("Change feed subscriber dropped: {}", e.toString());
+        } finally {
+            subscription.close();
+        }
+    }
+
+    // false se keep-alive passou sem nada novo
+    private boolean awaitPublished(long cursor) throws InterruptedException {
+        lock.lock();
+        try {
+            long nanos = keepAlive.toNanos();
+            while (lastPublished <= cursor) {
+                if (nanos <= 0) {
+                    return false;
+                }
+                nanos = published.awaitNanos(nanos);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Próximo lote da assinatura até upTo, no máximo subscriber-buffer eventos, e avança o cursor dela
+    private List<Change> read(Subscription subscription, long upTo) {
+        List<Change> recent = window;
+        if (!recent.isEmpty() && subscription.cursor >= recent.get(0).sequenceNumber() - 1) {
+            List<Change> batch = new ArrayList<>();
+            // A janela é contígua: a posição do evento seguinte ao cursor sai direto do número
+            int index = (int) (subscription.cursor + 1 - recent.get(0).sequenceNumber());
+            for (; index < recent.size() && batch.size() < bufferSize; index++) {
+                Change change = recent.get(index);
+                if (change.sequenceNumber() > upTo) {
+                    break;
+                }
+                if (subscription.matches(change)) {
+                    batch.add(change);
+                }
+                subscription.cursor = change.sequenceNumber();
+            }
+            return batch;
+        }
+
+        // Atrasada demais para a janela: lê do banco, já filtrado
+        long after = subscription.cursor;
+        List<List<OutboxEvent>> pages = subscription.customerId != null
+                ? List.of(router.forCustomer(subscription.customerId, () -> findAfter(subscription, after)))
+                : router.onEachShard(() -> findAfter(subscription, after));
+        List<Change> batch = ShardRouter.merge(pages, BY_SEQUENCE, bufferSize).stream()
+                .filter(event -> event.getSequenceNumber() <= upTo)
+                .map(this::toChange)
+                .toList();
+        subscription.cursor = batch.size() < bufferSize ? upTo : batch.get(batch.size() - 1).sequenceNumber();
+        return batch;
+    }
+
+    private List<OutboxEvent> findAfter(Subscription subscription, long after) {
+        return repository.findSequencedAfter(after, subscription.customerId, subscription.types, Limit.of(bufferSize));
+    }
+
+    private long lastSequenceNumber() {
+        return router.onEachShard(repository::findLastSequenceNumber).stream().mapToLong(Long::longValue).max().orElse(0);
+    }
+
+    // Sem eventos retidos nada expirou; com eles, o purge garante que todos os shards começam no mesmo ponto
+    private long firstRetainedSequenceNumber() {
+        return router.onEachShard(repository::findFirstSequenceNumber).stream()
+                .filter(Objects::nonNull)
+                .mapToLong(Long::longValue)
+                .min().orElse(0);
+    }
+
+    private Change toChange(OutboxEvent event) {
+        return new Change(event.getSequenceNumber(), event.getType(), event.getCustomerId(), event.getPayload());
+    }
+}
@@ -0,0 +1,108 @@
+package br.com.orbitall.channels.services;
+
+import br.com.orbitall.channels.repositories.TransactionAggregateRepository;
+import br.com.orbitall.channels.repositories.TransactionRepository;
+import br.com.orbitall.channels.sharding.ShardRouter;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// Desativação das transações de um cliente desativado. Síncrona: um UPDATE em lote na mesma transação do cliente.
+// Assíncrona: após o commit, blocos de chunk-size linhas, cada um em sua própria transação, em uma única thread.
+@Service
+public class CustomerCascadeService {
+
+    private static final Logger log = LoggerFactory.getLogger(CustomerCascadeService.class);
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private TransactionAggregateRepository aggregateRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ShardRouter router;
+
+    @Value("${channels.customer-delete.async-cascade:false}")
+    private boolean async;
+
+    @Value("${channels.customer-delete.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${channels.customer-delete.shutdown-timeout:30s}")
+    private Duration shutdownTimeout;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("customer-cascade").daemon().factory());
+
+    // Chamado dentro da transação que desativa o cliente
+    public void deactivateTransactions(UUID customerId) {
+        if (!async) {
+            int deactivated = transactionRepository.deactivateByCustomer(customerId, LocalDateTime.now());
+            aggregateRepository.deleteByCustomerId(customerId);
+            log.debug("Customer {} deactivated with {} transactions", customerId, deactivated);
+            return;
+        }
+
+        // Só depois do commit: se a desativação do cliente for revertida, as transações continuam ativas
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    submit(customerId);
+                }
+            });
+        } else {
+            submit(customerId);
+        }
+    }
+
+    private void submit(UUID customerId) {
+        executor.execute(() -> {
+            try {
+                router.forCustomer(customerId, () -> deactivateInChunks(customerId));
+            } catch (RuntimeException e) {
+                log.error("Failed to deactivate transactions of customer {}", customerId, e);
+            }
+        });
+    }
+
+    long deactivateInChunks(UUID customerId) {
+        long total = 0;
+        int updated;
+
+        do {
+            updated = transactionTemplate.execute(status -> transactionRepository.deactivateByCustomer(customerId, LocalDateTime.now(), chunkSize));
+            total += updated;
+        } while (updated == chunkSize);
+
+        transactionTemplate.executeWithoutResult(status -> aggregateRepository.deleteByCustomerId(customerId));
+        log.info("Customer {} deactivated: {} transactions in chunks of {}", customerId, total, chunkSize);
+        return total;
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(shutdownTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+            log.warn("Customer cascade still running after {}; pending customers keep active transactions", shutdownTimeout);
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,418 @@
+package br.com.orbitall.channels.services;
+
+import br.com.orbitall.channels.canonicals.ChangeType;
+import br.com.orbitall.channels.canonicals.CustomerImportErrorOutput;
+import br.com.orbitall.channels.canonicals.CustomerImportOutput;
+import br.com.orbitall.channels.canonicals.CustomerInput;
+import br.com.orbitall.channels.canonicals.CustomerOutput;
+import br.com.orbitall.channels.exceptions.InvalidImportException;
+import br.com.orbitall.channels.generators.IdGenerator;
+import br.com.orbitall.channels.models.Customer;
+import br.com.orbitall.channels.repositories.CustomerRepository;
+import br.com.orbitall.channels.sharding.ShardRouter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+// Importação em massa de clientes: lê o arquivo em blocos, valida cada bloco em paralelo e grava em lotes JDBC,
+// um commit por bloco; a gravação de um bloco corre enquanto o próximo é lido e validado
+@Service
+public class CustomerImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(CustomerImportService.class);
+
+    public static final int MAX_REPORTED_ERRORS = 1000;
+
+    private static final int CHUNK_SIZE = 5000;
+
+    // Um registro CSV com campo entre aspas pode ocupar várias linhas; aspas sem fechamento nesse limite
+    // tornam o registro (com as linhas já lidas) uma única linha malformada, sem ler o resto do arquivo para a memória
+    private static final int MAX_CSV_RECORD_LINES = 100;
+    private static final String INSERT = "INSERT INTO CUSTOMERS (id, full_name, email, phone, created_at, updated_at, active) "
+            + "VALUES (?, ?, ?, ?, ?, ?, TRUE)";
+
+    public enum Format {
+        CSV,
+        NDJSON
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    // Com channels.storage=memory não há tabela CUSTOMERS a preencher: os blocos vão para o repositório em memória
+    @Value("${channels.storage:jpa}")
+    private String storage;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ShardRouter router;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private ReadModel readModel;
+
+    @Autowired
+    private OutboxService outbox;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private IdGenerator idGenerator;
+
+    private record Row(long line, CustomerInput input, String error) {
+    }
+
+    // Estado de uma importação; o escritor atualiza contadores e erros em paralelo à leitura
+    private static final class Progress {
+        final AtomicLong rows = new AtomicLong();
+        final AtomicLong imported = new AtomicLong();
+        final AtomicLong rejected = new AtomicLong();
+        final List<CustomerImportErrorOutput> errors = new ArrayList<>();
+        boolean errorsTruncated;
+        long peakHeap;
+
+        synchronized void reject(long line, String error) {
+            rejected.incrementAndGet();
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new CustomerImportErrorOutput(line, error));
+            } else {
+                errorsTruncated = true;
+            }
+        }
+
+        synchronized void sampleHeap(MemoryMXBean memory) {
+            peakHeap = Math.max(peakHeap, memory.getHeapMemoryUsage().getUsed());
+        }
+    }
+
+    public CustomerImportOutput importCustomers(InputStream body, Format format) {
+        long start = System.nanoTime();
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        Progress progress = new Progress();
+        progress.sampleHeap(memory);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8), 64 * 1024);
+             ExecutorService writer = Executors.newSingleThreadExecutor()) {
+            LineParser parser = format == Format.CSV ? csvParser(reader.readLine()) : this::parseNdjson;
+            CompletableFuture<Void> pending = CompletableFuture.completedFuture(null);
+
+            long line = format == Format.CSV ? 1 : 0;
+            List<Row> chunk = new ArrayList<>(CHUNK_SIZE);
+            String text;
+            while ((text = reader.readLine()) != null) {
+                line++;
+                if (text.isBlank()) {
+                    continue;
+                }
+
+                long first = line;
+                if (format == Format.CSV && oddQuotes(text)) {
+                    StringBuilder record = new StringBuilder(text);
+                    boolean open = true;
+                    String next;
+                    while (open && line - first + 1 < MAX_CSV_RECORD_LINES && (next = reader.readLine()) != null) {
+                        line++;
+                        record.append('\n').append(next);
+                        open = open != oddQuotes(next);
+                    }
+                    text = record.toString();
+                }
+                chunk.add(parse(parser, first, text));
+
+                if (chunk.size() == CHUNK_SIZE) {
+                    pending = submit(pending, writer, validate(chunk), progress, memory);
+                    chunk = new ArrayList<>(CHUNK_SIZE);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                pending = submit(pending, writer, validate(chunk), progress, memory);
+            }
+            await(pending);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        long elapsedNanos = System.nanoTime() - start;
+        long rows = progress.rows.get();
+        CustomerImportOutput output;
+        synchronized (progress) {
+            output = new CustomerImportOutput(rows, progress.imported.get(), progress.rejected.get(),
+                    elapsedNanos / 1_000_000, rows / Math.max(elapsedNanos / 1e9, 1e-9), progress.peakHeap,
+                    progress.errorsTruncated, List.copyOf(progress.errors));
+        }
+
+        log.info("Imported {} of {} customers in {} ms ({} rows/s, peak heap {} MB)", output.imported(), rows,
+                output.elapsedMillis(), Math.round(output.rowsPerSecond()), output.peakHeapBytes() / (1024 * 1024));
+        return output;
+    }
+
+    @FunctionalInterface
+    private interface LineParser {
+        CustomerInput parse(String line) throws IOException;
+    }
+
+    private static Row parse(LineParser parser, long line, String text) {
+        try {
+            return new Row(line, parser.parse(text), null);
+        } catch (IOException | RuntimeException e) {
+            return new Row(line, null, "Malformed line: " + e.getMessage());
+        }
+    }
+
+    private CustomerInput parseNdjson(String line) throws IOException {
+        CustomerInput input = objectMapper.readValue(line, CustomerInput.class);
+        if (input == null) {
+            throw new IllegalArgumentException("expected a JSON object but found null");
+        }
+        return input;
+    }
+
+    // As colunas são localizadas pelo cabeçalho (fullName, email, phone), em qualquer ordem
+    private static LineParser csvParser(String header) {
+        if (header == null) {
+            throw new InvalidImportException("CSV import requires a header line with fullName,email,phone");
+        }
+
+        List<String> columns = parseCsvLine(header).stream().map(c -> c.trim().toLowerCase(Locale.ROOT)).toList();
+        int fullName = columns.indexOf("fullname");
+        int email = columns.indexOf("email");
+        int phone = columns.indexOf("phone");
+        if (fullName < 0 || email < 0 || phone < 0) {
+            throw new InvalidImportException("CSV header must contain fullName, email and phone (got: " + header + ")");
+        }
+
+        int width = columns.size();
+        return line -> {
+            List<String> fields = parseCsvLine(line);
+            if (fields.size() != width) {
+                throw new IllegalArgumentException("expected " + width + " fields but found " + fields.size());
+            }
+            return new CustomerInput(fields.get(fullName), fields.get(email), fields.get(phone));
+        };
+    }
+
+    // Aspas em quantidade ímpar deixam um campo aberto (as aspas duplicadas "" não mudam a paridade)
+    private static boolean oddQuotes(String line) {
+        int quotes = 0;
+        for (int i = 0; i < line.length(); i++) {
+            if (line.charAt(i) == '"') {
+                quotes++;
+            }
+        }
+        return quotes % 2 != 0;
+    }
+
+    // Um registro RFC 4180: campos entre aspas podem conter vírgulas, aspas duplicadas e quebras de linha
+    static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+
+        if (quoted) {
+            throw new IllegalArgumentException("unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private List<Row> validate(List<Row> chunk) {
+        return chunk.parallelStream()
+                .map(row -> row.error() != null ? row : new Row(row.line(), row.input(), validationError(row.input())))
+                .toList();
+    }
+
+    private String validationError(CustomerInput input) {
+        Set<ConstraintViolation<CustomerInput>> violations = validator.validate(input);
+        if (violations.isEmpty()) {
+            return null;
+        }
+
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .distinct()
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    // No máximo um bloco em gravação enquanto o seguinte é lido e validado
+    private CompletableFuture<Void> submit(CompletableFuture<Void> pending, ExecutorService writer, List<Row> rows,
+                                           Progress progress, MemoryMXBean memory) {
+        await(pending);
+        progress.sampleHeap(memory);
+
+        return CompletableFuture.runAsync(() -> {
+            List<Row> valid = new ArrayList<>(rows.size());
+            rows.forEach(row -> {
+                if (row.error() == null) {
+                    valid.add(row);
+                } else {
+                    progress.reject(row.line(), row.error());
+                }
+            });
+
+            insert(valid, progress);
+            progress.rows.addAndGet(rows.size());
+        }, writer);
+    }
+
+    private void insert(List<Row> rows, Progress progress) {
+        if ("memory".equals(storage)) {
+            List<Customer> customers = toCustomers(rows, LocalDateTime.now());
+            List<CustomerOutput> outputs = readModel.isEnabled() || outbox.isEnabled()
+                    ? customers.stream().map(customerService::toOutput).toList() : List.of();
+            transactionTemplate.executeWithoutResult(status -> {
+                customerRepository.saveAll(customers);
+                outbox.customersChanged(ChangeType.CUSTOMER_CREATED, outputs);
+            });
+            progress.imported.addAndGet(rows.size());
+            if (readModel.isEnabled()) {
+                readModel.customersCreated(outputs);
+            }
+            return;
+        }
+
+        // Ids gerados antes de gravar para distribuir o bloco entre os shards: um batch (e um commit) por shard
+        List<Object[]> args = toArgs(rows, Timestamp.valueOf(LocalDateTime.now()));
+        router.groupByShard(IntStream.range(0, rows.size()).boxed().toList(), i -> (UUID) args.get(i)[0])
+                .forEach((shard, indexes) -> router.onShard(shard, () -> insertBatch(rows, args, indexes, progress)));
+    }
+
+    private void insertBatch(List<Row> rows, List<Object[]> args, List<Integer> indexes, Progress progress) {
+        List<Object[]> batch = new ArrayList<>(indexes.size());
+        indexes.forEach(i -> batch.add(args.get(i)));
+
+        List<CustomerOutput> outputs = readModel.isEnabled() || outbox.isEnabled()
+                ? batch.stream().map(CustomerImportService::toOutput).toList() : List.of();
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(INSERT, batch);
+                outbox.customersChanged(ChangeType.CUSTOMER_CREATED, outputs);
+            });
+            progress.imported.addAndGet(batch.size());
+            if (readModel.isEnabled()) {
+                readModel.customersCreated(outputs);
+            }
+        } catch (DataAccessException batchFailure) {
+            // O bloco foi desfeito: regrava linha a linha para atribuir o erro apenas às linhas com problema
+            indexes.forEach(i -> {
+                try {
+                    CustomerOutput output = toOutput(args.get(i));
+                    transactionTemplate.executeWithoutResult(status -> {
+                        jdbcTemplate.update(INSERT, args.get(i));
+                        outbox.customerChanged(ChangeType.CUSTOMER_CREATED, output);
+                    });
+                    progress.imported.incrementAndGet();
+                    if (readModel.isEnabled()) {
+                        readModel.customerCreated(output);
+                    }
+                } catch (DataAccessException e) {
+                    progress.reject(rows.get(i).line(), "Insert failed: " + e.getMostSpecificCause().getMessage());
+                }
+            });
+        }
+    }
+
+    private List<Object[]> toArgs(List<Row> rows, Timestamp now) {
+        List<Object[]> args = new ArrayList<>(rows.size());
+        rows.forEach(row -> args.add(new Object[]{idGenerator.next(), row.input().fullName(), row.input().email(),
+                row.input().phone(), now, now}));
+        return args;
+    }
+
+    // Cliente como gravado pelo INSERT (versão inicial 0)
+    private static CustomerOutput toOutput(Object[] args) {
+        LocalDateTime now = ((Timestamp) args[4]).toLocalDateTime();
+        return new CustomerOutput((UUID) args[0], (String) args[1], (String) args[2], (String) args[3], now, now, true, 0);
+    }
+
+    private List<Customer> toCustomers(List<Row> rows, LocalDateTime now) {
+        List<Customer> customers = new ArrayList<>(rows.size());
+        rows.forEach(row -> {
+            Customer customer = new Customer();
+            customer.setId(idGenerator.next());
+            customer.setFullName(row.input().fullName());
+            customer.setEmail(row.input().email());
+            customer.setPhone(row.input().phone());
+            customer.setCreatedAt(now);
+            customer.setUpdatedAt(now);
+            customer.setActive(true);
+            customers.add(customer);
+        });
+        return customers;
+    }
+
+    private static void await(CompletableFuture<Void> pending) {
+        try {
+            pending.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package br.com.orbitall.channels.services;
+
+import br.com.orbitall.channels.instrumentation.HotPath;
+import br.com.orbitall.channels.repositories.CustomerRepository;
+import br.com.orbitall.channels.sharding.ShardedBy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.UUID;
+
+@Service
+public class CustomerLookupService {
+
+    public static final String ACTIVE_CUSTOMERS = "activeCustomers";
+
+    @Autowired
+    private CustomerRepository repository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    // Só guarda resultados positivos: um cliente criado depois de uma consulta negativa não fica preso como inativo.
+    // CustomerService.update/delete removem a entrada (evict), então um cliente desativado nunca é servido pelo cache.
+    @HotPath
+    @ShardedBy("#id")
+    @Cacheable(cacheNames = ACTIVE_CUSTOMERS, unless = "!#result")
+    public boolean isActive(UUID id) {
+        return repository.existsByIdAndActiveTrue(id);
+    }
+
+    // Remove na hora e de novo depois do commit: até o commit um isActive() concorrente ainda lê o cliente
+    // ativo no banco e grava true de volta, que ficaria valendo até o TTL
+    public void evict(UUID id) {
+        Cache cache = cacheManager.getCache(ACTIVE_CUSTOMERS);
+        if (cache == null) {
+            return;
+        }
+
+        cache.evict(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.evict(id);
+                }
+            });
+        }
+    }
+}
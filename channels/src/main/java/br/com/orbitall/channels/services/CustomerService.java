@@ -1,29 +1,74 @@
 package br.com.orbitall.channels.services;
 
+import br.com.orbitall.channels.canonicals.ChangeType;
 import br.com.orbitall.channels.canonicals.CustomerInput;
+import br.com.orbitall.channels.canonicals.CustomerLookupItemOutput;
 import br.com.orbitall.channels.canonicals.CustomerOutput;
+import br.com.orbitall.channels.exceptions.PreconditionFailedException;
 import br.com.orbitall.channels.exceptions.ResourceNotFoundException;
+import br.com.orbitall.channels.generators.IdGenerator;
+import br.com.orbitall.channels.instrumentation.HotPath;
 import br.com.orbitall.channels.models.Customer;
+import br.com.orbitall.channels.models.EntityVersion;
 import br.com.orbitall.channels.repositories.CustomerRepository;
+import br.com.orbitall.channels.repositories.memory.InMemoryCustomerRepository;
+import br.com.orbitall.channels.sharding.ShardRouter;
+import br.com.orbitall.channels.sharding.ShardedBy;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 @Service
+@HotPath
 public class CustomerService {
 
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    public static final int MAX_LOOKUP_SIZE = 1000;
+
+    private static final int LOOKUP_CHUNK = 500;
+
     @Autowired
     private CustomerRepository repository;
 
+    @Autowired
+    private IdGenerator idGenerator;
+
+    @Autowired
+    private CustomerCascadeService cascadeService;
+
+    @Autowired
+    private CustomerLookupService customerLookup;
+
+    @Autowired
+    private ShardRouter router;
+
+    @Autowired
+    private ReadModel readModel;
+
+    @Autowired
+    private OutboxService outbox;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
     public CustomerOutput create(CustomerInput input) {
         LocalDateTime now = LocalDateTime.now();
 
         Customer customer = new Customer();
-        customer.setId(UUID.randomUUID());
+        customer.setId(idGenerator.next());
         customer.setFullName(input.fullName());
         customer.setEmail(input.email());
         customer.setPhone(input.phone());
@@ -31,11 +76,18 @@ public class CustomerService {
        customer.setUpdatedAt(now);
         customer.setActive(true);
 
-        repository.save(customer);
-
-        return toOutput(customer);
+        // O shard é escolhido antes de a transação abrir a conexão
+        CustomerOutput output = router.forCustomer(customer.getId(), () -> transactionTemplate.execute(status -> {
+            repository.save(customer);
+            CustomerOutput created = toOutput(customer);
+            outbox.customerChanged(ChangeType.CUSTOMER_CREATED, created);
+            return created;
+        }));
+        readModel.customerCreated(output);
+        return output;
     }
 
+    @ShardedBy("#id")
     public CustomerOutput retrieve(UUID id) {
         Customer customer = repository.findById(id)
                 .filter(Customer::isActive)
@@ -44,47 +96,122 @@ public class CustomerService {
         return toOutput(customer);
     }
 
-    public CustomerOutput update(UUID id, CustomerInput input) {
-        Customer fetched = repository.findById(id)
-                .filter(Customer::isActive)
+    @ShardedBy("#id")
+    public EntityVersion retrieveVersion(UUID id) {
+        return repository.findActiveVersion(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Customer not found (id: " + id + ")"));
+    }
 
-        fetched.setFullName(input.fullName());
-        fetched.setEmail(input.email());
-        fetched.setPhone(input.phone());
-        fetched.setUpdatedAt(LocalDateTime.now());
-
-        repository.save(fetched);
+    @ShardedBy("#id")
+    @Transactional
+    public CustomerOutput update(UUID id, CustomerInput input) {
+        return update(id, input, null);
+    }
 
-        return toOutput(fetched);
+    // Um único UPDATE condicional; expectedVersion (If-Match) é opcional
+    @ShardedBy("#id")
+    @Transactional
+    public CustomerOutput update(UUID id, CustomerInput input, Long expectedVersion) {
+        Customer updated = repository.updateActive(id, input.fullName(), input.email(), input.phone(),
+                        LocalDateTime.now(), expectedVersion)
+                .orElseThrow(() -> writeRejected(id, expectedVersion));
+        customerLookup.evict(id);
+
+        CustomerOutput output = toOutput(updated);
+        outbox.customerChanged(ChangeType.CUSTOMER_UPDATED, output);
+        readModel.customerUpdated(output);
+        return output;
     }
 
+    @ShardedBy("#id")
+    @Transactional
     public CustomerOutput delete(UUID id) {
-        Customer fetched = repository.findById(id)
-                .filter(Customer::isActive)
-                .orElseThrow(() -> new ResourceNotFoundException("Customer not found (id: " + id + ")"));
+        return delete(id, null);
+    }
+
+    // Desativa o cliente e, em cascata, as transações dele
+    @ShardedBy("#id")
+    @Transactional
+    public CustomerOutput delete(UUID id, Long expectedVersion) {
+        Customer deleted = repository.deactivate(id, LocalDateTime.now(), expectedVersion)
+                .orElseThrow(() -> writeRejected(id, expectedVersion));
+        customerLookup.evict(id);
+
+        // A cascata não gera um evento por transação: CUSTOMER_DEACTIVATED já implica as transações do cliente
+        cascadeService.deactivateTransactions(id);
+        readModel.customerDeactivated(id);
+
+        CustomerOutput output = toOutput(deleted);
+        outbox.customerChanged(ChangeType.CUSTOMER_DEACTIVATED, output);
+        return output;
+    }
 
-        fetched.setUpdatedAt(LocalDateTime.now());
-        fetched.setActive(false);
+    // Com vários shards, cada um devolve a própria página a partir do mesmo cursor e as páginas são intercaladas
+    // na ordem de id: a próxima página continua do último id entregue, como com um banco só
+    public List<CustomerOutput> findAll(UUID after, int limit) {
+        Limit pageLimit = Limit.of(pageSize(limit));
 
-        repository.save(fetched);
+        List<Customer> page = ShardRouter.merge(router.onEachShard(() -> after == null
+                        ? repository.findActivePage(pageLimit)
+                        : repository.findActivePageAfter(after, pageLimit)),
+                Comparator.comparing(Customer::getId, InMemoryCustomerRepository.UUID_ORDER), pageLimit.max());
 
-        return toOutput(fetched);
+        List<CustomerOutput> list = new ArrayList<>(page.size());
+        page.forEach(customer -> list.add(toOutput(customer)));
+
+        return list;
     }
 
-    public List<CustomerOutput> findAll() {
-        List<CustomerOutput> list = new ArrayList<>();
+    // Consulta em lote: um IN por bloco de ids distintos; a resposta segue a ordem pedida, com 404 para ausentes ou inativos
+    public List<CustomerLookupItemOutput> lookup(List<UUID> ids) {
+        List<UUID> distinct = ids.stream().filter(Objects::nonNull).distinct().toList();
+        Map<UUID, CustomerOutput> found = new HashMap<>();
 
-        repository.findAll().forEach(customer -> {
-            if (customer.isActive()) {
-                list.add(toOutput(customer));
+        router.groupByShard(distinct, id -> id).forEach((shard, shardIds) -> router.onShard(shard, () -> {
+            for (int from = 0; from < shardIds.size(); from += LOOKUP_CHUNK) {
+                repository.findActiveByIdIn(shardIds.subList(from, Math.min(from + LOOKUP_CHUNK, shardIds.size())))
+                        .forEach(customer -> found.put(customer.getId(), toOutput(customer)));
             }
+        }));
+
+        List<CustomerLookupItemOutput> items = new ArrayList<>(ids.size());
+        ids.forEach(id -> {
+            CustomerOutput customer = found.get(id);
+            items.add(new CustomerLookupItemOutput(id, customer != null ? 200 : 404, customer));
         });
+        return items;
+    }
 
-        return list;
+    // Percorre todos os clientes ativos página a página, mantendo em memória apenas uma página por vez
+    public void forEachActive(int chunkSize, Consumer<CustomerOutput> consumer) {
+        int size = pageSize(chunkSize);
+        UUID after = null;
+        List<CustomerOutput> page;
+
+        do {
+            page = findAll(after, size);
+            page.forEach(consumer);
+
+            if (!page.isEmpty()) {
+                after = page.get(page.size() - 1).id();
+            }
+        } while (page.size() == size);
+    }
+
+    // Nenhuma linha alterada: cliente inexistente/inativo ou, com If-Match, versão desatualizada.
+    // A consulta extra só acontece nesse caminho de falha.
+    private RuntimeException writeRejected(UUID id, Long expectedVersion) {
+        if (expectedVersion != null && repository.existsByIdAndActiveTrue(id)) {
+            return new PreconditionFailedException("Customer was modified (id: " + id + ", expected version: " + expectedVersion + ")");
+        }
+        return new ResourceNotFoundException("Customer not found (id: " + id + ")");
+    }
+
+    private static int pageSize(int requested) {
+        return Math.min(Math.max(requested, 1), MAX_PAGE_SIZE);
     }
 
-    private CustomerOutput toOutput(Customer customer) {
+    CustomerOutput toOutput(Customer customer) {
         return new CustomerOutput(
                 customer.getId(),
                 customer.getFullName(),
@@ -92,7 +219,8 @@ public class CustomerService {
                 customer.getPhone(),
                 customer.getCreatedAt(),
                 customer.getUpdatedAt(),
-                customer.isActive()
+                customer.isActive(),
+                customer.getVersion()
         );
     }
 }
@@ -0,0 +1,216 @@
+package br.com.orbitall.channels.services;
+
+import br.com.orbitall.channels.canonicals.CardTypeSummaryOutput;
+import br.com.orbitall.channels.canonicals.CustomerSummaryOutput;
+import br.com.orbitall.channels.exceptions.ResourceNotFoundException;
+import br.com.orbitall.channels.models.Transaction;
+import br.com.orbitall.channels.models.TransactionAggregate;
+import br.com.orbitall.channels.repositories.CustomerRepository;
+import br.com.orbitall.channels.repositories.TransactionAggregateRepository;
+import br.com.orbitall.channels.repositories.TransactionRepository;
+import br.com.orbitall.channels.sharding.ShardRouter;
+import br.com.orbitall.channels.sharding.ShardedBy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.UUID;
+
+@Service
+public class CustomerSummaryService {
+
+    private static final Logger log = LoggerFactory.getLogger(CustomerSummaryService.class);
+
+    private static final int REBUILD_PAGE_SIZE = 500;
+
+    @Autowired
+    private TransactionAggregateRepository aggregateRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private CustomerLookupService customerLookup;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ShardRouter router;
+
+    public record RebuildReport(long customers, long drifted) {
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void add(Transaction transaction) {
+        increment(transaction.getCustomerId(), transaction.getCardType(), 1, transaction.getAmount());
+    }
+
+    // Lotes: agrupa por (cliente, bandeira) para emitir um comando por grupo, não por transação
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void addAll(List<Transaction> transactions) {
+        Map<TransactionAggregate.Key, TransactionAggregate> groups = new HashMap<>();
+
+        transactions.forEach(transaction -> groups.merge(
+                new TransactionAggregate.Key(transaction.getCustomerId(), transaction.getCardType()),
+                new TransactionAggregate(transaction.getCustomerId(), transaction.getCardType(), 1, transaction.getAmount()),
+                (current, increment) -> {
+                    current.setTransactionCount(current.getTransactionCount() + 1);
+                    current.setTotalAmount(current.getTotalAmount().add(increment.getTotalAmount()));
+                    return current;
+                }));
+
+        groups.values().forEach(group -> increment(
+                group.getCustomerId(), group.getCardType(), group.getTransactionCount(), group.getTotalAmount()));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void subtract(Transaction transaction) {
+        aggregateRepository.subtract(transaction.getCustomerId(), transaction.getCardType(), transaction.getAmount());
+    }
+
+    @ShardedBy("#customerId")
+    public CustomerSummaryOutput retrieve(UUID customerId) {
+        if (!customerLookup.isActive(customerId)) {
+            throw new ResourceNotFoundException("Customer not found (id: " + customerId + ")");
+        }
+
+        long count = 0;
+        BigDecimal total = BigDecimal.ZERO;
+        Map<String, CardTypeSummaryOutput> cardTypes = new TreeMap<>();
+
+        for (TransactionAggregate aggregate : aggregateRepository.findByCustomerId(customerId)) {
+            if (aggregate.getTransactionCount() == 0) {
+                continue;
+            }
+            count += aggregate.getTransactionCount();
+            total = total.add(aggregate.getTotalAmount());
+            cardTypes.put(aggregate.getCardType(),
+                    new CardTypeSummaryOutput(aggregate.getTransactionCount(), aggregate.getTotalAmount()));
+        }
+
+        return new CustomerSummaryOutput(customerId, count, total, cardTypes);
+    }
+
+    @Scheduled(cron = "${channels.summary.rebuild-cron:-}")
+    public void scheduledRebuild() {
+        rebuild();
+    }
+
+    // Recalcula os agregados de cada cliente a partir de TRANSACTIONS, corrigindo e registrando divergências.
+    // Cada cliente é tratado em sua própria transação, com as linhas do agregado travadas durante a comparação.
+    public RebuildReport rebuild() {
+        long customers = 0;
+        long drifted = 0;
+        for (RebuildReport shard : router.onEachShard(this::rebuildShard)) {
+            customers += shard.customers();
+            drifted += shard.drifted();
+        }
+
+        if (drifted > 0) {
+            log.warn("Transaction aggregates rebuilt: {} of {} customers had drifted", drifted, customers);
+        } else {
+            log.info("Transaction aggregates checked: {} customers, no drift", customers);
+        }
+
+        return new RebuildReport(customers, drifted);
+    }
+
+    // Clientes e agregados de um shard (o cliente e suas transações estão sempre no mesmo shard)
+    private RebuildReport rebuildShard() {
+        long customers = 0;
+        long drifted = 0;
+
+        List<UUID> page = customerRepository.findIdPage(Limit.of(REBUILD_PAGE_SIZE));
+        while (!page.isEmpty()) {
+            for (UUID customerId : page) {
+                customers++;
+                if (Boolean.TRUE.equals(transactionTemplate.execute(status -> rebuildCustomer(customerId)))) {
+                    drifted++;
+                }
+            }
+            page = customerRepository.findIdPageAfter(page.get(page.size() - 1), Limit.of(REBUILD_PAGE_SIZE));
+        }
+
+        return new RebuildReport(customers, drifted);
+    }
+
+    private boolean rebuildCustomer(UUID customerId) {
+        Map<String, TransactionAggregate> current = new HashMap<>();
+        aggregateRepository.lockByCustomerId(customerId).forEach(aggregate -> current.put(aggregate.getCardType(), aggregate));
+
+        boolean drifted = false;
+        for (TransactionAggregate expected : transactionRepository.aggregateActiveByCustomer(customerId)) {
+            TransactionAggregate actual = current.remove(expected.getCardType());
+            if (actual == null) {
+                // Linha ausente: um primeiro add() concorrente pode tê-la criado e confirmado depois da trava acima,
+                // com uma transação que a contagem já feita não viu; o cliente é refeito com ela visível
+                if (!insert(customerId, expected.getCardType(), expected.getTransactionCount(), expected.getTotalAmount())) {
+                    rebuildCustomer(customerId);
+                    return true;
+                }
+                drifted = true;
+            } else if (actual.getTransactionCount() != expected.getTransactionCount()
+                    || !sameAmount(actual.getTotalAmount(), expected.getTotalAmount())) {
+                actual.setTransactionCount(expected.getTransactionCount());
+                actual.setTotalAmount(expected.getTotalAmount());
+                drifted = true;
+            }
+        }
+
+        // Sobraram apenas bandeiras sem nenhuma transação ativa
+        for (TransactionAggregate stale : current.values()) {
+            if (stale.getTransactionCount() != 0 || !sameAmount(stale.getTotalAmount(), BigDecimal.ZERO)) {
+                drifted = true;
+            }
+            aggregateRepository.delete(stale);
+        }
+
+        return drifted;
+    }
+
+    // Soma atômica: UPDATE da linha (cliente, bandeira) e, se ela ainda não existir, INSERT já com o incremento.
+    // Em dois primeiros inserts concorrentes o H2 segura o segundo até o commit do primeiro e recusa a chave
+    // duplicada; a soma é refeita como UPDATE sobre a linha agora visível
+    private void increment(UUID customerId, String cardType, long count, BigDecimal amount) {
+        if (aggregateRepository.add(customerId, cardType, count, amount) == 0 && !insert(customerId, cardType, count, amount)) {
+            aggregateRepository.add(customerId, cardType, count, amount);
+        }
+    }
+
+    // INSERT pelo JDBC, na mesma conexão da transação: a chave duplicada desfaz só este comando, sem marcar a
+    // transação JPA inteira para rollback como faria uma consulta do repositório
+    private boolean insert(UUID customerId, String cardType, long count, BigDecimal amount) {
+        try {
+            jdbcTemplate.update("INSERT INTO TRANSACTION_AGGREGATES (customer_id, card_type, transaction_count, total_amount) "
+                    + "VALUES (?, ?, ?, ?)", customerId, cardType, count, amount);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    private static boolean sameAmount(BigDecimal a, BigDecimal b) {
+        return Objects.requireNonNullElse(a, BigDecimal.ZERO).compareTo(Objects.requireNonNullElse(b, BigDecimal.ZERO)) == 0;
+    }
+}
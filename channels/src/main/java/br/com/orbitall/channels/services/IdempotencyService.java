@@ -0,0 +1,181 @@
+package br.com.orbitall.channels.services;
+
+import br.com.orbitall.channels.canonicals.TransactionInput;
+import br.com.orbitall.channels.canonicals.TransactionOutput;
+import br.com.orbitall.channels.exceptions.IdempotencyKeyReuseException;
+import br.com.orbitall.channels.models.IdempotencyKey;
+import br.com.orbitall.channels.repositories.IdempotencyKeyRepository;
+import br.com.orbitall.channels.repositories.TransactionArchiveRepository;
+import br.com.orbitall.channels.repositories.TransactionRepository;
+import br.com.orbitall.channels.sharding.ShardRouter;
+import br.com.orbitall.channels.sharding.ShardedBy;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Deduplicação de POST /transactions por Idempotency-Key: camada quente em memória (Caffeine, limitada)
+// sobre a tabela IDEMPOTENCY_KEYS, gravada no mesmo commit da transação
+@Service
+public class IdempotencyService {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private IdempotencyKeyRepository keyRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private TransactionArchiveRepository archiveRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ShardRouter router;
+
+    private final Duration ttl;
+    private final Cache<String, IdempotencyKey> hot;
+
+    // Requisições em andamento por chave: duplicatas concorrentes aguardam a primeira em vez de inserir
+    private final ConcurrentHashMap<String, CompletableFuture<IdempotencyKey>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyService(@Value("${channels.idempotency.ttl:24h}") Duration ttl,
+                              @Value("${channels.idempotency.hot-tier-size:100000}") long hotTierSize) {
+        this.ttl = ttl;
+        // Expira pela idade da chave (createdAt), não pelo momento em que entrou na memória
+        this.hot = Caffeine.newBuilder()
+                .maximumSize(hotTierSize)
+                .expireAfter(Expiry.creating((String key, IdempotencyKey stored) -> remaining(stored)))
+                .build();
+    }
+
+    // Com shards, a chave fica no shard do cliente do corpo, gravada no mesmo commit da transação
+    @ShardedBy("#input.customerId()")
+    public TransactionOutput create(String key, TransactionInput input) {
+        IdempotencyKey stored = hot.getIfPresent(key);
+        if (stored == null) {
+            stored = resolve(key, input);
+        }
+
+        if (!matches(stored, input)) {
+            throw new IdempotencyKeyReuseException("Idempotency-Key already used with a different request (key: " + key + ")");
+        }
+
+        return current(stored);
+    }
+
+    @Scheduled(cron = "${channels.idempotency.purge-cron:0 */10 * * * *}")
+    public void purgeExpired() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(ttl);
+        int purged = router.onEachShard(() -> keyRepository.deleteCreatedBefore(cutoff)).stream().mapToInt(Integer::intValue).sum();
+        if (purged > 0) {
+            log.info("Purged {} expired idempotency keys", purged);
+        }
+    }
+
+    private IdempotencyKey resolve(String key, TransactionInput input) {
+        CompletableFuture<IdempotencyKey> mine = new CompletableFuture<>();
+        CompletableFuture<IdempotencyKey> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            return await(running);
+        }
+
+        try {
+            IdempotencyKey stored = findOrCreate(key, input);
+            hot.put(key, stored);
+            mine.complete(stored);
+            return stored;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private IdempotencyKey findOrCreate(String key, TransactionInput input) {
+        IdempotencyKey existing = keyRepository.findById(key).orElse(null);
+        if (existing != null) {
+            if (!remaining(existing).isZero()) {
+                return existing;
+            }
+            keyRepository.delete(existing);
+        }
+
+        try {
+            return transactionTemplate.execute(status -> {
+                TransactionOutput output = transactionService.create(input);
+
+                IdempotencyKey stored = new IdempotencyKey();
+                stored.setId(key);
+                stored.setTransactionId(output.id());
+                stored.setCustomerId(output.customerId());
+                stored.setAmount(output.amount());
+                stored.setCardType(output.cardType());
+                // Precisão da coluna TIMESTAMP: a resposta repetida a partir da tabela fica idêntica à original
+                stored.setCreatedAt(output.createdAt().truncatedTo(ChronoUnit.MICROS));
+                return keyRepository.save(stored);
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Outra instância gravou a mesma chave primeiro: o nosso commit (transação inclusa) foi desfeito
+            return keyRepository.findById(key).orElseThrow(() -> e);
+        }
+    }
+
+    // A resposta repetida traz o estado atual da transação (ativa, versão), não o do momento da criação.
+    // A chave fica no shard do cliente, o mesmo da transação: uma leitura por id no shard corrente.
+    private TransactionOutput current(IdempotencyKey stored) {
+        return transactionRepository.findById(stored.getTransactionId())
+                .map(transactionService::toOutput)
+                // Já arquivada: só transações desativadas vão para o arquivo
+                .or(() -> archiveRepository.findById(stored.getTransactionId())
+                        .map(archived -> new TransactionOutput(archived.getId(), archived.getCustomerId(),
+                                archived.getAmount(), archived.getCardType(), archived.getCreatedAt(), false,
+                                archived.getVersion())))
+                .orElseGet(() -> new TransactionOutput(stored.getTransactionId(), stored.getCustomerId(),
+                        stored.getAmount(), stored.getCardType(), stored.getCreatedAt(), false, 0));
+    }
+
+    private static IdempotencyKey await(CompletableFuture<IdempotencyKey> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private Duration remaining(IdempotencyKey stored) {
+        Duration remaining = Duration.between(LocalDateTime.now(), stored.getCreatedAt().plus(ttl));
+        return remaining.isNegative() ? Duration.ZERO : remaining;
+    }
+
+    private static boolean matches(IdempotencyKey stored, TransactionInput input) {
+        return Objects.equals(stored.getCustomerId(), input.customerId())
+                && stored.getAmount().compareTo(input.amount()) == 0
+                && Objects.equals(stored.getCardType(), input.cardType());
+    }
+}
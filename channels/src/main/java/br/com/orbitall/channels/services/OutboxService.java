@@ -0,0 +1,93 @@
+package br.com.orbitall.channels.services;
+
+import br.com.orbitall.channels.canonicals.ChangeType;
+import br.com.orbitall.channels.canonicals.CustomerOutput;
+import br.com.orbitall.channels.canonicals.TransactionOutput;
+import br.com.orbitall.channels.generators.IdGenerator;
+import br.com.orbitall.channels.models.OutboxEvent;
+import br.com.orbitall.channels.repositories.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+// Lado de escrita do change feed: o evento entra na transação da própria escrita, então só existe se ela fizer commit
+@Service
+public class OutboxService {
+
+    @Autowired
+    private OutboxEventRepository repository;
+
+    @Autowired
+    private IdGenerator idGenerator;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${channels.change-feed.enabled:false}")
+    private boolean enabled;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void customerChanged(ChangeType type, CustomerOutput customer) {
+        customersChanged(type, List.of(customer));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void customersChanged(ChangeType type, Collection<CustomerOutput> customers) {
+        if (!enabled || customers.isEmpty()) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> events = new ArrayList<>(customers.size());
+        customers.forEach(customer -> events.add(newEvent(type, customer.id(), customer.id(), customer, now)));
+        repository.saveAll(events);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void transactionChanged(ChangeType type, TransactionOutput transaction) {
+        transactionsChanged(type, List.of(transaction));
+    }
+
+    // Lotes: os eventos vão juntos no INSERT em lote (JDBC batching) da mesma transação
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void transactionsChanged(ChangeType type, Collection<TransactionOutput> transactions) {
+        if (!enabled || transactions.isEmpty()) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> events = new ArrayList<>(transactions.size());
+        transactions.forEach(transaction -> events.add(newEvent(type, transaction.customerId(), transaction.id(), transaction, now)));
+        repository.saveAll(events);
+    }
+
+    private OutboxEvent newEvent(ChangeType type, UUID customerId, UUID entityId, Object payload, LocalDateTime now) {
+        OutboxEvent event = new OutboxEvent();
+        event.setId(idGenerator.next());
+        event.setType(type);
+        event.setCustomerId(customerId);
+        event.setEntityId(entityId);
+        event.setCreatedAt(now);
+        try {
+            event.setPayload(objectMapper.writeValueAsString(payload));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        return event;
+    }
+}
@@ -0,0 +1,267 @@
+package br.com.orbitall.channels.services;
+
+import br.com.orbitall.channels.canonicals.CustomerOutput;
+import br.com.orbitall.channels.canonicals.TransactionOutput;
+import br.com.orbitall.channels.models.TransactionHistoryVersion;
+import br.com.orbitall.channels.repositories.memory.InMemoryCustomerRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+// Modelo de leitura (CQRS): clientes ativos e o histórico de transações ativas de cada um, já no formato de resposta.
+// As escritas de CustomerService e TransactionService são aplicadas após o commit. Uma ausência (modelo desligado,
+// ainda não reconstruído ou cliente desconhecido) devolve null e a consulta segue para o banco
+@Service
+public class ReadModel {
+
+    static final Comparator<TransactionOutput> HISTORY_ORDER = Comparator.comparing(TransactionOutput::createdAt)
+            .thenComparing(TransactionOutput::id, InMemoryCustomerRepository.UUID_ORDER);
+
+    // Cliente e histórico imutável (ordenado por createdAt e id), substituídos juntos a cada escrita. A versão do
+    // histórico (ETag) é calculada uma vez na montagem e atualizada só com as entradas e saídas de cada escrita
+    public record View(CustomerOutput customer, List<TransactionOutput> transactions, TransactionHistoryVersion history) {
+
+        public View(CustomerOutput customer, List<TransactionOutput> transactions) {
+            this(customer, transactions, versionOf(transactions));
+        }
+
+        private static TransactionHistoryVersion versionOf(List<TransactionOutput> transactions) {
+            long fingerprint = 0;
+            for (TransactionOutput transaction : transactions) {
+                fingerprint ^= TransactionHistoryVersion.fingerprint(transaction.id());
+            }
+            return new TransactionHistoryVersion(transactions.size(), fingerprint);
+        }
+
+        // Intercala as novas (em geral poucas e no fim) na posição certa, sem reordenar o histórico inteiro
+        View with(Collection<TransactionOutput> added) {
+            List<TransactionOutput> sorted = new ArrayList<>(added);
+            sorted.sort(HISTORY_ORDER);
+
+            List<TransactionOutput> merged = new ArrayList<>(transactions.size() + sorted.size());
+            TransactionHistoryVersion version = history;
+            int copied = 0;
+            for (TransactionOutput transaction : sorted) {
+                int position = Collections.binarySearch(transactions, transaction, HISTORY_ORDER);
+                if (position >= 0) {
+                    continue;
+                }
+                int insertion = -position - 1;
+                merged.addAll(transactions.subList(copied, insertion));
+                copied = insertion;
+                if (merged.isEmpty() || !merged.get(merged.size() - 1).id().equals(transaction.id())) {
+                    merged.add(transaction);
+                    version = version.plus(transaction.id());
+                }
+            }
+            if (copied == 0 && merged.isEmpty()) {
+                return this;
+            }
+            merged.addAll(transactions.subList(copied, transactions.size()));
+            return new View(customer, Collections.unmodifiableList(merged), version);
+        }
+
+        View without(UUID transactionId) {
+            List<TransactionOutput> remaining = new ArrayList<>(transactions.size());
+            transactions.forEach(transaction -> {
+                if (!transaction.id().equals(transactionId)) {
+                    remaining.add(transaction);
+                }
+            });
+            return remaining.size() == transactions.size()
+                    ? this
+                    : new View(customer, List.copyOf(remaining), history.minus(transactionId));
+        }
+    }
+
+    @Value("${channels.read-model.enabled:false}")
+    private boolean enabled;
+
+    @Value("${channels.storage:jpa}")
+    private String storage;
+
+    private final Map<UUID, View> views = new ConcurrentHashMap<>();
+
+    // Só serve leituras depois da reconstrução inicial (ReadModelSynchronizer)
+    private volatile boolean ready;
+
+    // Escritas commitadas durante a reconstrução: a leitura do banco pode ser anterior a elas e as visões ainda não
+    // existirem quando chegam, então são reaplicadas (todas idempotentes) sobre o resultado antes de servir leituras
+    private final List<Runnable> pending = new ArrayList<>();
+    private boolean recording = true;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public View view(UUID customerId) {
+        return ready ? views.get(customerId) : null;
+    }
+
+    public void customerCreated(CustomerOutput customer) {
+        customersCreated(List.of(customer));
+    }
+
+    public void customersCreated(Collection<CustomerOutput> customers) {
+        if (!enabled || customers.isEmpty()) {
+            return;
+        }
+        afterCommit(() -> customers.forEach(customer ->
+                views.putIfAbsent(customer.id(), new View(normalize(customer), List.of(), TransactionHistoryVersion.EMPTY))));
+    }
+
+    // A versão descarta a aplicação atrasada de uma escrita mais antiga do mesmo cliente
+    public void customerUpdated(CustomerOutput customer) {
+        if (!enabled) {
+            return;
+        }
+        afterCommit(() -> views.computeIfPresent(customer.id(), (id, view) -> customer.version() > view.customer().version()
+                ? new View(normalize(customer), view.transactions(), view.history())
+                : view));
+    }
+
+    public void customerDeactivated(UUID id) {
+        if (!enabled) {
+            return;
+        }
+        afterCommit(() -> views.remove(id));
+    }
+
+    // Clientes fora do modelo são ignorados: continuam sendo lidos do banco até a próxima verificação
+    public void transactionsAdded(Collection<TransactionOutput> transactions) {
+        if (!enabled || transactions.isEmpty()) {
+            return;
+        }
+        afterCommit(() -> {
+            Map<UUID, List<TransactionOutput>> byCustomer = new HashMap<>();
+            transactions.forEach(transaction -> byCustomer.computeIfAbsent(transaction.customerId(), id -> new ArrayList<>())
+                    .add(normalize(transaction)));
+            byCustomer.forEach((customerId, added) -> views.computeIfPresent(customerId, (id, view) -> view.with(added)));
+        });
+    }
+
+    public void transactionDeactivated(TransactionOutput transaction) {
+        if (!enabled) {
+            return;
+        }
+        afterCommit(() -> views.computeIfPresent(transaction.customerId(), (id, view) -> view.without(transaction.id())));
+    }
+
+    Set<UUID> customerIds() {
+        return Set.copyOf(views.keySet());
+    }
+
+    // Reaplica as escritas guardadas até não sobrar nenhuma; a última verificação e o ready acontecem sob o mesmo lock
+    // em que apply() decide se guarda, então nenhuma escrita fica de fora
+    void markReady() {
+        while (true) {
+            List<Runnable> replay;
+            synchronized (pending) {
+                if (pending.isEmpty()) {
+                    recording = false;
+                    ready = true;
+                    return;
+                }
+                replay = new ArrayList<>(pending);
+                pending.clear();
+            }
+            replay.forEach(Runnable::run);
+        }
+    }
+
+    // Reconstrução falhou: o modelo não vai servir leituras, então para de acumular escritas
+    void rebuildFailed() {
+        synchronized (pending) {
+            recording = false;
+            pending.clear();
+        }
+    }
+
+    // Confronta a visão de um cliente com a lida do banco. Antes de ficar pronto, preenche os ausentes direto da leitura
+    // (markReady reaplica em seguida as escritas que chegaram durante ela); depois, relê o cliente e só troca se a visão não mudou nesse meio tempo (uma escrita concorrente prevalece)
+    boolean reconcile(UUID id, View expected, Supplier<View> reload) {
+        View current = views.get(id);
+        if (expected != null && expected.equals(current)) {
+            return false;
+        }
+        if (!ready && current == null) {
+            views.putIfAbsent(id, expected);
+            return false;
+        }
+
+        View fresh = reload.get();
+        if (current == null) {
+            if (fresh != null) {
+                views.putIfAbsent(id, fresh);
+            }
+        } else if (fresh == null) {
+            views.remove(id, current);
+        } else {
+            views.replace(id, current, fresh);
+        }
+        return !Objects.equals(current, fresh);
+    }
+
+    private void afterCommit(Runnable update) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(update);
+                }
+            });
+        } else {
+            apply(update);
+        }
+    }
+
+    // Guarda antes de aplicar: se markReady já esvaziou a fila, ready é true e a escrita vale direto
+    private void apply(Runnable update) {
+        if (!ready) {
+            synchronized (pending) {
+                if (recording) {
+                    pending.add(update);
+                }
+            }
+        }
+        update.run();
+    }
+
+    // Com jpa, os valores como o banco os devolve: TIMESTAMP(6) e DECIMAL(38, 2) arredondam na gravação
+    private CustomerOutput normalize(CustomerOutput customer) {
+        if (!"jpa".equals(storage)) {
+            return customer;
+        }
+        return new CustomerOutput(customer.id(), customer.fullName(), customer.email(), customer.phone(),
+                micros(customer.createdAt()), micros(customer.updatedAt()), customer.active(), customer.version());
+    }
+
+    private TransactionOutput normalize(TransactionOutput transaction) {
+        if (!"jpa".equals(storage)) {
+            return transaction;
+        }
+        return new TransactionOutput(transaction.id(), transaction.customerId(), transaction.amount().setScale(2, RoundingMode.HALF_UP),
+                transaction.cardType(), micros(transaction.createdAt()), transaction.active(), transaction.version());
+    }
+
+    private static LocalDateTime micros(LocalDateTime dateTime) {
+        return dateTime.plusNanos(500).truncatedTo(ChronoUnit.MICROS);
+    }
+}
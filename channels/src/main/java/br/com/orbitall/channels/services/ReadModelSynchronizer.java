@@ -0,0 +1,128 @@
+package br.com.orbitall.channels.services;
+
+import br.com.orbitall.channels.canonicals.CustomerOutput;
+import br.com.orbitall.channels.canonicals.TransactionOutput;
+import br.com.orbitall.channels.exceptions.ResourceNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// Reconstrução do modelo de leitura na subida e verificação periódica contra o banco (channels.read-model.check-cron).
+// A leitura do banco é feita página a página, mas a comparação mantém uma cópia completa do modelo durante a execução
+@Service
+public class ReadModelSynchronizer {
+
+    private static final Logger log = LoggerFactory.getLogger(ReadModelSynchronizer.class);
+
+    private static final LocalDateTime FIRST = LocalDateTime.of(1, 1, 1, 0, 0);
+    private static final LocalDateTime LAST = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    @Autowired
+    private ReadModel readModel;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    public record SyncReport(long customers, long transactions, long drifted) {
+    }
+
+    // O servidor já atende nesse ponto: até o modelo ficar pronto, as leituras seguem para o banco
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        if (!readModel.isEnabled()) {
+            return;
+        }
+
+        try {
+            SyncReport report = synchronize();
+            readModel.markReady();
+            log.info("Read model built: {} customers, {} transactions", report.customers(), report.transactions());
+        } catch (RuntimeException e) {
+            readModel.rebuildFailed();
+            log.error("Read model rebuild failed; reads keep going to the database", e);
+        }
+    }
+
+    @Scheduled(cron = "${channels.read-model.check-cron:-}")
+    public void scheduledCheck() {
+        if (readModel.isEnabled()) {
+            check();
+        }
+    }
+
+    // Compara o modelo com clientes e transações ativos do banco, corrige e registra em log as divergências
+    public SyncReport check() {
+        SyncReport report = synchronize();
+
+        if (report.drifted() > 0) {
+            log.warn("Read model checked: {} of {} customers had drifted", report.drifted(), report.customers());
+        } else {
+            log.info("Read model checked: {} customers, no drift", report.customers());
+        }
+
+        return report;
+    }
+
+    private SyncReport synchronize() {
+        Map<UUID, CustomerOutput> customers = new HashMap<>();
+        customerService.forEachActive(CustomerService.MAX_PAGE_SIZE, customer -> customers.put(customer.id(), customer));
+
+        // Todas as transações ativas em ordem de (createdAt, id): cada histórico já sai na ordem do modelo
+        Map<UUID, List<TransactionOutput>> histories = new HashMap<>();
+        long transactions = 0;
+        List<TransactionOutput> page = transactionService.findInRange(FIRST, LAST, null, null, null, TransactionService.MAX_PAGE_SIZE);
+        while (!page.isEmpty()) {
+            for (TransactionOutput transaction : page) {
+                if (customers.containsKey(transaction.customerId())) {
+                    histories.computeIfAbsent(transaction.customerId(), id -> new ArrayList<>()).add(transaction);
+                    transactions++;
+                }
+            }
+            TransactionOutput last = page.get(page.size() - 1);
+            page = page.size() < TransactionService.MAX_PAGE_SIZE ? List.of()
+                    : transactionService.findInRange(FIRST, LAST, null, last.createdAt(), last.id(), TransactionService.MAX_PAGE_SIZE);
+        }
+
+        long drifted = 0;
+        for (CustomerOutput customer : customers.values()) {
+            ReadModel.View expected = new ReadModel.View(customer, List.copyOf(histories.getOrDefault(customer.id(), List.of())));
+            if (readModel.reconcile(customer.id(), expected, () -> load(customer.id()))) {
+                drifted++;
+            }
+        }
+
+        // Clientes no modelo que a leitura não encontrou ativos (desativados ou criados depois dela)
+        for (UUID id : readModel.customerIds()) {
+            if (!customers.containsKey(id) && readModel.reconcile(id, null, () -> load(id))) {
+                drifted++;
+            }
+        }
+
+        return new SyncReport(customers.size(), transactions, drifted);
+    }
+
+    private ReadModel.View load(UUID id) {
+        try {
+            CustomerOutput customer = customerService.retrieve(id);
+            List<TransactionOutput> history = new ArrayList<>(transactionService.findByCustomer(id));
+            history.sort(ReadModel.HISTORY_ORDER);
+            return new ReadModel.View(customer, List.copyOf(history));
+        } catch (ResourceNotFoundException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package br.com.orbitall.channels.services;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Janela deslizante dividida em fatias de tempo, sem travas: cada posição do anel guarda (fatia, quantidade, valor em
+// centavos) imutável e é trocada por CAS, e os totais da janela ficam em contadores atômicos. A reserva soma nos totais
+// antes de conferir o limite e desfaz se passou, então nunca excede o limite; sob disputa exatamente na fronteira
+// (ou enquanto fatias vencidas ainda estão sendo descontadas) pode recusar de forma conservadora.
+// Uma instância por cliente: clientes diferentes não compartilham nenhum estado.
+final class SlidingWindowCounter {
+
+    private record Slot(long slice, long count, long amount) {
+    }
+
+    private static final Slot EMPTY = new Slot(Long.MIN_VALUE, 0, 0);
+
+    private final int slices;
+    private final AtomicReferenceArray<Slot> ring;
+
+    // Totais das fatias ainda não descontadas e última fatia até a qual as vencidas já foram descontadas
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong amount = new AtomicLong();
+    private final AtomicLong expiredThrough = new AtomicLong(Long.MIN_VALUE);
+
+    SlidingWindowCounter(int slices) {
+        this.slices = slices;
+        this.ring = new AtomicReferenceArray<>(slices);
+        for (int i = 0; i < slices; i++) {
+            ring.set(i, EMPTY);
+        }
+    }
+
+    // Reserva uma transação de `value` centavos na fatia `slice` (>= 0). Limites <= 0 não são verificados.
+    // Devolve a fatia em que a reserva foi feita (>= 0) ou, se algum limite for excedido, -N: em N fatias a fatia
+    // ocupada mais antiga sai da janela e libera espaço
+    long tryAcquire(long slice, long value, long maxCount, long maxAmount) {
+        expire(slice);
+
+        long previousCount = count.getAndIncrement();
+        if (maxCount > 0 && previousCount >= maxCount) {
+            count.decrementAndGet();
+            return -slicesUntilOldestExpires(slice);
+        }
+
+        long previousAmount = amount.getAndAdd(value);
+        if (maxAmount > 0 && previousAmount + value > maxAmount) {
+            amount.addAndGet(-value);
+            count.decrementAndGet();
+            return -slicesUntilOldestExpires(slice);
+        }
+
+        record(slice, value);
+        return slice;
+    }
+
+    // Desfaz uma reserva (ex.: transação revertida), se a fatia ainda não tiver sido descontada
+    void release(long slice, long value) {
+        int index = index(slice);
+        while (true) {
+            Slot slot = ring.get(index);
+            if (slot.slice() != slice || slot.count() == 0) {
+                return;
+            }
+            if (ring.compareAndSet(index, slot, new Slot(slice, slot.count() - 1, slot.amount() - value))) {
+                count.decrementAndGet();
+                amount.addAndGet(-value);
+                return;
+            }
+        }
+    }
+
+    long count() {
+        return count.get();
+    }
+
+    long amount() {
+        return amount.get();
+    }
+
+    private void record(long slice, long value) {
+        int index = index(slice);
+        while (true) {
+            Slot slot = ring.get(index);
+            if (slot.slice() > slice) {
+                // Thread atrasada por mais de uma janela: a posição já é de uma fatia mais nova, a reserva já venceu
+                count.decrementAndGet();
+                amount.addAndGet(-value);
+                return;
+            }
+
+            Slot updated = slot.slice() == slice
+                    ? new Slot(slice, slot.count() + 1, slot.amount() + value)
+                    : new Slot(slice, 1, value);
+            if (ring.compareAndSet(index, slot, updated)) {
+                if (slot.slice() != slice) {
+                    subtract(slot);
+                }
+                return;
+            }
+        }
+    }
+
+    // Desconta dos totais as fatias que saíram da janela; só a thread que avança o corte percorre o anel
+    private void expire(long slice) {
+        long cutoff = slice - slices;
+        long done = expiredThrough.get();
+        if (cutoff <= done || !expiredThrough.compareAndSet(done, cutoff)) {
+            return;
+        }
+
+        for (int index = 0; index < slices; index++) {
+            Slot slot = ring.get(index);
+            while (slot != EMPTY && slot.slice() <= cutoff) {
+                if (ring.compareAndSet(index, slot, EMPTY)) {
+                    subtract(slot);
+                    break;
+                }
+                slot = ring.get(index);
+            }
+        }
+    }
+
+    private void subtract(Slot slot) {
+        count.addAndGet(-slot.count());
+        amount.addAndGet(-slot.amount());
+    }
+
+    private long slicesUntilOldestExpires(long slice) {
+        long oldest = Long.MAX_VALUE;
+        for (int index = 0; index < slices; index++) {
+            Slot slot = ring.get(index);
+            if (slot.count() > 0 && slot.slice() > slice - slices) {
+                oldest = Math.min(oldest, slot.slice());
+            }
+        }
+        return oldest == Long.MAX_VALUE ? 1 : Math.max(oldest + slices - slice, 1);
+    }
+
+    private int index(long slice) {
+        return (int) (slice % slices);
+    }
+}
@@ -1,88 +1,428 @@
 package br.com.orbitall.channels.services;
 
+import br.com.orbitall.channels.canonicals.ChangeType;
+import br.com.orbitall.channels.canonicals.TransactionBatchItemOutput;
 import br.com.orbitall.channels.canonicals.TransactionInput;
+import br.com.orbitall.channels.canonicals.TransactionLookupItemOutput;
 import br.com.orbitall.channels.canonicals.TransactionOutput;
+import br.com.orbitall.channels.exceptions.ExportDeadlineExceededException;
+import br.com.orbitall.channels.exceptions.InvalidCursorException;
+import br.com.orbitall.channels.exceptions.PreconditionFailedException;
 import br.com.orbitall.channels.exceptions.ResourceNotFoundException;
-import br.com.orbitall.channels.models.Customer;
+import br.com.orbitall.channels.exceptions.VelocityLimitExceededException;
+import br.com.orbitall.channels.generators.IdGenerator;
+import br.com.orbitall.channels.instrumentation.HotPath;
+import br.com.orbitall.channels.models.EntityVersion;
 import br.com.orbitall.channels.models.Transaction;
+import br.com.orbitall.channels.models.TransactionHistoryVersion;
 import br.com.orbitall.channels.repositories.CustomerRepository;
 import br.com.orbitall.channels.repositories.TransactionRepository;
+import br.com.orbitall.channels.repositories.memory.InMemoryCustomerRepository;
+import br.com.orbitall.channels.sharding.ShardRouter;
+import br.com.orbitall.channels.sharding.ShardedBy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
+@HotPath
 public class TransactionService {
 
+    private static final Logger log = LoggerFactory.getLogger(TransactionService.class);
+
+    public static final int MAX_BATCH_SIZE = 10_000;
+
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    public static final int MAX_LOOKUP_SIZE = 1000;
+
+    private static final int LOOKUP_CHUNK = 500;
+
+    private static final int CUSTOMER_LOOKUP_CHUNK = 1000;
+
+    private static final Comparator<Transaction> RANGE_ORDER = Comparator.comparing(Transaction::getCreatedAt)
+            .thenComparing(Transaction::getId, InMemoryCustomerRepository.UUID_ORDER);
+
     @Autowired
     private TransactionRepository transactionRepository;
 
     @Autowired
     private CustomerRepository customerRepository;
 
+    @Autowired
+    private CustomerLookupService customerLookup;
+
+    @Autowired
+    private CustomerSummaryService summaryService;
+
+    @Autowired
+    private VelocityGuard velocityGuard;
+
+    @Autowired
+    private ShardRouter router;
+
+    @Autowired
+    private ReadModel readModel;
+
+    @Autowired
+    private OutboxService outbox;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private IdGenerator idGenerator;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Prazo máximo de uma exportação: um cliente lento não segura a conexão com o banco indefinidamente
+    @Value("${channels.export.max-duration:5m}")
+    private Duration exportMaxDuration;
+
+    @ShardedBy("#input.customerId()")
+    @Transactional
     public TransactionOutput create(TransactionInput input) {
         LocalDateTime now = LocalDateTime.now();
 
-        // Verifica se o cliente existe e está ativo
-        Customer customer = customerRepository.findById(input.customerId())
-                .filter(Customer::isActive)
-                .orElseThrow(() -> new ResourceNotFoundException("Customer not found (id: " + input.customerId() + ")"));
+        // Verifica se o cliente existe e está ativo (consulta em cache)
+        if (!customerLookup.isActive(input.customerId())) {
+            throw new ResourceNotFoundException("Customer not found (id: " + input.customerId() + ")");
+        }
 
-        Transaction transaction = new Transaction();
-        transaction.setId(UUID.randomUUID());
-        transaction.setCustomerId(customer.getId());
-        transaction.setAmount(input.amount());
-        transaction.setCardType(input.cardType());
-        transaction.setCreatedAt(now);
-        transaction.setActive(true);
+        // Limite de velocidade em memória; desfeito se o commit não acontecer
+        velocityGuard.acquire(input.customerId(), input.cardType(), input.amount());
+
+        Transaction transaction = newTransaction(input.customerId(), input, now);
 
         transactionRepository.save(transaction);
+        summaryService.add(transaction);
 
-        return toOutput(transaction);
+        TransactionOutput output = toOutput(transaction);
+        outbox.transactionChanged(ChangeType.TRANSACTION_CREATED, output);
+        readModel.transactionsAdded(List.of(output));
+        return output;
+    }
+
+    // Ingestão em lote: uma consulta para validar os clientes e um único commit com inserts em lote (JDBC batching).
+    // Com shards, os itens válidos são agrupados pelo shard do cliente e cada grupo tem o próprio commit: a falha de um
+    // shard marca com 500 apenas os itens dele e os já gravados em outros continuam 201. Se nenhum grupo gravar, a falha
+    // sobe para a requisição inteira (nada foi salvo e repetir é seguro)
+    public List<TransactionBatchItemOutput> createBatch(List<TransactionInput> inputs) {
+        LocalDateTime now = LocalDateTime.now();
+
+        TransactionBatchItemOutput[] results = new TransactionBatchItemOutput[inputs.size()];
+        List<Integer> valid = new ArrayList<>(inputs.size());
+
+        for (int i = 0; i < inputs.size(); i++) {
+            String error = validationError(inputs.get(i));
+            if (error != null) {
+                results[i] = new TransactionBatchItemOutput(i, 400, null, error);
+            } else {
+                valid.add(i);
+            }
+        }
+
+        Map<Integer, List<Integer>> groups = router.groupByShard(valid, i -> inputs.get(i).customerId());
+        List<RuntimeException> failures = new ArrayList<>();
+        groups.forEach((shard, indexes) -> {
+            try {
+                router.onShard(shard, () -> transactionTemplate.executeWithoutResult(status -> createGroup(inputs, indexes, now, results)));
+            } catch (RuntimeException e) {
+                log.error("Batch group of {} transactions on shard {} failed", indexes.size(), shard, e);
+                failures.add(e);
+                String error = "Persistence failed: " + e.getMessage();
+                indexes.forEach(i -> results[i] = new TransactionBatchItemOutput(i, 500, null, error));
+            }
+        });
+
+        if (!failures.isEmpty() && failures.size() == groups.size()) {
+            throw failures.get(0);
+        }
+        return Arrays.asList(results);
+    }
+
+    private void createGroup(List<TransactionInput> inputs, List<Integer> indexes, LocalDateTime now,
+                             TransactionBatchItemOutput[] results) {
+        Set<UUID> customerIds = new HashSet<>();
+        indexes.forEach(i -> customerIds.add(inputs.get(i).customerId()));
+        Set<UUID> activeCustomers = findActiveCustomers(customerIds);
+
+        List<Transaction> accepted = new ArrayList<>(indexes.size());
+        List<TransactionOutput> outputs = new ArrayList<>(indexes.size());
+
+        for (int i : indexes) {
+            TransactionInput input = inputs.get(i);
+
+            if (!activeCustomers.contains(input.customerId())) {
+                results[i] = new TransactionBatchItemOutput(i, 404, null, "Customer not found (id: " + input.customerId() + ")");
+                continue;
+            }
+
+            try {
+                velocityGuard.acquire(input.customerId(), input.cardType(), input.amount());
+            } catch (VelocityLimitExceededException e) {
+                results[i] = new TransactionBatchItemOutput(i, e.getRetryAfter() != null ? 429 : 422, null, e.getMessage());
+                continue;
+            }
+
+            Transaction transaction = newTransaction(input.customerId(), input, now);
+            accepted.add(transaction);
+            TransactionOutput output = toOutput(transaction);
+            outputs.add(output);
+            results[i] = new TransactionBatchItemOutput(i, 201, output, null);
+        }
+
+        transactionRepository.saveAll(accepted);
+        summaryService.addAll(accepted);
+        outbox.transactionsChanged(ChangeType.TRANSACTION_CREATED, outputs);
+        readModel.transactionsAdded(outputs);
+    }
+
+    // Write-behind: grava transações já aceitas (ids atribuídos na entrada) em um commit por shard e devolve as recusadas.
+    // A falha de um shard marca apenas as transações dele
+    public Map<UUID, String> persistAccepted(List<Transaction> transactions) {
+        Map<UUID, String> rejected = new HashMap<>();
+
+        router.groupByShard(transactions, Transaction::getCustomerId).forEach((shard, group) -> {
+            try {
+                router.onShard(shard, () -> transactionTemplate.executeWithoutResult(status -> persistGroup(group, rejected)));
+            } catch (RuntimeException e) {
+                log.error("Write-behind group of {} transactions failed", group.size(), e);
+                String error = "Persistence failed: " + e.getMessage();
+                group.forEach(transaction -> rejected.put(transaction.getId(), error));
+            }
+        });
+
+        return rejected;
     }
 
+    private void persistGroup(List<Transaction> transactions, Map<UUID, String> rejected) {
+        Set<UUID> customerIds = new HashSet<>();
+        transactions.forEach(transaction -> customerIds.add(transaction.getCustomerId()));
+        Set<UUID> activeCustomers = findActiveCustomers(customerIds);
+
+        List<Transaction> accepted = new ArrayList<>(transactions.size());
+
+        transactions.forEach(transaction -> {
+            if (activeCustomers.contains(transaction.getCustomerId())) {
+                accepted.add(transaction);
+            } else {
+                rejected.put(transaction.getId(), "Customer not found (id: " + transaction.getCustomerId() + ")");
+            }
+        });
+
+        transactionRepository.saveAll(accepted);
+        summaryService.addAll(accepted);
+        if (readModel.isEnabled() || outbox.isEnabled()) {
+            List<TransactionOutput> outputs = accepted.stream().map(this::toOutput).toList();
+            outbox.transactionsChanged(ChangeType.TRANSACTION_CREATED, outputs);
+            readModel.transactionsAdded(outputs);
+        }
+    }
+
+    // O id da transação não identifica o shard: com shards, procura em cada um
     public TransactionOutput retrieve(UUID id) {
-        Transaction transaction = transactionRepository.findById(id)
-                .filter(Transaction::isActive)
+        Transaction transaction = router.findFirst(() -> transactionRepository.findById(id).filter(Transaction::isActive))
                 .orElseThrow(() -> new ResourceNotFoundException("Transaction not found (id: " + id + ")"));
 
         return toOutput(transaction);
     }
 
+    public EntityVersion retrieveVersion(UUID id) {
+        return router.findFirst(() -> transactionRepository.findActiveVersion(id))
+                .orElseThrow(() -> new ResourceNotFoundException("Transaction not found (id: " + id + ")"));
+    }
+
+    @ShardedBy("#customerId")
+    public TransactionHistoryVersion findHistoryVersion(UUID customerId) {
+        return transactionRepository.findActiveHistoryVersion(customerId);
+    }
+
+    @ShardedBy("#customerId")
     public List<TransactionOutput> findByCustomer(UUID customerId) {
-        List<TransactionOutput> list = new ArrayList<>();
-        transactionRepository.findByCustomerId(customerId)
-                .forEach(transaction -> {
-                    if (transaction.isActive()) {
-                        list.add(toOutput(transaction));
-                    }
-                });
+        List<Transaction> transactions = transactionRepository.findActiveByCustomer(customerId);
+
+        List<TransactionOutput> list = new ArrayList<>(transactions.size());
+        transactions.forEach(transaction -> list.add(toOutput(transaction)));
         return list;
     }
 
+    // Consulta em lote: um IN por bloco de ids distintos; a resposta segue a ordem pedida, com 404 para ausentes ou inativas
+    public List<TransactionLookupItemOutput> lookup(List<UUID> ids) {
+        List<UUID> distinct = ids.stream().filter(Objects::nonNull).distinct().toList();
+        Map<UUID, TransactionOutput> found = new HashMap<>();
+
+        // Com shards, cada bloco é consultado em todos eles
+        for (int from = 0; from < distinct.size(); from += LOOKUP_CHUNK) {
+            List<UUID> chunk = distinct.subList(from, Math.min(from + LOOKUP_CHUNK, distinct.size()));
+            router.onEachShard(() -> transactionRepository.findActiveByIdIn(chunk))
+                    .forEach(page -> page.forEach(transaction -> found.put(transaction.getId(), toOutput(transaction))));
+        }
+
+        List<TransactionLookupItemOutput> items = new ArrayList<>(ids.size());
+        ids.forEach(id -> {
+            TransactionOutput transaction = found.get(id);
+            items.add(new TransactionLookupItemOutput(id, transaction != null ? 200 : 404, transaction));
+        });
+        return items;
+    }
+
+    // Conciliação: página de transações ativas em [from, to) ordenadas por (createdAt, id). A próxima página é pedida
+    // com o createdAt e o id da última transação recebida (afterCreatedAt/afterId)
+    public List<TransactionOutput> findInRange(LocalDateTime from, LocalDateTime to, String cardType,
+                                               LocalDateTime afterCreatedAt, UUID afterId, int limit) {
+        if ((afterCreatedAt == null) != (afterId == null)) {
+            throw new InvalidCursorException("afterCreatedAt and afterId must be informed together");
+        }
+
+        Limit pageLimit = Limit.of(Math.min(Math.max(limit, 1), MAX_PAGE_SIZE));
+
+        // Cursor anterior ao início do intervalo equivale à primeira página. Com shards, as páginas de cada um são
+        // intercaladas por (createdAt, id)
+        List<Transaction> page = ShardRouter.merge(router.onEachShard(() -> afterCreatedAt == null || afterCreatedAt.isBefore(from)
+                        ? transactionRepository.findActiveInRange(from, to, cardType, pageLimit)
+                        : transactionRepository.findActiveInRangeAfter(afterCreatedAt, afterId, to, cardType, pageLimit)),
+                RANGE_ORDER, pageLimit.max());
+
+        List<TransactionOutput> list = new ArrayList<>(page.size());
+        page.forEach(transaction -> list.add(toOutput(transaction)));
+        return list;
+    }
+
+    // Exporta o histórico em streaming: uma linha do cursor por vez, descartada do contexto de persistência após o uso
+    @ShardedBy("#customerId")
+    @Transactional(readOnly = true)
+    public void exportByCustomer(UUID customerId, LocalDateTime from, LocalDateTime to, Consumer<TransactionOutput> consumer) {
+        long deadline = System.nanoTime() + exportMaxDuration.toNanos();
+
+        try (Stream<Transaction> transactions = transactionRepository.streamActiveByCustomer(customerId, from, to)) {
+            transactions.forEach(transaction -> {
+                if (System.nanoTime() - deadline > 0) {
+                    throw new ExportDeadlineExceededException("Export exceeded " + exportMaxDuration
+                            + " (customerId: " + customerId + ")");
+                }
+
+                entityManager.detach(transaction);
+                consumer.accept(toOutput(transaction));
+            });
+        }
+    }
+
     public TransactionOutput delete(UUID id) {
-        Transaction fetched = transactionRepository.findById(id)
-                .filter(Transaction::isActive)
-                .orElseThrow(() -> new ResourceNotFoundException("Transaction not found (id: " + id + ")"));
+        return delete(id, null);
+    }
+
+    // Exclusão lógica em um único UPDATE condicional; a linha devolvida alimenta o ajuste dos agregados.
+    // Com shards, a transação do banco é aberta no shard em que a transação existe
+    public TransactionOutput delete(UUID id, Long expectedVersion) {
+        return router.onShard(shardOfTransaction(id), () -> transactionTemplate.execute(status -> deleteOnShard(id, expectedVersion)));
+    }
+
+    private int shardOfTransaction(UUID id) {
+        for (int shard = 0; router.isSharded() && shard < router.shards(); shard++) {
+            if (router.onShard(shard, () -> transactionRepository.existsById(id))) {
+                return shard;
+            }
+        }
+        return 0;
+    }
+
+    private TransactionOutput deleteOnShard(UUID id, Long expectedVersion) {
+        Transaction deleted = transactionRepository.deactivate(id, LocalDateTime.now(), expectedVersion)
+                .orElseThrow(() -> {
+                    if (expectedVersion != null && transactionRepository.findById(id).filter(Transaction::isActive).isPresent()) {
+                        return new PreconditionFailedException("Transaction was modified (id: " + id
+                                + ", expected version: " + expectedVersion + ")");
+                    }
+                    return new ResourceNotFoundException("Transaction not found (id: " + id + ")");
+                });
+
+        summaryService.subtract(deleted);
+
+        TransactionOutput output = toOutput(deleted);
+        outbox.transactionChanged(ChangeType.TRANSACTION_DEACTIVATED, output);
+        readModel.transactionDeactivated(output);
+        return output;
+    }
+
+    private Set<UUID> findActiveCustomers(Set<UUID> customerIds) {
+        Set<UUID> active = new HashSet<>();
+        List<UUID> ids = new ArrayList<>(customerIds);
 
-        fetched.setActive(false);
-        transactionRepository.save(fetched);
+        for (int from = 0; from < ids.size(); from += CUSTOMER_LOOKUP_CHUNK) {
+            List<UUID> chunk = ids.subList(from, Math.min(from + CUSTOMER_LOOKUP_CHUNK, ids.size()));
+            active.addAll(customerRepository.findActiveIdsByIdIn(chunk));
+        }
+
+        return active;
+    }
 
-        return toOutput(fetched);
+    private String validationError(TransactionInput input) {
+        if (input == null) {
+            return "Transaction cannot be null";
+        }
+
+        Set<ConstraintViolation<TransactionInput>> violations = validator.validate(input);
+        if (violations.isEmpty()) {
+            return null;
+        }
+
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .distinct()
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    Transaction newTransaction(UUID customerId, TransactionInput input, LocalDateTime now) {
+        Transaction transaction = new Transaction();
+        transaction.setId(idGenerator.next());
+        transaction.setCustomerId(customerId);
+        transaction.setAmount(input.amount());
+        transaction.setCardType(input.cardType());
+        transaction.setCreatedAt(now);
+        transaction.setActive(true);
+        return transaction;
     }
 
-    private TransactionOutput toOutput(Transaction transaction) {
+    TransactionOutput toOutput(Transaction transaction) {
         return new TransactionOutput(
                 transaction.getId(),
                 transaction.getCustomerId(),
                 transaction.getAmount(),
                 transaction.getCardType(),
                 transaction.getCreatedAt(),
-                transaction.isActive()
+                transaction.isActive(),
+                transaction.getVersion()
         );
     }
 }
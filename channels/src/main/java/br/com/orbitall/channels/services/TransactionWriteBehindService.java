@@ -0,0 +1,250 @@
+package br.com.orbitall.channels.services;
+
+import br.com.orbitall.channels.canonicals.TransactionInput;
+import br.com.orbitall.channels.canonicals.TransactionStatusOutput;
+import br.com.orbitall.channels.canonicals.TransactionWriteStatus;
+import br.com.orbitall.channels.exceptions.ResourceNotFoundException;
+import br.com.orbitall.channels.exceptions.WriteQueueFullException;
+import br.com.orbitall.channels.models.Transaction;
+import br.com.orbitall.channels.repositories.TransactionRepository;
+import br.com.orbitall.channels.sharding.ShardRouter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Modo aceitar-e-persistir: a transação validada entra numa fila limitada e recebe o id na hora;
+// um único escritor drena a fila e grava em grupos (por tamanho ou tempo), um commit por grupo
+@Service
+@ConditionalOnProperty(name = "channels.write-behind.enabled", havingValue = "true")
+public class TransactionWriteBehindService implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionWriteBehindService.class);
+
+    private static final long POLL_MILLIS = 100;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private CustomerLookupService customerLookup;
+
+    @Autowired
+    private VelocityGuard velocityGuard;
+
+    @Autowired
+    private ShardRouter router;
+
+    // A reserva do limite de velocidade viaja com a transação: é devolvida se ela não chegar a ser gravada
+    private record Queued(Transaction transaction, VelocityGuard.Reservation reservation) {
+    }
+
+    private final BlockingQueue<Queued> queue;
+    private final int batchSize;
+    private final long maxDelayNanos;
+    private final Duration shutdownTimeout;
+
+    // Aceitas e ainda não gravadas; saem daqui só depois do commit, então o status nunca "volta" para desconhecido
+    private final Set<UUID> pending = ConcurrentHashMap.newKeySet();
+    private final Cache<UUID, String> failures = Caffeine.newBuilder()
+            .maximumSize(100_000)
+            .expireAfterWrite(Duration.ofHours(1))
+            .build();
+
+    private final Counter rejected;
+    private final DistributionSummary groupSize;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public TransactionWriteBehindService(
+            MeterRegistry registry,
+            @Value("${channels.write-behind.queue-capacity:10000}") int queueCapacity,
+            @Value("${channels.write-behind.batch-size:500}") int batchSize,
+            @Value("${channels.write-behind.max-delay:10ms}") Duration maxDelay,
+            @Value("${channels.write-behind.shutdown-timeout:30s}") Duration shutdownTimeout) {
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.shutdownTimeout = shutdownTimeout;
+
+        registry.gauge("channels.write-behind.queue.size", queue, BlockingQueue::size);
+        this.rejected = registry.counter("channels.write-behind.rejected");
+        this.groupSize = DistributionSummary.builder("channels.write-behind.group.size").register(registry);
+    }
+
+    public TransactionStatusOutput accept(TransactionInput input) {
+        if (!running) {
+            throw new WriteQueueFullException("Write-behind queue is not accepting transactions");
+        }
+
+        if (!customerLookup.isActive(input.customerId())) {
+            throw new ResourceNotFoundException("Customer not found (id: " + input.customerId() + ")");
+        }
+
+        VelocityGuard.Reservation reservation = velocityGuard.acquire(input.customerId(), input.cardType(), input.amount());
+        Transaction transaction = transactionService.newTransaction(input.customerId(), input, LocalDateTime.now());
+
+        pending.add(transaction.getId());
+        if (!queue.offer(new Queued(transaction, reservation))) {
+            pending.remove(transaction.getId());
+            velocityGuard.release(reservation);
+            rejected.increment();
+            throw new WriteQueueFullException("Write-behind queue is full, retry later");
+        }
+
+        return new TransactionStatusOutput(transaction.getId(), TransactionWriteStatus.QUEUED, null);
+    }
+
+    public TransactionStatusOutput status(UUID id) {
+        if (pending.contains(id)) {
+            return new TransactionStatusOutput(id, TransactionWriteStatus.QUEUED, null);
+        }
+
+        String error = failures.getIfPresent(id);
+        if (error != null) {
+            return new TransactionStatusOutput(id, TransactionWriteStatus.FAILED, error);
+        }
+
+        if (router.onEachShard(() -> transactionRepository.existsById(id)).contains(true)) {
+            return new TransactionStatusOutput(id, TransactionWriteStatus.PERSISTED, null);
+        }
+
+        throw new ResourceNotFoundException("Transaction not found (id: " + id + ")");
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        writer = Thread.ofPlatform().name("write-behind").daemon().start(this::drain);
+    }
+
+    // Fase abaixo da parada do servidor web: quando chega aqui não há mais requisições entrando
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        try {
+            writer.join(shutdownTimeout.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (writer.isAlive()) {
+            log.warn("Write-behind writer did not finish within {}; {} transactions still queued",
+                    shutdownTimeout, queue.size());
+        } else if (!queue.isEmpty()) {
+            // Ofertas concorrentes com a parada: grava o que sobrou nesta thread
+            drainRemaining();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void drain() {
+        List<Queued> group = new ArrayList<>(batchSize);
+
+        while (running || !queue.isEmpty()) {
+            try {
+                Queued first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                group.add(first);
+                fill(group);
+                flush(group);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                group.clear();
+            }
+        }
+    }
+
+    // Completa o grupo até batch-size ou até max-delay após o primeiro item
+    private void fill(List<Queued> group) throws InterruptedException {
+        long deadline = System.nanoTime() + maxDelayNanos;
+
+        while (group.size() < batchSize) {
+            queue.drainTo(group, batchSize - group.size());
+            long remaining = deadline - System.nanoTime();
+            if (group.size() >= batchSize || remaining <= 0) {
+                return;
+            }
+
+            Queued next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            group.add(next);
+        }
+    }
+
+    private void drainRemaining() {
+        List<Queued> group = new ArrayList<>(batchSize);
+        while (queue.drainTo(group, batchSize) > 0) {
+            flush(group);
+            group.clear();
+        }
+    }
+
+    // A reserva foi feita fora de uma transação do banco, então nenhum rollback a desfaz: cada transação recusada
+    // ou perdida devolve a sua aqui
+    private void flush(List<Queued> group) {
+        groupSize.record(group.size());
+        List<Transaction> transactions = new ArrayList<>(group.size());
+        group.forEach(queued -> transactions.add(queued.transaction()));
+
+        Map<UUID, String> refused;
+        try {
+            refused = transactionService.persistAccepted(transactions);
+        } catch (RuntimeException e) {
+            log.error("Write-behind group of {} transactions failed", group.size(), e);
+            String error = "Persistence failed: " + e.getMessage();
+            refused = new HashMap<>();
+            for (Transaction transaction : transactions) {
+                refused.put(transaction.getId(), error);
+            }
+        }
+        failures.putAll(refused);
+
+        for (Queued queued : group) {
+            if (refused.containsKey(queued.transaction().getId())) {
+                velocityGuard.release(queued.reservation());
+            }
+            pending.remove(queued.transaction().getId());
+        }
+    }
+}
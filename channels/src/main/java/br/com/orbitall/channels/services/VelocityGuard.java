@@ -0,0 +1,126 @@
+package br.com.orbitall.channels.services;
+
+import br.com.orbitall.channels.exceptions.VelocityLimitExceededException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.util.UUID;
+
+// Limite de velocidade por cliente (e, opcionalmente, por bandeira): no máximo max-transactions transações e
+// max-amount em valor dentro da janela deslizante. O estado fica só em memória, uma janela por cliente,
+// sem consultar TRANSACTIONS; janelas sem uso expiram depois de um período de janela.
+@Service
+public class VelocityGuard {
+
+    static final String REJECTED_COUNTER = "channels.velocity.rejected";
+
+    @Value("${channels.velocity.enabled:false}")
+    private boolean enabled;
+
+    @Value("${channels.velocity.window:1m}")
+    private Duration window;
+
+    @Value("${channels.velocity.slices:60}")
+    private int slices;
+
+    @Value("${channels.velocity.max-transactions:0}")
+    private long maxTransactions;
+
+    @Value("${channels.velocity.max-amount:0}")
+    private BigDecimal maxAmount;
+
+    @Value("${channels.velocity.per-card-type:false}")
+    private boolean perCardType;
+
+    @Value("${channels.velocity.max-tracked-customers:1000000}")
+    private long maxTrackedCustomers;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    private final long origin = System.nanoTime();
+    private long sliceNanos;
+    private long maxAmountCents;
+    private Cache<Key, SlidingWindowCounter> windows;
+    private Counter rejectedByCount;
+    private Counter rejectedByAmount;
+
+    private record Key(UUID customerId, String cardType) {
+    }
+
+    // Reserva feita em uma janela; desfeita com release() se a transação não chegar a ser gravada
+    public record Reservation(SlidingWindowCounter counter, long slice, long cents) {
+    }
+
+    @PostConstruct
+    void init() {
+        sliceNanos = Math.max(window.toNanos() / slices, 1);
+        maxAmountCents = cents(maxAmount);
+        windows = Caffeine.newBuilder()
+                .expireAfterAccess(window)
+                .maximumSize(maxTrackedCustomers)
+                .build();
+        rejectedByCount = registry.counter(REJECTED_COUNTER, "limit", "transactions");
+        rejectedByAmount = registry.counter(REJECTED_COUNTER, "limit", "amount");
+    }
+
+    // Chamado antes de gravar a transação. Dentro de uma transação do banco, a reserva é desfeita em caso de rollback
+    public Reservation acquire(UUID customerId, String cardType, BigDecimal amount) {
+        if (!enabled) {
+            return null;
+        }
+
+        long value = cents(amount);
+        if (maxAmountCents > 0 && value > maxAmountCents) {
+            rejectedByAmount.increment();
+            throw new VelocityLimitExceededException("Transaction amount " + amount + " exceeds the limit of "
+                    + maxAmount + " per " + window, null);
+        }
+
+        SlidingWindowCounter counter = windows.get(new Key(customerId, perCardType ? cardType : null),
+                key -> new SlidingWindowCounter(slices));
+        long result = counter.tryAcquire((System.nanoTime() - origin) / sliceNanos, value, maxTransactions, maxAmountCents);
+
+        if (result < 0) {
+            boolean amountLimit = maxTransactions <= 0 || counter.count() < maxTransactions;
+            (amountLimit ? rejectedByAmount : rejectedByCount).increment();
+            throw new VelocityLimitExceededException("Customer " + customerId
+                    + (amountLimit ? " exceeded the amount limit of " + maxAmount : " exceeded the limit of " + maxTransactions + " transactions")
+                    + " per " + window, Duration.ofNanos(-result * sliceNanos));
+        }
+
+        Reservation reservation = new Reservation(counter, result, value);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        release(reservation);
+                    }
+                }
+            });
+        }
+        return reservation;
+    }
+
+    public void release(Reservation reservation) {
+        if (reservation != null) {
+            reservation.counter().release(reservation.slice(), reservation.cents());
+        }
+    }
+
+    private static long cents(BigDecimal amount) {
+        return amount.movePointRight(2).setScale(0, RoundingMode.CEILING).longValueExact();
+    }
+}
@@ -0,0 +1,137 @@
+package br.com.orbitall.channels.sharding;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// Particionamento por cliente (channels.sharding.urls): o cliente e todas as suas transações ficam no shard escolhido
+// pelo hash do customerId. O shard da thread corrente decide em qual banco a próxima transação do banco abre a conexão
+// (ShardRoutingDataSource), então precisa ser definido antes de ela começar. Sem shards configurados tudo roda no shard 0.
+@Component
+public class ShardRouter {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private final int shards;
+
+    public ShardRouter(@Value("${channels.sharding.urls:}") List<String> urls,
+                       @Value("${channels.storage:jpa}") String storage) {
+        // No armazenamento em memória não há bancos a particionar
+        this.shards = "memory".equals(storage) ? 1 : Math.max(urls.size(), 1);
+    }
+
+    public int shards() {
+        return shards;
+    }
+
+    public boolean isSharded() {
+        return shards > 1;
+    }
+
+    // Hash fixo dos bits do UUID: mudar a quantidade de shards exige redistribuir os dados
+    public int shardOf(UUID customerId) {
+        long bits = customerId.getMostSignificantBits() ^ customerId.getLeastSignificantBits();
+        return Math.floorMod((bits * 0x9E3779B97F4A7C15L) >>> 32, shards);
+    }
+
+    public <T> T onShard(int shard, Supplier<T> action) {
+        Integer previous = enter(shard);
+        try {
+            return action.get();
+        } finally {
+            exit(previous);
+        }
+    }
+
+    public void onShard(int shard, Runnable action) {
+        onShard(shard, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    public <T> T forCustomer(UUID customerId, Supplier<T> action) {
+        return onShard(shardOf(customerId), action);
+    }
+
+    // Executa a mesma ação em cada shard, em sequência; os resultados vêm na ordem dos shards
+    public <T> List<T> onEachShard(Supplier<T> action) {
+        List<T> results = new ArrayList<>(shards);
+        for (int shard = 0; shard < shards; shard++) {
+            results.add(onShard(shard, action));
+        }
+        return results;
+    }
+
+    // Busca por uma chave que não identifica o shard (ex.: id de transação): o primeiro shard que encontrar
+    public <T> Optional<T> findFirst(Supplier<Optional<T>> action) {
+        for (int shard = 0; shard < shards; shard++) {
+            Optional<T> found = onShard(shard, action);
+            if (found.isPresent()) {
+                return found;
+            }
+        }
+        return Optional.empty();
+    }
+
+    // Agrupa itens pelo shard do cliente, mantendo a ordem original dentro de cada grupo
+    public <T> Map<Integer, List<T>> groupByShard(Collection<T> items, Function<T, UUID> customerId) {
+        Map<Integer, List<T>> groups = new TreeMap<>();
+        items.forEach(item -> groups.computeIfAbsent(shardOf(customerId.apply(item)), shard -> new ArrayList<>()).add(item));
+        return groups;
+    }
+
+    // Intercala as páginas de cada shard (cada uma já ordenada) e mantém as `limit` primeiras
+    public static <T> List<T> merge(List<List<T>> pages, Comparator<? super T> order, int limit) {
+        if (pages.size() == 1) {
+            return pages.get(0);
+        }
+
+        List<T> merged = new ArrayList<>();
+        pages.forEach(merged::addAll);
+        merged.sort(order);
+        return merged.size() > limit ? new ArrayList<>(merged.subList(0, limit)) : merged;
+    }
+
+    static Integer current() {
+        return CURRENT.get();
+    }
+
+    // Trocar de shard com uma transação aberta faria a chamada reutilizar a conexão do shard anterior
+    Integer enter(int shard) {
+        Integer previous = CURRENT.get();
+        if (!isSharded()) {
+            return previous;
+        }
+
+        int active = previous == null ? 0 : previous;
+        if (active != shard && TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Cannot switch to shard " + shard + " inside a transaction on shard " + active);
+        }
+        CURRENT.set(shard);
+        return previous;
+    }
+
+    void exit(Integer previous) {
+        if (!isSharded()) {
+            return;
+        }
+
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package br.com.orbitall.channels.sharding;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.expression.MethodBasedEvaluationContext;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.Ordered;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.core.annotation.Order;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Maior precedência: o shard precisa estar definido antes dos interceptadores de transação e de cache
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ShardRoutingAspect {
+
+    @Autowired
+    private ShardRouter router;
+
+    private final SpelExpressionParser parser = new SpelExpressionParser();
+    private final ParameterNameDiscoverer parameterNames = new DefaultParameterNameDiscoverer();
+    private final Map<Method, Expression> expressions = new ConcurrentHashMap<>();
+
+    @Around("@annotation(br.com.orbitall.channels.sharding.ShardedBy)")
+    public Object route(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!router.isSharded()) {
+            return joinPoint.proceed();
+        }
+
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Expression expression = expressions.computeIfAbsent(method,
+                key -> parser.parseExpression(key.getAnnotation(ShardedBy.class).value()));
+        UUID customerId = expression.getValue(
+                new MethodBasedEvaluationContext(joinPoint.getTarget(), method, joinPoint.getArgs(), parameterNames), UUID.class);
+
+        // Sem cliente (entrada inválida): a validação do próprio método responde
+        if (customerId == null) {
+            return joinPoint.proceed();
+        }
+
+        Integer previous = router.enter(router.shardOf(customerId));
+        try {
+            return joinPoint.proceed();
+        } finally {
+            router.exit(previous);
+        }
+    }
+}
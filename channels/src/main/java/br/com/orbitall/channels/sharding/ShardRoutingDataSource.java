@@ -0,0 +1,21 @@
+package br.com.orbitall.channels.sharding;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+// Entrega conexões do shard da thread corrente; sem shard definido, do shard 0 (inicialização do Hibernate, consultas globais)
+class ShardRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardRouter.current();
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (Object dataSource : getResolvedDataSources().values()) {
+            if (dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package br.com.orbitall.channels.sharding;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Executa o método no shard do cliente indicado pela expressão SpEL (ex.: "#customerId", "#input.customerId()"),
+// antes de @Transactional abrir a transação
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ShardedBy {
+
+    String value();
+}
@@ -0,0 +1,69 @@
+package br.com.orbitall.channels.sharding;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// channels.sharding.urls com uma URL por shard: substitui o DataSource único por um pool Hikari por shard
+// (mesmas credenciais e spring.datasource.hikari.*) atrás de ShardRoutingDataSource
+@Configuration
+@ConditionalOnExpression("'${channels.storage:jpa}' == 'jpa' && '${channels.sharding.urls:}' != ''")
+public class ShardingConfiguration {
+
+    @Bean
+    public DataSource dataSource(DataSourceProperties properties, Environment environment,
+                                 @Value("${channels.sharding.urls}") List<String> urls) {
+        Map<Object, Object> shards = new HashMap<>();
+        for (int shard = 0; shard < urls.size(); shard++) {
+            HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                    .type(HikariDataSource.class)
+                    .url(urls.get(shard).trim())
+                    .build();
+            Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(dataSource));
+            dataSource.setPoolName("channels-shard-" + shard);
+            shards.put(shard, dataSource);
+        }
+
+        ShardRoutingDataSource routing = new ShardRoutingDataSource();
+        routing.setTargetDataSources(shards);
+        routing.setDefaultTargetDataSource(shards.get(0));
+        return routing;
+    }
+
+    // O Hibernate cria o esquema só no shard 0; os shards ainda sem tabelas recebem uma cópia (SCRIPT NODATA do H2)
+    // depois de todos os singletons e antes de agendamentos e do servidor web começarem
+    @Bean
+    public SmartInitializingSingleton shardSchemaReplicator(DataSource dataSource, EntityManagerFactory entityManagerFactory,
+                                                            ShardRouter router) {
+        return () -> {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            List<String> schema = router.onShard(0, () -> jdbcTemplate.queryForList("SCRIPT NODATA", String.class)).stream()
+                    .filter(statement -> !statement.startsWith("--"))
+                    .toList();
+
+            for (int shard = 1; shard < router.shards(); shard++) {
+                router.onShard(shard, () -> {
+                    Integer tables = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES "
+                            + "WHERE TABLE_SCHEMA = 'PUBLIC' AND TABLE_NAME = 'CUSTOMERS'", Integer.class);
+                    if (tables == null || tables == 0) {
+                        schema.forEach(jdbcTemplate::execute);
+                    }
+                });
+            }
+        };
+    }
+}
@@ -0,0 +1,150 @@
+package br.com.orbitall.channels.benchmarks;
+
+import br.com.orbitall.channels.canonicals.CustomerInput;
+import br.com.orbitall.channels.canonicals.TransactionInput;
+import br.com.orbitall.channels.services.CustomerService;
+import br.com.orbitall.channels.services.TransactionService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+// Executar com: mvn test -Pbenchmark -Dtest='*ThreadsLoadBenchmarkTest' [-Dbenchmark.clients=5000 -Dbenchmark.seconds=20]
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+abstract class AbstractRequestLoadBenchmarkTest {
+
+    private static final int CLIENTS = Integer.getInteger("benchmark.clients", 5_000);
+    private static final Duration DURATION = Duration.ofSeconds(Long.getLong("benchmark.seconds", 20));
+    private static final int CUSTOMERS = 200;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    protected abstract String mode();
+
+    @Test
+    @DisplayName("benchmark: requisições/s e p99 de POST /transactions e GET /transactions?customerId=")
+    void transactionEndpointsUnderLoad() throws Exception {
+        List<UUID> customers = seed();
+        String base = "http://localhost:" + port + "/transactions";
+
+        Result post = run(customers, customerId -> HttpRequest.newBuilder(URI.create(base))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"customerId\":\"" + customerId + "\",\"amount\":10.00,\"cardType\":\"VISA\"}"))
+                .build());
+
+        Result get = run(customers, customerId -> HttpRequest.newBuilder(URI.create(base + "?customerId=" + customerId))
+                .GET()
+                .build());
+
+        System.out.printf("%n[%s] %d clientes, %ds por cenário%n", mode(), CLIENTS, DURATION.toSeconds());
+        System.out.printf("%-32s %10s %10s %10s %8s%n", "endpoint", "req/s", "p50 (ms)", "p99 (ms)", "erros");
+        post.print("POST /transactions");
+        get.print("GET /transactions?customerId=");
+    }
+
+    private List<UUID> seed() {
+        List<UUID> customers = new ArrayList<>(CUSTOMERS);
+        for (int i = 0; i < CUSTOMERS; i++) {
+            UUID id = customerService.create(new CustomerInput("Cliente " + i, "cliente" + i + "@example.com", "+55 11 90000-0000")).id();
+            for (int t = 0; t < 20; t++) {
+                transactionService.create(new TransactionInput(id, new BigDecimal("10.00"), "VISA"));
+            }
+            customers.add(id);
+        }
+        return customers;
+    }
+
+    private Result run(List<UUID> customers, Function<UUID, HttpRequest> request) throws Exception {
+        AtomicLong errors = new AtomicLong();
+        long deadline = System.nanoTime() + DURATION.toNanos();
+
+        try (ExecutorService httpExecutor = Executors.newVirtualThreadPerTaskExecutor();
+             ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            HttpClient http = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(httpExecutor)
+                    .connectTimeout(Duration.ofSeconds(30))
+                    .build();
+
+            List<Future<long[]>> futures = new ArrayList<>(CLIENTS);
+            for (int c = 0; c < CLIENTS; c++) {
+                futures.add(clients.submit(() -> {
+                    long[] latencies = new long[256];
+                    int count = 0;
+                    while (System.nanoTime() < deadline) {
+                        UUID customerId = customers.get(ThreadLocalRandom.current().nextInt(customers.size()));
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = http.send(request.apply(customerId), HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() >= 400) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                        if (count == latencies.length) {
+                            latencies = Arrays.copyOf(latencies, count * 2);
+                        }
+                        latencies[count++] = System.nanoTime() - start;
+                    }
+                    return Arrays.copyOf(latencies, count);
+                }));
+            }
+
+            long[] all = new long[0];
+            for (Future<long[]> future : futures) {
+                long[] latencies = future.get();
+                int offset = all.length;
+                all = Arrays.copyOf(all, offset + latencies.length);
+                System.arraycopy(latencies, 0, all, offset, latencies.length);
+            }
+            Arrays.sort(all);
+            return new Result(all, errors.get());
+        }
+    }
+
+    private record Result(long[] sortedLatencies, long errors) {
+
+        void print(String endpoint) {
+            double requestsPerSecond = sortedLatencies.length / (double) DURATION.toSeconds();
+            System.out.printf("%-32s %10.0f %10.1f %10.1f %8d%n", endpoint, requestsPerSecond,
+                    percentile(0.50), percentile(0.99), errors);
+        }
+
+        double percentile(double p) {
+            if (sortedLatencies.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.min(sortedLatencies.length - 1, Math.ceil(p * sortedLatencies.length) - 1);
+            return sortedLatencies[Math.max(index, 0)] / 1e6;
+        }
+    }
+}
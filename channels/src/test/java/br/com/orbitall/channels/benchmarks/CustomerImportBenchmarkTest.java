@@ -0,0 +1,82 @@
+package br.com.orbitall.channels.benchmarks;
+
+import br.com.orbitall.channels.canonicals.CustomerImportOutput;
+import br.com.orbitall.channels.services.CustomerImportService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Executar com: mvn test -Pbenchmark -Dtest=CustomerImportBenchmarkTest [-Dbenchmark.rows=1000000]
+@Tag("benchmark")
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:customer-import-benchmark;DB_CLOSE_DELAY=-1")
+class CustomerImportBenchmarkTest {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 1_000_000);
+
+    @Autowired
+    private CustomerImportService service;
+
+    @Test
+    @DisplayName("benchmark: importação de clientes sintéticos em CSV (linhas/s e pico de heap)")
+    void importSyntheticCustomers() {
+        CustomerImportOutput report = service.importCustomers(new SyntheticCsv(ROWS), CustomerImportService.Format.CSV);
+
+        System.out.printf("%nImportação de %d clientes: %d ms, %.0f linhas/s, pico de heap %d MB%n",
+                report.rows(), report.elapsedMillis(), report.rowsPerSecond(), report.peakHeapBytes() / (1024 * 1024));
+
+        assertThat(report.rows()).isEqualTo(ROWS);
+        assertThat(report.imported()).isEqualTo(ROWS);
+    }
+
+    // Gera o CSV sob demanda, linha a linha, para que o teste também não mantenha o arquivo em memória
+    private static final class SyntheticCsv extends InputStream {
+
+        private final int rows;
+        private int next = -1;
+        private byte[] line = new byte[0];
+        private int position;
+
+        SyntheticCsv(int rows) {
+            this.rows = rows;
+        }
+
+        @Override
+        public int read() {
+            if (position == line.length && !advance()) {
+                return -1;
+            }
+            return line[position++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            if (position == line.length && !advance()) {
+                return -1;
+            }
+            int count = Math.min(length, line.length - position);
+            System.arraycopy(line, position, buffer, offset, count);
+            position += count;
+            return count;
+        }
+
+        private boolean advance() {
+            if (next >= rows) {
+                return false;
+            }
+            String text = next < 0
+                    ? "fullName,email,phone\n"
+                    : "Cliente " + next + ",cliente" + next + "@example.com,+55 11 9" + String.format("%08d", next) + "\n";
+            next++;
+            line = text.getBytes(StandardCharsets.UTF_8);
+            position = 0;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package br.com.orbitall.channels.benchmarks;
+
+import br.com.orbitall.channels.generators.IdGenerator;
+import br.com.orbitall.channels.generators.RandomUuidGenerator;
+import br.com.orbitall.channels.generators.TimeOrderedUuidGenerator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+
+// Executar com: mvn test -Pbenchmark -Dtest=IdGeneratorInsertBenchmarkTest [-Dbenchmark.rows=10000000]
+@Tag("benchmark")
+class IdGeneratorInsertBenchmarkTest {
+
+    private static final long ROWS = Long.getLong("benchmark.rows", 10_000_000L);
+    private static final int BATCH = 10_000;
+
+    @Test
+    @DisplayName("benchmark: vazão de INSERT e tamanho do índice com UUID v4 x v7")
+    void compareRandomAndTimeOrderedKeys() throws Exception {
+        Result v4 = insert("uuid-v4", new RandomUuidGenerator());
+        Result v7 = insert("uuid-v7", new TimeOrderedUuidGenerator());
+
+        System.out.printf("%n%-8s %12s %14s %16s%n", "ids", "rows", "rows/s", "table+PK (MB)");
+        for (Result result : new Result[]{v4, v7}) {
+            System.out.printf("%-8s %12d %14.0f %16.1f%n", result.name, ROWS, result.rowsPerSecond,
+                    result.diskBytes / (1024.0 * 1024.0));
+        }
+    }
+
+    private Result insert(String name, IdGenerator generator) throws Exception {
+        Path dir = Files.createDirectories(Path.of("target", "benchmarks", name));
+        String url = "jdbc:h2:file:" + dir.toAbsolutePath().resolve("ids") + ";CACHE_SIZE=65536";
+
+        try (Connection connection = DriverManager.getConnection(url, "sa", "")) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("DROP TABLE IF EXISTS ID_BENCH");
+                statement.execute("CREATE TABLE ID_BENCH (ID UUID PRIMARY KEY, CREATED_AT TIMESTAMP)");
+            }
+            connection.setAutoCommit(false);
+
+            Timestamp now = new Timestamp(System.currentTimeMillis());
+            long start = System.nanoTime();
+            try (PreparedStatement insert = connection.prepareStatement("INSERT INTO ID_BENCH VALUES (?, ?)")) {
+                for (long row = 1; row <= ROWS; row++) {
+                    insert.setObject(1, generator.next());
+                    insert.setTimestamp(2, now);
+                    insert.addBatch();
+                    if (row % BATCH == 0 || row == ROWS) {
+                        insert.executeBatch();
+                        connection.commit();
+                    }
+                }
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CHECKPOINT SYNC");
+                try (ResultSet rs = statement.executeQuery("SELECT DISK_SPACE_USED('ID_BENCH')")) {
+                    rs.next();
+                    return new Result(name, ROWS / seconds, rs.getLong(1));
+                }
+            }
+        }
+    }
+
+    private record Result(String name, double rowsPerSecond, long diskBytes) {
+    }
+}
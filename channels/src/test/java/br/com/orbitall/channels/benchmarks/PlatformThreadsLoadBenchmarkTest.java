@@ -0,0 +1,15 @@
+package br.com.orbitall.channels.benchmarks;
+
+import org.springframework.test.context.TestPropertySource;
+
+@TestPropertySource(properties = {
+        "spring.threads.virtual.enabled=false",
+        "spring.datasource.url=jdbc:h2:mem:load-platform;DB_CLOSE_DELAY=-1"
+})
+class PlatformThreadsLoadBenchmarkTest extends AbstractRequestLoadBenchmarkTest {
+
+    @Override
+    protected String mode() {
+        return "platform threads";
+    }
+}
@@ -0,0 +1,15 @@
+package br.com.orbitall.channels.benchmarks;
+
+import org.springframework.test.context.TestPropertySource;
+
+@TestPropertySource(properties = {
+        "spring.threads.virtual.enabled=true",
+        "spring.datasource.url=jdbc:h2:mem:load-virtual;DB_CLOSE_DELAY=-1"
+})
+class VirtualThreadsLoadBenchmarkTest extends AbstractRequestLoadBenchmarkTest {
+
+    @Override
+    protected String mode() {
+        return "virtual threads";
+    }
+}
@@ -0,0 +1,131 @@
+package br.com.orbitall.channels.controllers;
+
+import br.com.orbitall.channels.canonicals.CustomerInput;
+import br.com.orbitall.channels.canonicals.TransactionInput;
+import br.com.orbitall.channels.canonicals.TransactionOutput;
+import br.com.orbitall.channels.models.Customer;
+import br.com.orbitall.channels.models.Transaction;
+import br.com.orbitall.channels.services.CustomerService;
+import br.com.orbitall.channels.services.TransactionService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:conditional-get;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureMockMvc
+class ConditionalGetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private UUID newCustomer() {
+        return customerService.create(new CustomerInput("Maria Silva", "maria@example.com", "+55 11 90000-0000")).id();
+    }
+
+    private String etag(String uri) throws Exception {
+        return mockMvc.perform(get(uri)).andExpect(status().isOk()).andReturn().getResponse().getHeader("ETag");
+    }
+
+    @Test
+    @DisplayName("GET /customers/{id} revalidado deve executar só a consulta da versão, sem carregar o cliente")
+    void customer_shouldRevalidateWithoutLoadingEntity() throws Exception {
+        UUID id = newCustomer();
+        String etag = etag("/customers/" + id);
+
+        statistics.clear();
+        mockMvc.perform(get("/customers/" + id).header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityStatistics(Customer.class.getName()).getLoadCount()).isZero();
+
+        customerService.update(id, new CustomerInput("Maria Souza", "maria@example.com", "+55 11 90000-0001"));
+        mockMvc.perform(get("/customers/" + id).header("If-None-Match", etag))
+                .andExpect(status().isOk());
+
+        customerService.delete(id);
+        mockMvc.perform(get("/customers/" + id).header("If-None-Match", etag))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("ETag do histórico deve mudar quando uma transação entra ou sai, e o 304 não deve carregar transações")
+    void history_shouldChangeETagOnInsertAndDelete() throws Exception {
+        UUID customerId = newCustomer();
+        String uri = "/transactions?customerId=" + customerId;
+        transactionService.create(new TransactionInput(customerId, BigDecimal.TEN, "VISA"));
+        String etag = etag(uri);
+
+        statistics.clear();
+        mockMvc.perform(get(uri).header("If-None-Match", etag)).andExpect(status().isNotModified());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityStatistics(Transaction.class.getName()).getLoadCount()).isZero();
+
+        TransactionOutput added = transactionService.create(new TransactionInput(customerId, BigDecimal.ONE, "VISA"));
+        mockMvc.perform(get(uri).header("If-None-Match", etag)).andExpect(status().isOk());
+        String afterInsert = etag(uri);
+
+        transactionService.delete(added.id());
+        mockMvc.perform(get(uri).header("If-None-Match", afterInsert)).andExpect(status().isOk());
+        assertThat(etag(uri)).isEqualTo(etag);
+
+        mockMvc.perform(get("/transactions/" + added.id()).header("If-None-Match", "\"0\""))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("ETag do histórico deve mudar quando uma transação sai e outra entra mantendo quantidade e a mais recente")
+    void history_shouldChangeETagWhenTransactionIsReplaced() throws Exception {
+        UUID customerId = newCustomer();
+        String uri = "/transactions?customerId=" + customerId;
+        TransactionOutput first = transactionService.create(new TransactionInput(customerId, BigDecimal.TEN, "VISA"));
+        TransactionOutput last = transactionService.create(new TransactionInput(customerId, BigDecimal.ONE, "VISA"));
+        String etag = etag(uri);
+
+        // Mesma quantidade e mesmo createdAt mais recente, com outra transação no lugar da primeira
+        transactionService.delete(first.id());
+        TransactionOutput replacement = transactionService.create(new TransactionInput(customerId, BigDecimal.TWO, "VISA"));
+        jdbcTemplate.update("UPDATE TRANSACTIONS SET created_at = ? WHERE id = ?", last.createdAt(), replacement.id());
+
+        mockMvc.perform(get(uri).header("If-None-Match", etag)).andExpect(status().isOk());
+        String current = etag(uri);
+        assertThat(current).isNotEqualTo(etag);
+        mockMvc.perform(get(uri).header("If-None-Match", current)).andExpect(status().isNotModified());
+    }
+}
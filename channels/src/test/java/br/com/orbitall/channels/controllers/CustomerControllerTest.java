@@ -0,0 +1,208 @@
+package br.com.orbitall.channels.controllers;
+
+import br.com.orbitall.channels.canonicals.CustomerImportOutput;
+import br.com.orbitall.channels.canonicals.CustomerInput;
+import br.com.orbitall.channels.canonicals.CustomerLookupItemOutput;
+import br.com.orbitall.channels.canonicals.CustomerOutput;
+import br.com.orbitall.channels.exceptions.PreconditionFailedException;
+import br.com.orbitall.channels.models.EntityVersion;
+import br.com.orbitall.channels.services.CustomerImportService;
+import br.com.orbitall.channels.services.CustomerService;
+import br.com.orbitall.channels.services.CustomerSummaryService;
+import br.com.orbitall.channels.services.ReadModel;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(CustomerController.class)
+class CustomerControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private CustomerService service;
+
+    @MockitoBean
+    private CustomerSummaryService summaryService;
+
+    @MockitoBean
+    private CustomerImportService importService;
+
+    @MockitoBean
+    private ReadModel readModel;
+
+    private CustomerOutput output(UUID id) {
+        LocalDateTime now = LocalDateTime.now();
+        return new CustomerOutput(id, "Maria Silva", "maria@example.com", "+55 11 90000-0000", now, now, true, 0);
+    }
+
+    @Test
+    @DisplayName("GET /customers deve repassar cursor e limite para o serviço")
+    void findAll_shouldPassCursorAndLimit() throws Exception {
+        UUID after = UUID.randomUUID();
+        UUID id = UUID.randomUUID();
+        when(service.findAll(after, 10)).thenReturn(List.of(output(id)));
+
+        mockMvc.perform(get("/customers").param("after", after.toString()).param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(id.toString()));
+    }
+
+    @Test
+    @DisplayName("GET /customers com Accept NDJSON deve transmitir um cliente por linha")
+    @SuppressWarnings("unchecked")
+    void streamAll_shouldWriteOneCustomerPerLine() throws Exception {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        doAnswer(invocation -> {
+            Consumer<CustomerOutput> consumer = invocation.getArgument(1);
+            consumer.accept(output(first));
+            consumer.accept(output(second));
+            return null;
+        }).when(service).forEachActive(eq(500), any(Consumer.class));
+
+        MvcResult result = mockMvc.perform(get("/customers").accept("application/x-ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(content().string(org.hamcrest.Matchers.matchesPattern(
+                        "\\{\"id\":\"" + first + "\".*}\\n\\{\"id\":\"" + second + "\".*}\\n")));
+    }
+
+    @Test
+    @DisplayName("POST /customers/import com text/csv deve importar no formato CSV e devolver o relatório")
+    void importCsv_shouldDelegateWithCsvFormat() throws Exception {
+        when(importService.importCustomers(any(InputStream.class), eq(CustomerImportService.Format.CSV)))
+                .thenReturn(new CustomerImportOutput(2, 2, 0, 5, 400.0, 1024, false, List.of()));
+
+        mockMvc.perform(post("/customers/import")
+                        .contentType("text/csv")
+                        .content("fullName,email,phone\nMaria,maria@example.com,1\nJoão,joao@example.com,2\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.rejected").value(0));
+    }
+
+    @Test
+    @DisplayName("PUT /customers/{id} deve repassar a versão do If-Match e devolver a nova versão no ETag")
+    void update_shouldUseIfMatchAndReturnETag() throws Exception {
+        UUID id = UUID.randomUUID();
+        LocalDateTime now = LocalDateTime.now();
+        CustomerInput input = new CustomerInput("Maria Souza", "maria@example.com", "+55 11 90000-0000");
+        when(service.update(id, input, 2L))
+                .thenReturn(new CustomerOutput(id, "Maria Souza", "maria@example.com", "+55 11 90000-0000", now, now, true, 3));
+
+        mockMvc.perform(put("/customers/" + id)
+                        .header("If-Match", "\"2\"")
+                        .contentType("application/json")
+                        .content("{\"fullName\":\"Maria Souza\",\"email\":\"maria@example.com\",\"phone\":\"+55 11 90000-0000\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3\""))
+                .andExpect(jsonPath("$.fullName").value("Maria Souza"))
+                .andExpect(jsonPath("$.version").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("GET /customers/{id} com If-None-Match atual deve responder 304 só com a consulta da versão")
+    void retrieve_shouldReturnNotModifiedFromVersionOnly() throws Exception {
+        UUID id = UUID.randomUUID();
+        LocalDateTime updatedAt = LocalDateTime.of(2025, 9, 20, 13, 0);
+        when(service.retrieveVersion(id)).thenReturn(new EntityVersion(3, updatedAt));
+
+        mockMvc.perform(get("/customers/" + id).header("If-None-Match", "\"3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"3\""))
+                .andExpect(header().exists("Last-Modified"))
+                .andExpect(content().string(""));
+
+        verify(service, never()).retrieve(any());
+    }
+
+    @Test
+    @DisplayName("GET /customers/{id} com If-None-Match antigo deve devolver o cliente com ETag e Last-Modified")
+    void retrieve_shouldReturnBodyWhenETagIsStale() throws Exception {
+        UUID id = UUID.randomUUID();
+        LocalDateTime updatedAt = LocalDateTime.of(2025, 9, 20, 13, 0);
+        when(service.retrieveVersion(id)).thenReturn(new EntityVersion(4, updatedAt));
+        when(service.retrieve(id)).thenReturn(
+                new CustomerOutput(id, "Maria Souza", "maria@example.com", "+55 11 90000-0000", updatedAt, updatedAt, true, 4));
+
+        mockMvc.perform(get("/customers/" + id).header("If-None-Match", "\"3\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"4\""))
+                .andExpect(header().string("Last-Modified", "Sat, 20 Sep 2025 13:00:00 GMT"))
+                .andExpect(jsonPath("$.fullName").value("Maria Souza"));
+    }
+
+    @Test
+    @DisplayName("DELETE /customers/{id} deve responder 412 quando a versão não confere ou o If-Match é inválido")
+    void delete_shouldReturnPreconditionFailed() throws Exception {
+        UUID id = UUID.randomUUID();
+        when(service.delete(id, 1L)).thenThrow(new PreconditionFailedException("Customer was modified"));
+
+        mockMvc.perform(delete("/customers/" + id).header("If-Match", "\"1\""))
+                .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(delete("/customers/" + id).header("If-Match", "W/\"1\""))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    @DisplayName("POST /customers/lookup deve devolver um item por id, na ordem pedida")
+    void lookup_shouldReturnOneItemPerId() throws Exception {
+        UUID found = UUID.randomUUID();
+        UUID missing = UUID.randomUUID();
+        CustomerOutput customer = new CustomerOutput(found, "Maria Silva", "maria@example.com", "+55 11 90000-0000",
+                LocalDateTime.now(), LocalDateTime.now(), true, 0);
+        when(service.lookup(List.of(missing, found))).thenReturn(List.of(
+                new CustomerLookupItemOutput(missing, 404, null),
+                new CustomerLookupItemOutput(found, 200, customer)));
+
+        mockMvc.perform(post("/customers/lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[\"" + missing + "\",\"" + found + "\"]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(missing.toString()))
+                .andExpect(jsonPath("$[0].status").value(404))
+                .andExpect(jsonPath("$[1].customer.fullName").value("Maria Silva"));
+    }
+
+    @Test
+    @DisplayName("POST /customers/lookup deve rejeitar listas acima do limite")
+    void lookup_shouldRejectOversizedList() throws Exception {
+        String body = "[" + String.join(",", Collections.nCopies(CustomerService.MAX_LOOKUP_SIZE + 1,
+                "\"" + UUID.randomUUID() + "\"")) + "]";
+
+        mockMvc.perform(post("/customers/lookup").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,262 @@
+package br.com.orbitall.channels.controllers;
+
+import br.com.orbitall.channels.canonicals.TransactionBatchItemOutput;
+import br.com.orbitall.channels.canonicals.TransactionInput;
+import br.com.orbitall.channels.canonicals.TransactionOutput;
+import br.com.orbitall.channels.exceptions.IdempotencyKeyReuseException;
+import br.com.orbitall.channels.exceptions.InvalidCursorException;
+import br.com.orbitall.channels.exceptions.VelocityLimitExceededException;
+import br.com.orbitall.channels.models.TransactionHistoryVersion;
+import br.com.orbitall.channels.services.IdempotencyService;
+import br.com.orbitall.channels.services.ReadModel;
+import br.com.orbitall.channels.services.TransactionService;
+import org.hibernate.exception.JDBCConnectionException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(TransactionController.class)
+class TransactionControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private TransactionService service;
+
+    @MockitoBean
+    private IdempotencyService idempotencyService;
+
+    @MockitoBean
+    private ReadModel readModel;
+
+    @Test
+    @DisplayName("POST /transactions/batch deve retornar um resultado por item")
+    void createBatch_shouldReturnResultPerItem() throws Exception {
+        UUID customerId = UUID.randomUUID();
+        when(service.createBatch(anyList())).thenReturn(List.of(
+                new TransactionBatchItemOutput(0, 404, null, "Customer not found (id: " + customerId + ")")));
+
+        mockMvc.perform(post("/transactions/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"customerId\":\"" + customerId + "\",\"amount\":10.00,\"cardType\":\"VISA\"}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].index").value(0))
+                .andExpect(jsonPath("$[0].status").value(404));
+    }
+
+    @Test
+    @DisplayName("GET /transactions?customerId= deve devolver ETag do histórico e 304 quando ele não mudou")
+    void findByCustomer_shouldRevalidateWithHistoryETag() throws Exception {
+        UUID customerId = UUID.randomUUID();
+        LocalDateTime createdAt = LocalDateTime.of(2025, 9, 20, 13, 0);
+        TransactionOutput transaction = new TransactionOutput(UUID.randomUUID(), customerId, BigDecimal.TEN, "VISA",
+                createdAt, true, 0);
+        when(service.findByCustomer(customerId)).thenReturn(List.of(transaction));
+        when(service.findHistoryVersion(customerId))
+                .thenReturn(new TransactionHistoryVersion(1, TransactionHistoryVersion.fingerprint(transaction.id())));
+
+        String etag = mockMvc.perform(get("/transactions").param("customerId", customerId.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(transaction.id().toString()))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/transactions").param("customerId", customerId.toString()).header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(service, times(1)).findByCustomer(customerId);
+    }
+
+    @Test
+    @DisplayName("GET /transactions sem customerId deve consultar o intervalo from/to com o cursor informado")
+    void findInRange_shouldPassRangeAndCursor() throws Exception {
+        UUID afterId = UUID.randomUUID();
+        TransactionOutput transaction = new TransactionOutput(UUID.randomUUID(), UUID.randomUUID(), BigDecimal.TEN, "VISA",
+                LocalDateTime.of(2025, 9, 20, 13, 0), true, 0);
+        when(service.findInRange(LocalDateTime.of(2025, 9, 1, 0, 0), LocalDateTime.of(2025, 10, 1, 0, 0), "VISA",
+                LocalDateTime.of(2025, 9, 20, 12, 0), afterId, 50)).thenReturn(List.of(transaction));
+
+        mockMvc.perform(get("/transactions")
+                        .param("from", "2025-09-01T00:00:00")
+                        .param("to", "2025-10-01T00:00:00")
+                        .param("cardType", "VISA")
+                        .param("afterCreatedAt", "2025-09-20T12:00:00")
+                        .param("afterId", afterId.toString())
+                        .param("limit", "50"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(transaction.id().toString()));
+    }
+
+    @Test
+    @DisplayName("GET /transactions com cursor incompleto deve retornar 400")
+    void findInRange_shouldRejectIncompleteCursor() throws Exception {
+        when(service.findInRange(any(), any(), isNull(), any(), isNull(), anyInt()))
+                .thenThrow(new InvalidCursorException("afterCreatedAt and afterId must be informed together"));
+
+        mockMvc.perform(get("/transactions")
+                        .param("from", "2025-09-01T00:00:00")
+                        .param("to", "2025-10-01T00:00:00")
+                        .param("afterCreatedAt", "2025-09-20T12:00:00"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("POST /transactions/batch deve rejeitar lotes acima do limite")
+    void createBatch_shouldRejectOversizedBatch() throws Exception {
+        String item = "{\"customerId\":\"" + UUID.randomUUID() + "\",\"amount\":10.00,\"cardType\":\"VISA\"}";
+        String body = "[" + String.join(",", Collections.nCopies(TransactionService.MAX_BATCH_SIZE + 1, item)) + "]";
+
+        mockMvc.perform(post("/transactions/batch").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isBadRequest());
+
+        verify(service, never()).createBatch(anyList());
+    }
+
+    @Test
+    @DisplayName("POST /transactions deve retornar 503 com Retry-After quando o pool de conexões se esgota")
+    void create_shouldReturnServiceUnavailableWhenPoolExhausted() throws Exception {
+        when(service.create(any(TransactionInput.class)))
+                .thenThrow(new CannotCreateTransactionException("Could not open JPA EntityManager for transaction",
+                        new JDBCConnectionException("Unable to acquire JDBC Connection",
+                                new SQLTransientConnectionException("HikariPool-1 - Connection is not available, request timed out after 2000ms"))));
+
+        mockMvc.perform(post("/transactions")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"customerId\":\"" + UUID.randomUUID() + "\",\"amount\":10.00,\"cardType\":\"VISA\"}"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+    }
+
+    @Test
+    @DisplayName("POST /transactions não deve responder 503 quando a falha de conexão não for o pool esgotado")
+    void create_shouldNotReturnServiceUnavailableForOtherConnectionFailures() {
+        CannotCreateTransactionException failure = new CannotCreateTransactionException("Could not open JPA EntityManager for transaction",
+                new JDBCConnectionException("Unable to acquire JDBC Connection", new SQLException("Wrong user name or password")));
+        when(service.create(any(TransactionInput.class))).thenThrow(failure);
+
+        // Sem tratamento: a exceção chega ao contêiner, que responde 500
+        assertThatThrownBy(() -> mockMvc.perform(post("/transactions")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"customerId\":\"" + UUID.randomUUID() + "\",\"amount\":10.00,\"cardType\":\"VISA\"}")))
+                .hasCause(failure);
+    }
+
+    @Test
+    @DisplayName("POST /transactions acima do limite de velocidade deve retornar 429 com Retry-After, ou 422 sem espera possível")
+    void create_shouldReturnTooManyRequestsWhenVelocityLimitIsExceeded() throws Exception {
+        String body = "{\"customerId\":\"" + UUID.randomUUID() + "\",\"amount\":10.00,\"cardType\":\"VISA\"}";
+        when(service.create(any())).thenThrow(new VelocityLimitExceededException("Customer exceeded the limit", Duration.ofMillis(1500)));
+
+        mockMvc.perform(post("/transactions").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "2"));
+
+        doThrow(new VelocityLimitExceededException("Amount exceeds the limit", null)).when(service).create(any());
+
+        mockMvc.perform(post("/transactions").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    @DisplayName("POST /transactions com Idempotency-Key deve delegar ao IdempotencyService")
+    void create_shouldUseIdempotencyServiceWhenKeyIsPresent() throws Exception {
+        when(idempotencyService.create(eq("pedido-123"), any(TransactionInput.class)))
+                .thenThrow(new IdempotencyKeyReuseException("Idempotency-Key already used with a different request (key: pedido-123)"));
+
+        mockMvc.perform(post("/transactions")
+                        .header("Idempotency-Key", "pedido-123")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"customerId\":\"" + UUID.randomUUID() + "\",\"amount\":10.00,\"cardType\":\"VISA\"}"))
+                .andExpect(status().isUnprocessableEntity());
+
+        verify(service, never()).create(any(TransactionInput.class));
+    }
+
+    @Test
+    @DisplayName("GET /transactions/export com Accept text/csv deve transmitir cabeçalho e uma linha por transação")
+    @SuppressWarnings("unchecked")
+    void exportCsv_shouldWriteHeaderAndOneLinePerTransaction() throws Exception {
+        UUID customerId = UUID.randomUUID();
+        UUID id = UUID.randomUUID();
+        LocalDateTime createdAt = LocalDateTime.of(2025, 9, 20, 13, 0);
+        doAnswer(invocation -> {
+            Consumer<TransactionOutput> consumer = invocation.getArgument(3);
+            consumer.accept(new TransactionOutput(id, customerId, new BigDecimal("150.75"), "VISA", createdAt, true, 0));
+            return null;
+        }).when(service).exportByCustomer(eq(customerId), eq(LocalDateTime.of(2025, 9, 1, 0, 0)),
+                eq(LocalDateTime.of(9999, 12, 31, 23, 59, 59)), any(Consumer.class));
+
+        MvcResult result = mockMvc.perform(get("/transactions/export")
+                        .param("customerId", customerId.toString())
+                        .param("from", "2025-09-01T00:00:00")
+                        .accept("text/csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andExpect(content().string("id,customerId,amount,cardType,createdAt,active\n"
+                        + id + "," + customerId + ",150.75,VISA,2025-09-20T13:00,true\n"));
+    }
+
+    @Test
+    @DisplayName("GET /transactions/export sem Accept específico deve transmitir NDJSON")
+    @SuppressWarnings("unchecked")
+    void export_shouldDefaultToNdjson() throws Exception {
+        UUID customerId = UUID.randomUUID();
+        doAnswer(invocation -> {
+            Consumer<TransactionOutput> consumer = invocation.getArgument(3);
+            consumer.accept(new TransactionOutput(UUID.randomUUID(), customerId, new BigDecimal("1.00"), "VISA",
+                    LocalDateTime.of(2025, 9, 20, 13, 0), true, 0));
+            return null;
+        }).when(service).exportByCustomer(eq(customerId), any(LocalDateTime.class), any(LocalDateTime.class), any(Consumer.class));
+
+        MvcResult result = mockMvc.perform(get("/transactions/export").param("customerId", customerId.toString()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(content().string(org.hamcrest.Matchers.matchesPattern("\\{\"id\":.*\"customerId\":\"" + customerId + "\".*}\\n")));
+    }
+}
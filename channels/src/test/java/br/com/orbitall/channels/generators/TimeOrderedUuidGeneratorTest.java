@@ -0,0 +1,84 @@
+package br.com.orbitall.channels.generators;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimeOrderedUuidGeneratorTest {
+
+    @Test
+    @DisplayName("next() deve gerar UUID versão 7, variante RFC, com o timestamp atual")
+    void next_shouldGenerateVersion7WithTimestamp() {
+        long now = 1_760_000_000_000L;
+        UUID id = new TimeOrderedUuidGenerator(() -> now).next();
+
+        assertThat(id.version()).isEqualTo(7);
+        assertThat(id.variant()).isEqualTo(2);
+        assertThat(id.getMostSignificantBits() >>> 16).isEqualTo(now);
+    }
+
+    @Test
+    @DisplayName("next() deve ser estritamente crescente no mesmo milissegundo e com relógio voltando")
+    void next_shouldBeMonotonic() {
+        long[] clock = {1_760_000_000_000L};
+        TimeOrderedUuidGenerator generator = new TimeOrderedUuidGenerator(() -> clock[0]);
+
+        UUID previous = generator.next();
+        for (int i = 0; i < 10_000; i++) {
+            if (i == 5_000) {
+                clock[0] -= 1_000;
+            }
+            UUID current = generator.next();
+            assertThat(current).isGreaterThan(previous);
+            previous = current;
+        }
+    }
+
+    @Test
+    @DisplayName("next() deve gerar ids únicos e crescentes por thread sob concorrência")
+    void next_shouldBeUniqueUnderConcurrency() throws Exception {
+        TimeOrderedUuidGenerator generator = new TimeOrderedUuidGenerator();
+        int threads = 16;
+        int perThread = 20_000;
+        Set<UUID> all = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    UUID previous = null;
+                    boolean ordered = true;
+                    for (int i = 0; i < perThread; i++) {
+                        UUID id = generator.next();
+                        ordered &= previous == null || id.compareTo(previous) > 0;
+                        all.add(id);
+                        previous = id;
+                    }
+                    return ordered;
+                }));
+            }
+            start.countDown();
+            for (Future<Boolean> result : results) {
+                assertThat(result.get()).isTrue();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(all).hasSize(threads * perThread);
+    }
+}
@@ -0,0 +1,122 @@
+package br.com.orbitall.channels.instrumentation;
+
+import br.com.orbitall.channels.canonicals.CustomerInput;
+import br.com.orbitall.channels.services.CustomerService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasItems;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:instrumentation;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+class HotPathInstrumentationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private SlowRequestLog slowRequestLog;
+
+    private void createTransaction(UUID customerId) throws Exception {
+        mockMvc.perform(post("/transactions")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"customerId\":\"" + customerId + "\",\"amount\":10.00,\"cardType\":\"VISA\"}"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("POST /transactions deve registrar timers com histograma para serviço e repositório")
+    void create_shouldRecordServiceAndRepositoryTimers() throws Exception {
+        UUID customerId = customerService.create(new CustomerInput("Maria Silva", "maria@example.com", "+55 11 90000-0000")).id();
+
+        createTransaction(customerId);
+
+        Timer service = meterRegistry.get(HotPathTimingAspect.SERVICE_TIMER)
+                .tags("class", "TransactionService", "method", "create", "exception", "none")
+                .timer();
+        Timer repository = meterRegistry.get(HotPathTimingAspect.REPOSITORY_TIMER)
+                .tags("repository", "TransactionRepository", "method", "save", "exception", "none")
+                .timer();
+
+        assertThat(service.count()).isGreaterThanOrEqualTo(1);
+        assertThat(repository.count()).isGreaterThanOrEqualTo(1);
+        assertThat(service.takeSnapshot().percentileValues()).hasSize(2);
+        assertThat(meterRegistry.find("spring.data.repository.invocations").timers()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("POST /transactions não deve registrar timers de serviços fora de @HotPath")
+    void create_shouldNotTimeHelperServices() throws Exception {
+        UUID customerId = customerService.create(new CustomerInput("Ana Lima", "ana@example.com", "+55 11 90000-0002")).id();
+
+        createTransaction(customerId);
+
+        assertThat(meterRegistry.find(HotPathTimingAspect.SERVICE_TIMER).timers())
+                .extracting(timer -> timer.getId().getTag("class"))
+                .contains("TransactionService", "CustomerService", "CustomerLookupService")
+                .doesNotContain("CustomerSummaryService", "ReadModel", "OutboxService", "VelocityGuard");
+        assertThat(meterRegistry.find(HotPathTimingAspect.SERVICE_TIMER).tag("class", "CustomerLookupService").timers())
+                .extracting(timer -> timer.getId().getTag("method"))
+                .containsOnly("isActive");
+    }
+
+    @Test
+    @DisplayName("GET /transactions/{id} inexistente deve responder 404 e contar o não encontrado")
+    void retrieve_shouldCountNotFound() throws Exception {
+        mockMvc.perform(get("/transactions/{id}", UUID.randomUUID()))
+                .andExpect(status().isNotFound());
+
+        assertThat(meterRegistry.get("channels.not.found")
+                .tags("method", "GET", "uri", "/transactions/{id}")
+                .counter()
+                .count()).isGreaterThanOrEqualTo(1);
+        assertThat(meterRegistry.get(HotPathTimingAspect.SERVICE_TIMER)
+                .tags("class", "TransactionService", "method", "retrieve", "exception", "ResourceNotFoundException")
+                .timer()
+                .count()).isGreaterThanOrEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("/actuator/slowrequests deve detalhar as etapas das requisições mais lentas")
+    void slowRequests_shouldExposeStageBreakdown() throws Exception {
+        UUID customerId = customerService.create(new CustomerInput("João Souza", "joao@example.com", "+55 11 90000-0001")).id();
+        createTransaction(customerId);
+
+        assertThat(slowRequestLog.snapshot())
+                .anySatisfy(request -> {
+                    assertThat(request.uri()).isEqualTo("/transactions");
+                    assertThat(request.stages())
+                            .extracting(SlowRequestLog.StageTiming::stage)
+                            .contains(RequestProfilingFilter.BINDING_STAGE,
+                                    "controller:TransactionController.create",
+                                    "TransactionService.create",
+                                    "CustomerLookupService.isActive",
+                                    "TransactionRepository.save",
+                                    RequestProfilingFilter.WRITING_STAGE);
+                });
+
+        mockMvc.perform(get("/actuator/slowrequests"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].uri", hasItems("/transactions")));
+    }
+}
@@ -0,0 +1,56 @@
+package br.com.orbitall.channels.instrumentation;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlowRequestLogTest {
+
+    private static long millis(long value) {
+        return TimeUnit.MILLISECONDS.toNanos(value);
+    }
+
+    @Test
+    @DisplayName("record() deve reter apenas as N requisições mais lentas, da mais lenta para a mais rápida")
+    void record_shouldKeepSlowestRequests() {
+        SlowRequestLog log = new SlowRequestLog(3, Duration.ofMinutes(5));
+
+        for (long duration : new long[]{5, 50, 1, 30, 10, 40}) {
+            log.record(new RequestProfile(), "GET", "/customers/" + duration, 200, millis(duration));
+        }
+
+        assertThat(log.snapshot())
+                .extracting(SlowRequestLog.SlowRequest::uri)
+                .containsExactly("/customers/50", "/customers/40", "/customers/30");
+    }
+
+    @Test
+    @DisplayName("shouldRecord() deve descartar requisições mais rápidas que as retidas")
+    void shouldRecord_shouldSkipFastRequestsWhenFull() {
+        SlowRequestLog log = new SlowRequestLog(2, Duration.ofMinutes(5));
+        log.record(new RequestProfile(), "GET", "/a", 200, millis(20));
+        log.record(new RequestProfile(), "GET", "/b", 200, millis(30));
+
+        assertThat(log.shouldRecord(millis(10), System.nanoTime())).isFalse();
+        assertThat(log.shouldRecord(millis(25), System.nanoTime())).isTrue();
+    }
+
+    @Test
+    @DisplayName("snapshot() deve descartar requisições fora da janela")
+    void snapshot_shouldEvictExpiredRequests() throws InterruptedException {
+        SlowRequestLog log = new SlowRequestLog(2, Duration.ofMillis(50));
+        log.record(new RequestProfile(), "GET", "/old", 200, millis(500));
+
+        Thread.sleep(60);
+        assertThat(log.shouldRecord(millis(1), System.nanoTime())).isTrue();
+        log.record(new RequestProfile(), "GET", "/new", 200, millis(1));
+
+        assertThat(log.snapshot())
+                .extracting(SlowRequestLog.SlowRequest::uri)
+                .containsExactly("/new");
+    }
+}
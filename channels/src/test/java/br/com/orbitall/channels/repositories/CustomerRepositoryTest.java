@@ -0,0 +1,68 @@
+package br.com.orbitall.channels.repositories;
+
+import br.com.orbitall.channels.models.Customer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class CustomerRepositoryTest {
+
+    @Autowired
+    private CustomerRepository repository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Customer buildCustomer(boolean active) {
+        Customer c = new Customer();
+        c.setId(UUID.randomUUID());
+        c.setFullName("Maria Silva");
+        c.setEmail("maria@example.com");
+        c.setPhone("+55 11 90000-0000");
+        c.setCreatedAt(LocalDateTime.now());
+        c.setUpdatedAt(LocalDateTime.now());
+        c.setActive(active);
+        return c;
+    }
+
+    @Test
+    @DisplayName("findActivePage()/findActivePageAfter() devem percorrer apenas ativos, sem repetir nem pular")
+    void keysetPages_shouldWalkActiveCustomersOnce() {
+        List<UUID> activeIds = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            activeIds.add(repository.save(buildCustomer(true)).getId());
+            repository.save(buildCustomer(false));
+        }
+
+        List<UUID> visited = new ArrayList<>();
+        List<Customer> page = repository.findActivePage(Limit.of(3));
+        while (!page.isEmpty()) {
+            page.forEach(customer -> visited.add(customer.getId()));
+            page = repository.findActivePageAfter(page.get(page.size() - 1).getId(), Limit.of(3));
+        }
+
+        assertThat(visited).containsExactlyInAnyOrderElementsOf(activeIds);
+    }
+
+    @Test
+    @DisplayName("página seguinte deve ler o índice (active, id) já ordenado")
+    void keysetPage_shouldUseIndexOrder() {
+        String plan = jdbcTemplate.queryForObject(
+                "EXPLAIN SELECT * FROM CUSTOMERS WHERE active = TRUE AND id > ? ORDER BY active, id FETCH FIRST 500 ROWS ONLY",
+                String.class, UUID.randomUUID());
+
+        assertThat(plan).contains("IDX_CUSTOMERS_ACTIVE_ID");
+        assertThat(plan).contains("index sorted");
+    }
+}
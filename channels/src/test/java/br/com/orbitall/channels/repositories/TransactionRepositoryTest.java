@@ -0,0 +1,111 @@
+package br.com.orbitall.channels.repositories;
+
+import br.com.orbitall.channels.models.Transaction;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class TransactionRepositoryTest {
+
+    @Autowired
+    private TransactionRepository repository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Transaction buildTransaction(UUID customerId, LocalDateTime createdAt, boolean active) {
+        Transaction t = new Transaction();
+        t.setId(UUID.randomUUID());
+        t.setCustomerId(customerId);
+        t.setAmount(new BigDecimal("10.00"));
+        t.setCardType("VISA");
+        t.setCreatedAt(createdAt);
+        t.setActive(active);
+        return t;
+    }
+
+    @Test
+    @DisplayName("findActiveByCustomer() deve filtrar inativas e ordenar por createdAt")
+    void findActiveByCustomer_shouldFilterAndOrder() {
+        UUID customerId = UUID.randomUUID();
+        LocalDateTime now = LocalDateTime.now();
+        Transaction newest = repository.save(buildTransaction(customerId, now, true));
+        Transaction oldest = repository.save(buildTransaction(customerId, now.minusDays(2), true));
+        repository.save(buildTransaction(customerId, now.minusDays(1), false));
+        repository.save(buildTransaction(UUID.randomUUID(), now, true));
+
+        assertThat(repository.findActiveByCustomer(customerId))
+                .extracting(Transaction::getId)
+                .containsExactly(oldest.getId(), newest.getId());
+    }
+
+    @Test
+    @DisplayName("consulta por cliente deve usar o índice composto (customerId, active, createdAt)")
+    void findActiveByCustomer_shouldUseCompositeIndex() {
+        String plan = jdbcTemplate.queryForObject(
+                "EXPLAIN SELECT * FROM TRANSACTIONS WHERE customer_id = ? AND active = TRUE "
+                        + "ORDER BY customer_id, active, created_at",
+                String.class, UUID.randomUUID());
+
+        assertThat(plan).contains("IDX_TRANSACTIONS_CUSTOMER_ACTIVE_CREATED");
+        assertThat(plan).contains("index sorted");
+    }
+
+    @Test
+    @DisplayName("findActiveInRange() e findActiveInRangeAfter() devem paginar por (createdAt, id) sem repetir nem pular")
+    void findActiveInRange_shouldPageByCreatedAtAndId() {
+        LocalDateTime base = LocalDateTime.of(2025, 9, 20, 13, 0);
+        List<Transaction> expected = new ArrayList<>();
+        for (int i = 0; i < 9; i++) {
+            // Três transações por instante: o desempate fica com o id
+            expected.add(repository.save(buildTransaction(UUID.randomUUID(), base.plusMinutes(i / 3), true)));
+        }
+        repository.save(buildTransaction(UUID.randomUUID(), base.plusMinutes(1), false));
+        repository.save(buildTransaction(UUID.randomUUID(), base.minusMinutes(1), true));
+        repository.save(buildTransaction(UUID.randomUUID(), base.plusMinutes(3), true));
+        Transaction master = buildTransaction(UUID.randomUUID(), base.plusMinutes(2), true);
+        master.setCardType("MASTERCARD");
+        repository.save(master);
+
+        LocalDateTime to = base.plusMinutes(3);
+        List<UUID> seen = new ArrayList<>();
+        List<Transaction> page = repository.findActiveInRange(base, to, "VISA", Limit.of(2));
+        while (!page.isEmpty()) {
+            page.forEach(transaction -> seen.add(transaction.getId()));
+            Transaction last = page.get(page.size() - 1);
+            page = repository.findActiveInRangeAfter(last.getCreatedAt(), last.getId(), to, "VISA", Limit.of(2));
+        }
+
+        // Mesma ordem de UUID do H2 (sem sinal)
+        expected.sort(Comparator.comparing(Transaction::getCreatedAt)
+                .thenComparing(transaction -> transaction.getId().toString()));
+        assertThat(seen).containsExactlyElementsOf(expected.stream().map(Transaction::getId).toList());
+        assertThat(repository.findActiveInRange(base, to, null, Limit.of(100))).hasSize(10);
+    }
+
+    @Test
+    @DisplayName("página seguinte por intervalo deve usar o índice (createdAt, id), já ordenado")
+    void findActiveInRangeAfter_shouldUseCreatedAtIndex() {
+        LocalDateTime now = LocalDateTime.now();
+        String plan = jdbcTemplate.queryForObject(
+                "EXPLAIN SELECT * FROM TRANSACTIONS WHERE created_at >= ? AND created_at < ? "
+                        + "AND (created_at > ? OR id > ?) AND active = TRUE ORDER BY created_at, id FETCH FIRST 100 ROWS ONLY",
+                String.class, now, now.plusDays(1), now, UUID.randomUUID());
+
+        assertThat(plan).contains("IDX_TRANSACTIONS_CREATED");
+        assertThat(plan).contains("index sorted");
+    }
+}
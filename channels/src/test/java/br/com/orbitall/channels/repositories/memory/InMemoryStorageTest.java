@@ -0,0 +1,298 @@
+package br.com.orbitall.channels.repositories.memory;
+
+import br.com.orbitall.channels.canonicals.CustomerInput;
+import br.com.orbitall.channels.canonicals.CustomerOutput;
+import br.com.orbitall.channels.canonicals.TransactionInput;
+import br.com.orbitall.channels.canonicals.TransactionOutput;
+import br.com.orbitall.channels.exceptions.PreconditionFailedException;
+import br.com.orbitall.channels.exceptions.ResourceNotFoundException;
+import br.com.orbitall.channels.models.Customer;
+import br.com.orbitall.channels.models.Transaction;
+import br.com.orbitall.channels.repositories.CustomerRepository;
+import br.com.orbitall.channels.repositories.TransactionRepository;
+import br.com.orbitall.channels.services.CustomerSummaryService;
+import br.com.orbitall.channels.services.StorageContractTest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Roda o contrato de StorageContractTest sobre o armazenamento em memória, além dos cenários próprios dele
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:in-memory-storage;DB_CLOSE_DELAY=-1",
+        "channels.storage=memory"
+})
+class InMemoryStorageTest extends StorageContractTest {
+
+    @Autowired
+    private CustomerSummaryService summaryService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("channels.storage=memory deve substituir os repositórios JPA sem gravar no H2")
+    void memoryStorage_shouldReplaceJpaRepositories() {
+        assertThat(AopUtils.getTargetClass(customerRepository)).isEqualTo(InMemoryCustomerRepository.class);
+        assertThat(AopUtils.getTargetClass(transactionRepository)).isEqualTo(InMemoryTransactionRepository.class);
+
+        UUID id = newCustomer();
+        CustomerOutput updated = customerService.update(id, new CustomerInput("Maria Souza", "maria@example.com", "+55 11 90000-0001"));
+
+        assertThat(updated.fullName()).isEqualTo("Maria Souza");
+        assertThat(customerService.retrieve(id).fullName()).isEqualTo("Maria Souza");
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM CUSTOMERS WHERE id = ?", Long.class, id)).isZero();
+
+        customerService.delete(id);
+        assertThatThrownBy(() -> customerService.retrieve(id)).isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    @DisplayName("findAll() deve paginar por cursor na mesma ordem de UUID do H2, sem repetir nem pular clientes")
+    void findAll_shouldPageByCursor() {
+        List<UUID> created = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            created.add(newCustomer());
+        }
+        customerService.delete(created.get(3));
+
+        List<UUID> seen = new ArrayList<>();
+        customerService.forEachActive(10, customer -> seen.add(customer.id()));
+
+        assertThat(seen).doesNotHaveDuplicates()
+                .isSortedAccordingTo(InMemoryCustomerRepository.UUID_ORDER)
+                .containsAll(created.subList(4, 25))
+                .doesNotContain(created.get(3));
+    }
+
+    @Test
+    @DisplayName("transações devem ser listadas, exportadas, paginadas por intervalo e totalizadas a partir dos índices")
+    void transactions_shouldUseIndexes() {
+        UUID customerId = newCustomer();
+        TransactionOutput first = transactionService.create(new TransactionInput(customerId, new BigDecimal("10.00"), "VISA"));
+        TransactionOutput second = transactionService.create(new TransactionInput(customerId, new BigDecimal("20.00"), "MASTERCARD"));
+        TransactionOutput deleted = transactionService.create(new TransactionInput(customerId, new BigDecimal("30.00"), "VISA"));
+        transactionService.delete(deleted.id());
+
+        assertThat(transactionService.findByCustomer(customerId))
+                .extracting(TransactionOutput::id)
+                .containsExactly(first.id(), second.id());
+
+        List<UUID> exported = new ArrayList<>();
+        transactionService.exportByCustomer(customerId, second.createdAt(), LocalDateTime.MAX,
+                transaction -> exported.add(transaction.id()));
+        assertThat(exported).containsExactly(second.id());
+
+        List<UUID> inRange = new ArrayList<>();
+        List<TransactionOutput> page = transactionService.findInRange(first.createdAt(), LocalDateTime.MAX, null, null, null, 1);
+        while (!page.isEmpty()) {
+            page.stream().filter(transaction -> transaction.customerId().equals(customerId))
+                    .forEach(transaction -> inRange.add(transaction.id()));
+            TransactionOutput last = page.get(page.size() - 1);
+            page = transactionService.findInRange(first.createdAt(), LocalDateTime.MAX, null, last.createdAt(), last.id(), 1);
+        }
+        assertThat(inRange).containsExactly(first.id(), second.id());
+
+        assertThat(summaryService.retrieve(customerId).transactionCount()).isEqualTo(2);
+        assertThat(transactionRepository.aggregateActiveByCustomer(customerId))
+                .extracting(aggregate -> aggregate.getCardType() + "=" + aggregate.getTotalAmount())
+                .containsExactlyInAnyOrder("VISA=10.00", "MASTERCARD=20.00");
+        assertThat(summaryService.rebuild().drifted()).isZero();
+    }
+
+    @Test
+    @DisplayName("escrita dentro de uma transação revertida deve ser desfeita")
+    void save_shouldBeUndoneOnRollback() {
+        UUID id = UUID.randomUUID();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            customerRepository.save(buildCustomer(id));
+            status.setRollbackOnly();
+        });
+
+        assertThat(customerRepository.findById(id)).isEmpty();
+        assertThat(customerRepository.existsByIdAndActiveTrue(id)).isFalse();
+    }
+
+    @Test
+    @DisplayName("criações concorrentes no mesmo cliente não devem perder transações")
+    void create_shouldNotLoseConcurrentWrites() throws Exception {
+        UUID customerId = newCustomer();
+        int threads = 16;
+        int perThread = 200;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        transactionService.create(new TransactionInput(customerId, BigDecimal.ONE, "VISA"));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(transactionService.findByCustomer(customerId)).hasSize(threads * perThread);
+        assertThat(summaryService.retrieve(customerId).transactionCount()).isEqualTo(threads * perThread);
+    }
+
+    @Test
+    @DisplayName("escrita de uma transação em aberto deve ser visível só para ela até o commit")
+    void save_shouldNotBeVisibleToOthersBeforeCommit() throws Exception {
+        UUID id = UUID.randomUUID();
+        CountDownLatch written = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Void> writer = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+            customerRepository.save(buildCustomer(id));
+            assertThat(customerRepository.findById(id)).isPresent();
+            assertThat(customerRepository.existsByIdAndActiveTrue(id)).isTrue();
+            written.countDown();
+            await(release);
+        }));
+        assertThat(written.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(customerRepository.findById(id)).isEmpty();
+        assertThat(customerRepository.existsByIdAndActiveTrue(id)).isFalse();
+        assertThat(customerRepository.findActiveByIdIn(List.of(id))).isEmpty();
+
+        release.countDown();
+        writer.get(5, TimeUnit.SECONDS);
+        assertThat(customerRepository.findById(id)).isPresent();
+        assertThat(customerRepository.existsByIdAndActiveTrue(id)).isTrue();
+    }
+
+    @Test
+    @DisplayName("save() de entidade nova com id existente deve falhar com chave duplicada, como o INSERT do JPA")
+    void save_shouldRejectDuplicateNewId() {
+        UUID id = UUID.randomUUID();
+        customerRepository.save(buildCustomer(id));
+
+        Customer duplicate = buildCustomer(id);
+        duplicate.setFullName("Outra Pessoa");
+        assertThatThrownBy(() -> customerRepository.save(duplicate)).isInstanceOf(DuplicateKeyException.class);
+        assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status -> customerRepository.save(buildCustomer(id))))
+                .isInstanceOf(DuplicateKeyException.class);
+
+        assertThat(customerRepository.findById(id)).get().extracting(Customer::getFullName).isEqualTo("Maria da Silva");
+    }
+
+    @Test
+    @DisplayName("update() condicional deve esperar a transação que travou a linha e então ver a versão confirmada")
+    void update_shouldWaitForUncommittedWrite() throws Exception {
+        UUID id = newCustomer();
+        long version = customerService.retrieve(id).version();
+        CountDownLatch updated = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Void> first = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+            customerService.update(id, new CustomerInput("Maria Souza", null, null), version);
+            updated.countDown();
+            await(release);
+        }));
+        assertThat(updated.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<CustomerOutput> second = CompletableFuture.supplyAsync(
+                () -> customerService.update(id, new CustomerInput("Maria Santos", null, null), version));
+
+        Thread.sleep(200);
+        assertThat(second).isNotDone();
+        release.countDown();
+
+        first.get(5, TimeUnit.SECONDS);
+        assertThatThrownBy(() -> second.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(PreconditionFailedException.class);
+        assertThat(customerService.retrieve(id).fullName()).isEqualTo("Maria Souza");
+    }
+
+    @Test
+    @DisplayName("findArchivable()/findOldestArchivable() devem ler as inativas pela data de exclusão, das mais antigas")
+    void findArchivable_shouldReadDeactivationIndex() {
+        UUID customerId = newCustomer();
+        LocalDateTime now = LocalDateTime.now();
+        List<UUID> ids = new ArrayList<>();
+        for (int days : new int[]{2, 3, 0}) {
+            UUID id = transactionService.create(new TransactionInput(customerId, BigDecimal.ONE, "VISA")).id();
+            transactionRepository.deactivate(id, now.minusDays(days), null);
+            ids.add(id);
+        }
+        LocalDateTime cutoff = now.minusDays(1);
+
+        assertThat(transactionRepository.findArchivable(cutoff, Limit.unlimited()))
+                .extracting(Transaction::getId)
+                .containsExactly(ids.get(1), ids.get(0));
+        assertThat(transactionRepository.findArchivable(cutoff, Limit.of(1)))
+                .extracting(Transaction::getId)
+                .containsExactly(ids.get(1));
+        assertThat(transactionRepository.findOldestArchivable(cutoff)).isEqualTo(now.minusDays(3));
+
+        transactionRepository.deleteByIds(List.of(ids.get(1)));
+        assertThat(transactionRepository.findOldestArchivable(cutoff)).isEqualTo(now.minusDays(2));
+    }
+
+    @Test
+    @DisplayName("o índice por cliente não deve guardar conjuntos vazios de clientes sem transações ativas")
+    void index_shouldDropEmptyCustomerSets() {
+        UUID customerId = newCustomer();
+        TransactionOutput transaction = transactionService.create(new TransactionInput(customerId, BigDecimal.ONE, "VISA"));
+        InMemoryTransactionRepository repository = AopTestUtils.getTargetObject(transactionRepository);
+        Map<UUID, ?> activeByCustomer = (Map<UUID, ?>) ReflectionTestUtils.getField(repository, "activeByCustomer");
+        assertThat(activeByCustomer).containsKey(customerId);
+
+        transactionService.delete(transaction.id());
+
+        assertThat(activeByCustomer).doesNotContainKey(customerId);
+    }
+
+    private static Customer buildCustomer(UUID id) {
+        Customer customer = new Customer();
+        customer.setId(id);
+        customer.setFullName("Maria da Silva");
+        customer.setActive(true);
+        return customer;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package br.com.orbitall.channels.services;
+
+import br.com.orbitall.channels.canonicals.CustomerInput;
+import br.com.orbitall.channels.canonicals.TransactionInput;
+import br.com.orbitall.channels.canonicals.TransactionOutput;
+import br.com.orbitall.channels.exceptions.ResourceNotFoundException;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:archival;DB_CLOSE_DELAY=-1",
+        "channels.archival.retention=30d",
+        "channels.archival.chunk-size=100",
+        "channels.archival.pause=0s"
+})
+class ArchivalServiceTest {
+
+    @Autowired
+    private ArchivalService archivalService;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        // Parte do trabalho de execuções anteriores, para que cada teste veja só o que criou
+        archivalService.archive();
+    }
+
+    private UUID newCustomer() {
+        return customerService.create(new CustomerInput("Maria Silva", "maria@example.com", "+55 11 90000-0000")).id();
+    }
+
+    private void backdate(UUID customerId, int days) {
+        LocalDateTime past = LocalDateTime.now().minusDays(days);
+        jdbcTemplate.update("UPDATE CUSTOMERS SET updated_at = ? WHERE id = ?", past, customerId);
+        jdbcTemplate.update("UPDATE TRANSACTIONS SET created_at = ?, deactivated_at = CASE WHEN active THEN NULL ELSE ? END "
+                + "WHERE customer_id = ?", past, past, customerId);
+    }
+
+    private long count(String sql, UUID customerId) {
+        return jdbcTemplate.queryForObject(sql, Long.class, customerId);
+    }
+
+    @Test
+    @DisplayName("archive() deve mover em blocos os clientes e transações inativos além da retenção")
+    void archive_shouldMoveExpiredInactiveRows() {
+        UUID customerId = newCustomer();
+        List<UUID> transactionIds = transactionService.createBatch(
+                Collections.nCopies(250, new TransactionInput(customerId, BigDecimal.TEN, "VISA"))).stream()
+                .map(item -> item.transaction().id()).toList();
+        customerService.delete(customerId);
+        backdate(customerId, 31);
+
+        double chunksBefore = registry.timer("channels.archival.chunk", "table", "transactions").count();
+        ArchivalService.ArchivalReport report = archivalService.archive();
+
+        assertThat(report.customers()).isEqualTo(1);
+        assertThat(report.transactions()).isEqualTo(250);
+        assertThat(count("SELECT COUNT(*) FROM TRANSACTIONS WHERE customer_id = ?", customerId)).isZero();
+        assertThat(count("SELECT COUNT(*) FROM TRANSACTIONS_ARCHIVE WHERE customer_id = ?", customerId)).isEqualTo(250);
+        assertThat(count("SELECT COUNT(*) FROM CUSTOMERS WHERE id = ?", customerId)).isZero();
+        // 250 linhas em blocos de 100: 3 blocos
+        assertThat(registry.timer("channels.archival.chunk", "table", "transactions").count() - chunksBefore).isEqualTo(3);
+        assertThat(registry.get("channels.archival.lag").tag("table", "transactions").gauge().value()).isZero();
+
+        assertThat(archivalService.retrieveCustomer(customerId).active()).isFalse();
+        TransactionOutput archived = archivalService.retrieveTransaction(transactionIds.get(0));
+        assertThat(archived.customerId()).isEqualTo(customerId);
+        assertThat(archived.amount()).isEqualByComparingTo(BigDecimal.TEN);
+        assertThat(archived.active()).isFalse();
+        assertThatThrownBy(() -> customerService.retrieve(customerId)).isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    @DisplayName("archive() deve contar a retenção a partir da desativação da transação, não da criação")
+    void archive_shouldMeasureRetentionFromDeactivation() {
+        UUID customerId = newCustomer();
+        TransactionOutput old = transactionService.create(new TransactionInput(customerId, BigDecimal.ONE, "VISA"));
+        TransactionOutput expired = transactionService.create(new TransactionInput(customerId, BigDecimal.TEN, "VISA"));
+        jdbcTemplate.update("UPDATE TRANSACTIONS SET created_at = ? WHERE customer_id = ?", LocalDateTime.now().minusDays(90), customerId);
+
+        // Criada há 90 dias, mas excluída agora: ainda dentro da retenção
+        transactionService.delete(old.id());
+        transactionService.delete(expired.id());
+        jdbcTemplate.update("UPDATE TRANSACTIONS SET deactivated_at = ? WHERE id = ?", LocalDateTime.now().minusDays(31), expired.id());
+
+        ArchivalService.ArchivalReport report = archivalService.archive();
+
+        assertThat(report.transactions()).isEqualTo(1);
+        assertThat(archivalService.retrieveTransaction(expired.id()).amount()).isEqualByComparingTo(BigDecimal.TEN);
+        assertThatThrownBy(() -> archivalService.retrieveTransaction(old.id())).isInstanceOf(ResourceNotFoundException.class);
+        assertThat(count("SELECT COUNT(*) FROM TRANSACTIONS WHERE customer_id = ?", customerId)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("archive() não deve tocar em linhas ativas nem em inativas ainda dentro da retenção")
+    void archive_shouldKeepActiveAndRecentRows() {
+        UUID activeCustomerId = newCustomer();
+        transactionService.create(new TransactionInput(activeCustomerId, BigDecimal.ONE, "VISA"));
+        backdate(activeCustomerId, 90);
+
+        UUID recentCustomerId = newCustomer();
+        transactionService.create(new TransactionInput(recentCustomerId, BigDecimal.ONE, "VISA"));
+        customerService.delete(recentCustomerId);
+
+        ArchivalService.ArchivalReport report = archivalService.archive();
+
+        assertThat(report.customers()).isZero();
+        assertThat(report.transactions()).isZero();
+        assertThat(customerService.retrieve(activeCustomerId).active()).isTrue();
+        assertThat(count("SELECT COUNT(*) FROM CUSTOMERS WHERE id = ?", recentCustomerId)).isEqualTo(1);
+        assertThat(count("SELECT COUNT(*) FROM TRANSACTIONS WHERE customer_id = ?", recentCustomerId)).isEqualTo(1);
+        assertThatThrownBy(() -> archivalService.retrieveCustomer(recentCustomerId)).isInstanceOf(ResourceNotFoundException.class);
+    }
+}
@@ -0,0 +1,317 @@
+package br.com.orbitall.channels.services;
+
+import br.com.orbitall.channels.canonicals.ChangeType;
+import br.com.orbitall.channels.canonicals.CustomerInput;
+import br.com.orbitall.channels.canonicals.TransactionInput;
+import br.com.orbitall.channels.canonicals.TransactionOutput;
+import br.com.orbitall.channels.exceptions.ChangeFeedOffsetExpiredException;
+import br.com.orbitall.channels.repositories.OutboxEventRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:change-feed;DB_CLOSE_DELAY=-1",
+        "channels.change-feed.enabled=true",
+        "channels.change-feed.poll-interval=20ms",
+        "channels.change-feed.subscriber-buffer=4",
+        "channels.change-feed.window-size=8"
+})
+class ChangeFeedTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ChangeFeedService feed;
+
+    @Autowired
+    private OutboxEventRepository outboxRepository;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private static class QueueSink implements ChangeFeedService.Sink {
+
+        private final BlockingQueue<ChangeFeedService.Change> received = new LinkedBlockingQueue<>();
+
+        @Override
+        public void send(ChangeFeedService.Change change) {
+            received.add(change);
+        }
+
+        @Override
+        public void keepAlive() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        ChangeFeedService.Change next() throws InterruptedException {
+            ChangeFeedService.Change change = received.poll(5, TimeUnit.SECONDS);
+            assertThat(change).as("evento dentro do prazo").isNotNull();
+            return change;
+        }
+
+        List<ChangeFeedService.Change> next(int count) throws InterruptedException {
+            List<ChangeFeedService.Change> changes = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                changes.add(next());
+            }
+            return changes;
+        }
+    }
+
+    // Espera o relay numerar e publicar tudo o que já foi commitado; devolve o último offset publicado
+    private long settle() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!outboxRepository.findUnsequenced(Limit.of(1)).isEmpty()
+                || feed.lastPublished() < outboxRepository.findLastSequenceNumber()) {
+            assertThat(System.nanoTime()).as("relay em dia").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+        return feed.lastPublished();
+    }
+
+    private UUID newCustomer() {
+        return customerService.create(new CustomerInput("Maria Silva", "maria@example.com", "+55 11 90000-0000")).id();
+    }
+
+    private TransactionOutput newTransaction(UUID customerId) {
+        return transactionService.create(new TransactionInput(customerId, BigDecimal.TEN, "VISA"));
+    }
+
+    @Test
+    @DisplayName("escritas devem chegar ao assinante em ordem, com offsets crescentes e o recurso em JSON")
+    void writes_shouldBeDeliveredInOrder() throws Exception {
+        long start = settle();
+        QueueSink sink = new QueueSink();
+
+        UUID customerId = newCustomer();
+        TransactionOutput transaction = newTransaction(customerId);
+        customerService.update(customerId, new CustomerInput("Maria Souza", "maria@example.com", "+55 11 90000-0001"));
+        transactionService.delete(transaction.id());
+        customerService.delete(customerId);
+
+        try (ChangeFeedService.Subscription ignored = feed.subscribe(customerId, null, start, sink)) {
+            List<ChangeFeedService.Change> changes = sink.next(5);
+
+            assertThat(changes).extracting(ChangeFeedService.Change::type).containsExactly(
+                    ChangeType.CUSTOMER_CREATED, ChangeType.TRANSACTION_CREATED, ChangeType.CUSTOMER_UPDATED,
+                    ChangeType.TRANSACTION_DEACTIVATED, ChangeType.CUSTOMER_DEACTIVATED);
+            assertThat(changes).extracting(ChangeFeedService.Change::sequenceNumber).isSorted().doesNotHaveDuplicates();
+            assertThat(changes.get(1).payload()).contains(transaction.id().toString());
+            assertThat(changes.get(2).payload()).contains("\"fullName\":\"Maria Souza\"");
+        }
+    }
+
+    @Test
+    @DisplayName("filtro por tipo deve entregar apenas os eventos daquele tipo")
+    void subscribe_shouldFilterByType() throws Exception {
+        long start = settle();
+        QueueSink sink = new QueueSink();
+
+        try (ChangeFeedService.Subscription ignored = feed.subscribe(null, Set.of(ChangeType.CUSTOMER_UPDATED), start, sink)) {
+            UUID untouched = newCustomer();
+            newTransaction(untouched);
+            UUID updated = newCustomer();
+            customerService.update(updated, new CustomerInput("Maria Souza", "maria@example.com", "+55 11 90000-0001"));
+
+            ChangeFeedService.Change change = sink.next();
+            assertThat(change.type()).isEqualTo(ChangeType.CUSTOMER_UPDATED);
+            assertThat(change.customerId()).isEqualTo(updated);
+            settle();
+            assertThat(sink.received).isEmpty();
+        }
+    }
+
+    @Test
+    @DisplayName("assinante retomando de um offset fora da janela em memória deve ler do banco sem perder nem repetir eventos")
+    void subscribe_shouldResumeFromDatabase() throws Exception {
+        long start = settle();
+        UUID customerId = newCustomer();
+        transactionService.createBatch(IntStream.range(0, 20)
+                .mapToObj(i -> new TransactionInput(customerId, BigDecimal.valueOf(i + 1), "VISA"))
+                .toList());
+        settle();
+
+        QueueSink sink = new QueueSink();
+        List<ChangeFeedService.Change> all;
+        try (ChangeFeedService.Subscription ignored = feed.subscribe(customerId, null, start, sink)) {
+            all = sink.next(21);
+        }
+        assertThat(all).extracting(ChangeFeedService.Change::sequenceNumber).isSorted().doesNotHaveDuplicates();
+
+        // Retomada a partir do décimo evento recebido, como faria o Last-Event-ID
+        QueueSink resumed = new QueueSink();
+        try (ChangeFeedService.Subscription ignored = feed.subscribe(customerId, null, all.get(9).sequenceNumber(), resumed)) {
+            assertThat(resumed.next(11)).isEqualTo(all.subList(10, 21));
+        }
+    }
+
+    @Test
+    @DisplayName("escrita revertida não deve gerar evento")
+    void rollback_shouldNotPublish() throws Exception {
+        long start = settle();
+        UUID customerId = newCustomer();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            newTransaction(customerId);
+            status.setRollbackOnly();
+        });
+        TransactionOutput committed = newTransaction(customerId);
+
+        QueueSink sink = new QueueSink();
+        try (ChangeFeedService.Subscription ignored = feed.subscribe(customerId, Set.of(ChangeType.TRANSACTION_CREATED), start, sink)) {
+            assertThat(sink.next().payload()).contains(committed.id().toString());
+            settle();
+            assertThat(sink.received).isEmpty();
+        }
+    }
+
+    @Test
+    @DisplayName("assinante lento não deve atrasar os outros nem o relay")
+    void slowSubscriber_shouldNotBlockOthers() throws Exception {
+        long start = settle();
+        CountDownLatch release = new CountDownLatch(1);
+        ChangeFeedService.Sink blocked = new ChangeFeedService.Sink() {
+            @Override
+            public void send(ChangeFeedService.Change change) throws IOException {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+            }
+
+            @Override
+            public void keepAlive() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        QueueSink fast = new QueueSink();
+
+        try (ChangeFeedService.Subscription slow = feed.subscribe(null, null, start, blocked);
+             ChangeFeedService.Subscription ignored = feed.subscribe(null, null, start, fast)) {
+            UUID customerId = newCustomer();
+            for (int i = 0; i < 30; i++) {
+                newTransaction(customerId);
+            }
+
+            assertThat(fast.next(31)).extracting(ChangeFeedService.Change::customerId).containsOnly(customerId);
+            assertThat(settle()).isGreaterThanOrEqualTo(start + 31);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    @DisplayName("offset já apagado pela retenção deve ser recusado com 410")
+    void expiredOffset_shouldBeRejected() throws Exception {
+        newCustomer();
+        newCustomer();
+        long last = settle();
+
+        Duration retention = (Duration) ReflectionTestUtils.getField(feed, "retention");
+        ReflectionTestUtils.setField(feed, "retention", Duration.ofSeconds(-1));
+        try {
+            assertThat(feed.purge()).isPositive();
+        } finally {
+            ReflectionTestUtils.setField(feed, "retention", retention);
+        }
+
+        // O último evento fica para o sequenciador; retomar a partir dele continua válido
+        assertThatThrownBy(() -> feed.subscribe(null, null, 0L, new QueueSink()))
+                .isInstanceOf(ChangeFeedOffsetExpiredException.class);
+        feed.subscribe(null, null, last - 1, new QueueSink()).close();
+
+        HttpResponse<String> response = HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/changes?after=0"))
+                        .header("Accept", "text/event-stream")
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertThat(response.statusCode()).isEqualTo(410);
+    }
+
+    @Test
+    @DisplayName("GET /changes deve transmitir Server-Sent Events com o offset no id e retomar por Last-Event-ID")
+    void http_shouldStreamServerSentEvents() throws Exception {
+        long start = settle();
+        UUID customerId = newCustomer();
+        TransactionOutput transaction = newTransaction(customerId);
+
+        HttpClient client = HttpClient.newHttpClient();
+        HttpResponse<Stream<String>> response = client.send(
+                HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/changes?customerId=" + customerId
+                                + "&types=CUSTOMER_CREATED,TRANSACTION_CREATED"))
+                        .header("Accept", "text/event-stream")
+                        .header("Last-Event-ID", Long.toString(start))
+                        .build(),
+                HttpResponse.BodyHandlers.ofLines());
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.headers().firstValue("Content-Type")).hasValueSatisfying(type -> assertThat(type).startsWith("text/event-stream"));
+
+        try (Stream<String> lines = response.body()) {
+            Iterator<String> iterator = lines.iterator();
+            List<String> event = new ArrayList<>();
+            List<List<String>> events = new ArrayList<>();
+            while (events.size() < 2 && iterator.hasNext()) {
+                String line = iterator.next();
+                if (line.isEmpty()) {
+                    if (!event.isEmpty()) {
+                        events.add(event);
+                    }
+                    event = new ArrayList<>();
+                } else if (!line.startsWith(":")) {
+                    event.add(line);
+                }
+            }
+
+            assertThat(events.get(0)).contains("event:CUSTOMER_CREATED");
+            assertThat(events.get(1)).contains("event:TRANSACTION_CREATED");
+            assertThat(events.get(1)).anySatisfy(line -> assertThat(line).startsWith("data:").contains(transaction.id().toString()));
+            long first = Long.parseLong(events.get(0).get(0).substring("id:".length()));
+            long second = Long.parseLong(events.get(1).get(0).substring("id:".length()));
+            assertThat(first).isGreaterThan(start);
+            assertThat(second).isGreaterThan(first);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package br.com.orbitall.channels.services;
+
+import br.com.orbitall.channels.canonicals.CustomerInput;
+import br.com.orbitall.channels.canonicals.CustomerOutput;
+import br.com.orbitall.channels.canonicals.TransactionInput;
+import br.com.orbitall.channels.canonicals.TransactionOutput;
+import br.com.orbitall.channels.exceptions.PreconditionFailedException;
+import br.com.orbitall.channels.exceptions.ResourceNotFoundException;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:conditional-writes;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class ConditionalWriteTest {
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private CustomerSummaryService summaryService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private UUID newCustomer() {
+        return customerService.create(new CustomerInput("Maria Silva", "maria@example.com", "+55 11 90000-0000")).id();
+    }
+
+    @Test
+    @DisplayName("update() e delete() de cliente não devem ler antes de gravar e devem incrementar a versão")
+    void customerWrites_shouldNotReadBeforeWrite() {
+        UUID id = newCustomer();
+
+        statistics.clear();
+        CustomerOutput updated = customerService.update(id, new CustomerInput("Maria Souza", "maria@example.com", "+55 11 90000-0001"));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(updated.fullName()).isEqualTo("Maria Souza");
+        assertThat(updated.version()).isEqualTo(1);
+
+        // desativação do cliente + cascata (UPDATE em lote das transações e remoção dos agregados)
+        statistics.clear();
+        CustomerOutput deleted = customerService.delete(id, 1L);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+        assertThat(deleted.active()).isFalse();
+        assertThat(deleted.version()).isEqualTo(2);
+
+        assertThatThrownBy(() -> customerService.delete(id)).isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    @DisplayName("delete() de transação deve executar o UPDATE e o ajuste do agregado, sem SELECT prévio")
+    void transactionDelete_shouldNotReadBeforeWrite() {
+        UUID customerId = newCustomer();
+        TransactionOutput created = transactionService.create(new TransactionInput(customerId, new BigDecimal("10.00"), "VISA"));
+
+        statistics.clear();
+        TransactionOutput deleted = transactionService.delete(created.id());
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(deleted.active()).isFalse();
+        assertThat(deleted.amount()).isEqualByComparingTo("10.00");
+        assertThat(summaryService.retrieve(customerId).transactionCount()).isZero();
+        assertThatThrownBy(() -> transactionService.delete(created.id())).isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    @DisplayName("versão desatualizada deve ser recusada com PreconditionFailedException sem alterar a linha")
+    void staleVersion_shouldBeRejected() {
+        UUID id = newCustomer();
+        customerService.update(id, new CustomerInput("Maria Souza", "maria@example.com", "+55 11 90000-0001"));
+
+        assertThatThrownBy(() -> customerService.update(id, new CustomerInput("Outro Nome", "maria@example.com", "+55 11 90000-0002"), 0L))
+                .isInstanceOf(PreconditionFailedException.class);
+        assertThat(customerService.retrieve(id).fullName()).isEqualTo("Maria Souza");
+    }
+
+    @Test
+    @DisplayName("atualizações concorrentes com o mesmo If-Match: exatamente uma deve vencer")
+    void concurrentUpdates_shouldNotLoseUpdates() throws Exception {
+        UUID id = newCustomer();
+        int writers = 16;
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        List<Future<Boolean>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < writers; i++) {
+                String name = "Cliente " + i;
+                results.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        customerService.update(id, new CustomerInput(name, "maria@example.com", "+55 11 90000-0000"), 0L);
+                        return true;
+                    } catch (PreconditionFailedException e) {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+
+            int winners = 0;
+            for (Future<Boolean> result : results) {
+                if (result.get()) {
+                    winners++;
+                }
+            }
+            assertThat(winners).isEqualTo(1);
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(customerService.retrieve(id).version()).isEqualTo(1);
+    }
+}
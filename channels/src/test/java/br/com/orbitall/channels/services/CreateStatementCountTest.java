@@ -0,0 +1,90 @@
+package br.com.orbitall.channels.services;
+
+import br.com.orbitall.channels.canonicals.CustomerInput;
+import br.com.orbitall.channels.canonicals.TransactionInput;
+import br.com.orbitall.channels.models.Customer;
+import br.com.orbitall.channels.models.Transaction;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:create-statements;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class CreateStatementCountTest {
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    @DisplayName("CustomerService.create() deve executar exatamente um INSERT, sem SELECT de merge")
+    void customerCreate_shouldIssueSingleInsert() {
+        statistics.clear();
+
+        customerService.create(new CustomerInput("Maria Silva", "maria@example.com", "+55 11 90000-0000"));
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityStatistics(Customer.class.getName()).getInsertCount()).isEqualTo(1);
+        assertThat(statistics.getEntityStatistics(Customer.class.getName()).getLoadCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("TransactionService.create() deve executar apenas a validação do cliente, um INSERT e o agregado")
+    void transactionCreate_shouldIssueSingleInsert() {
+        UUID customerId = customerService.create(
+                new CustomerInput("Maria Silva", "maria@example.com", "+55 11 90000-0000")).id();
+        statistics.clear();
+
+        transactionService.create(new TransactionInput(customerId, new BigDecimal("10.00"), "VISA"));
+
+        // 1 SELECT do cliente (validação, cache frio) + 1 INSERT da transação + 1 UPDATE do agregado
+        // (a primeira da bandeira ainda cria a linha com um INSERT pelo JDBC, fora destas estatísticas)
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+        assertThat(statistics.getEntityStatistics(Transaction.class.getName()).getInsertCount()).isEqualTo(1);
+        assertThat(statistics.getEntityStatistics(Transaction.class.getName()).getLoadCount()).isZero();
+
+        // com o cliente já em cache, apenas o INSERT e o UPDATE do agregado
+        statistics.clear();
+        transactionService.create(new TransactionInput(customerId, new BigDecimal("20.00"), "VISA"));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("TransactionService.createBatch() não deve consultar transações antes de inserir")
+    void transactionBatch_shouldNotSelectBeforeInsert() {
+        UUID customerId = customerService.create(
+                new CustomerInput("Maria Silva", "maria@example.com", "+55 11 90000-0000")).id();
+        statistics.clear();
+
+        transactionService.createBatch(Collections.nCopies(50, new TransactionInput(customerId, new BigDecimal("10.00"), "VISA")));
+
+        // 1 consulta IN dos clientes + 1 INSERT preparado uma vez e executado em lote + 1 UPDATE por (cliente, bandeira)
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+        assertThat(statistics.getEntityStatistics(Transaction.class.getName()).getInsertCount()).isEqualTo(50);
+    }
+}
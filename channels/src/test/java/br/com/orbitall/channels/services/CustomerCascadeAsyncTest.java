@@ -0,0 +1,55 @@
+package br.com.orbitall.channels.services;
+
+import br.com.orbitall.channels.canonicals.CustomerInput;
+import br.com.orbitall.channels.canonicals.TransactionInput;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:customer-cascade-async;DB_CLOSE_DELAY=-1",
+        "channels.customer-delete.async-cascade=true",
+        "channels.customer-delete.chunk-size=100"
+})
+class CustomerCascadeAsyncTest {
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long activeTransactions(UUID customerId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM TRANSACTIONS WHERE customer_id = ? AND active = TRUE",
+                Long.class, customerId);
+    }
+
+    @Test
+    @DisplayName("com async-cascade, delete() deve responder sem esperar a cascata, que termina em segundo plano")
+    void delete_shouldCascadeInBackground() throws InterruptedException {
+        UUID customerId = customerService.create(new CustomerInput("Maria Silva", "maria@example.com", "+55 11 90000-0000")).id();
+        transactionService.createBatch(Collections.nCopies(1050, new TransactionInput(customerId, BigDecimal.ONE, "VISA")));
+
+        customerService.delete(customerId);
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (activeTransactions(customerId) > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+
+        assertThat(activeTransactions(customerId)).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM TRANSACTIONS WHERE customer_id = ? AND version = 1",
+                Long.class, customerId)).isEqualTo(1050);
+    }
+}
@@ -0,0 +1,88 @@
+package br.com.orbitall.channels.services;
+
+import br.com.orbitall.channels.canonicals.CustomerInput;
+import br.com.orbitall.channels.canonicals.TransactionInput;
+import br.com.orbitall.channels.exceptions.ResourceNotFoundException;
+import br.com.orbitall.channels.models.Transaction;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:customer-cascade;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class CustomerCascadeTest {
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private CustomerSummaryService summaryService;
+
+    @Autowired
+    private CustomerCascadeService cascadeService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private UUID newCustomerWithTransactions(int transactions) {
+        UUID customerId = customerService.create(new CustomerInput("Maria Silva", "maria@example.com", "+55 11 90000-0000")).id();
+        transactionService.createBatch(Collections.nCopies(transactions, new TransactionInput(customerId, BigDecimal.TEN, "VISA")));
+        return customerId;
+    }
+
+    private long activeTransactions(UUID customerId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM TRANSACTIONS WHERE customer_id = ? AND active = TRUE",
+                Long.class, customerId);
+    }
+
+    @Test
+    @DisplayName("delete() do cliente deve desativar as transações dele em um UPDATE em lote, sem carregar entidades")
+    void delete_shouldDeactivateTransactionsInBulk() {
+        UUID customerId = newCustomerWithTransactions(50);
+        UUID otherCustomerId = newCustomerWithTransactions(3);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        customerService.delete(customerId);
+
+        assertThat(statistics.getEntityStatistics(Transaction.class.getName()).getLoadCount()).isZero();
+        assertThat(activeTransactions(customerId)).isZero();
+        assertThat(activeTransactions(otherCustomerId)).isEqualTo(3);
+        assertThat(transactionService.findByCustomer(customerId)).isEmpty();
+        assertThatThrownBy(() -> summaryService.retrieve(customerId)).isInstanceOf(ResourceNotFoundException.class);
+        assertThat(summaryService.rebuild().drifted()).isZero();
+    }
+
+    @Test
+    @DisplayName("deactivateInChunks() deve desativar o histórico em blocos até não restar transação ativa")
+    void deactivateInChunks_shouldProcessAllChunks() {
+        UUID customerId = newCustomerWithTransactions(2500);
+
+        long deactivated = cascadeService.deactivateInChunks(customerId);
+
+        assertThat(deactivated).isEqualTo(2500);
+        assertThat(activeTransactions(customerId)).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM TRANSACTION_AGGREGATES WHERE customer_id = ?",
+                Long.class, customerId)).isZero();
+    }
+}
@@ -0,0 +1,148 @@
+package br.com.orbitall.channels.services;
+
+import br.com.orbitall.channels.canonicals.CustomerImportOutput;
+import br.com.orbitall.channels.exceptions.InvalidImportException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:customer-import;DB_CLOSE_DELAY=-1")
+class CustomerImportServiceTest {
+
+    @Autowired
+    private CustomerImportService service;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private static InputStream body(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private long countByEmail(String email) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM CUSTOMERS WHERE email = ?", Long.class, email);
+    }
+
+    @Test
+    @DisplayName("importCustomers() deve importar as linhas válidas e relatar cada linha rejeitada")
+    void importCustomers_shouldReportRejectedRows() {
+        String tag = UUID.randomUUID().toString().substring(0, 8);
+        String csv = "phone,fullName,email\n"
+                + "+55 11 90000-0000,\"Silva, Maria\"," + tag + "-maria@example.com\n"
+                + "+55 11 90000-0001,João Souza,email-invalido\n"
+                + "\n"
+                + "+55 11 90000-0002,Ana\n"
+                + "+55 11 90000-0003,\"Pedro \"\"PH\"\" Lima\"," + tag + "-pedro@example.com\n";
+
+        CustomerImportOutput report = service.importCustomers(body(csv), CustomerImportService.Format.CSV);
+
+        assertThat(report.rows()).isEqualTo(4);
+        assertThat(report.imported()).isEqualTo(2);
+        assertThat(report.rejected()).isEqualTo(2);
+        assertThat(report.errors()).extracting(error -> error.line()).containsExactlyInAnyOrder(3L, 5L);
+        assertThat(report.errors()).anySatisfy(error -> assertThat(error.error()).isEqualTo("Email must be valid"));
+        assertThat(jdbcTemplate.queryForObject("SELECT full_name FROM CUSTOMERS WHERE email = ?", String.class,
+                tag + "-maria@example.com")).isEqualTo("Silva, Maria");
+        assertThat(countByEmail(tag + "-pedro@example.com")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("importCustomers() em NDJSON deve relatar linhas malformadas sem interromper a importação")
+    void importCustomers_shouldReportMalformedNdjson() {
+        String tag = UUID.randomUUID().toString().substring(0, 8);
+        String ndjson = "{\"fullName\":\"Maria\",\"email\":\"" + tag + "@example.com\",\"phone\":\"1\"}\n"
+                + "{\"fullName\":\"Quebrado\"\n"
+                + "{\"fullName\":\"\",\"email\":\"x@example.com\",\"phone\":\"1\"}\n";
+
+        CustomerImportOutput report = service.importCustomers(body(ndjson), CustomerImportService.Format.NDJSON);
+
+        assertThat(report.imported()).isEqualTo(1);
+        assertThat(report.errors()).extracting(error -> error.line()).containsExactlyInAnyOrder(2L, 3L);
+        assertThat(report.errors()).anySatisfy(error -> assertThat(error.error()).startsWith("Malformed line"));
+        assertThat(countByEmail(tag + "@example.com")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("importCustomers() em NDJSON deve rejeitar uma linha null como malformada, sem abortar a importação")
+    void importCustomers_shouldRejectNullNdjsonLine() {
+        String tag = UUID.randomUUID().toString().substring(0, 8);
+        String ndjson = "null\n"
+                + "{\"fullName\":\"Maria\",\"email\":\"" + tag + "@example.com\",\"phone\":\"1\"}\n";
+
+        CustomerImportOutput report = service.importCustomers(body(ndjson), CustomerImportService.Format.NDJSON);
+
+        assertThat(report.rows()).isEqualTo(2);
+        assertThat(report.imported()).isEqualTo(1);
+        assertThat(report.errors()).singleElement().satisfies(error -> {
+            assertThat(error.line()).isEqualTo(1L);
+            assertThat(error.error()).startsWith("Malformed line");
+        });
+        assertThat(countByEmail(tag + "@example.com")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("importCustomers() em CSV deve aceitar campos entre aspas com quebra de linha e rejeitar aspas sem fechamento")
+    void importCustomers_shouldReadMultiLineQuotedCsvFields() {
+        String tag = UUID.randomUUID().toString().substring(0, 8);
+        String csv = "fullName,email,phone\n"
+                + "\"Maria\nda \"\"Silva\"\"\"," + tag + "-maria@example.com,+55 11 90000-0000\n"
+                + "João,email-invalido,+55 11 90000-0001\n"
+                + "\"Ana\n\nLima\"," + tag + "-ana@example.com,+55 11 90000-0002\n"
+                + "\"Pedro," + tag + "-pedro@example.com,+55 11 90000-0003\n"
+                + "Paula," + tag + "-paula@example.com,+55 11 90000-0004\n";
+
+        CustomerImportOutput report = service.importCustomers(body(csv), CustomerImportService.Format.CSV);
+
+        // A aspa sem fechamento consome o resto do arquivo: Pedro e Paula viram um único registro malformado
+        assertThat(report.rows()).isEqualTo(4);
+        assertThat(report.imported()).isEqualTo(2);
+        assertThat(report.errors()).extracting(error -> error.line()).containsExactly(4L, 8L);
+        assertThat(report.errors().get(1).error()).isEqualTo("Malformed line: unterminated quoted field");
+        assertThat(jdbcTemplate.queryForObject("SELECT full_name FROM CUSTOMERS WHERE email = ?", String.class,
+                tag + "-maria@example.com")).isEqualTo("Maria\nda \"Silva\"");
+        assertThat(jdbcTemplate.queryForObject("SELECT full_name FROM CUSTOMERS WHERE email = ?", String.class,
+                tag + "-ana@example.com")).isEqualTo("Ana\n\nLima");
+        assertThat(countByEmail(tag + "-paula@example.com")).isZero();
+    }
+
+    @Test
+    @DisplayName("importCustomers() deve gravar vários blocos e limitar o relatório de erros")
+    void importCustomers_shouldImportManyChunksAndCapErrors() {
+        String tag = UUID.randomUUID().toString().substring(0, 8);
+        StringBuilder csv = new StringBuilder("fullName,email,phone\n");
+        for (int i = 0; i < 20_000; i++) {
+            // Uma a cada dez linhas tem e-mail inválido: 2000 rejeições, acima do limite do relatório
+            String email = i % 10 == 0 ? "invalido-" + i : tag + "-" + i + "@example.com";
+            csv.append("Cliente ").append(i).append(',').append(email).append(",+55 11 90000-0000\n");
+        }
+
+        CustomerImportOutput report = service.importCustomers(body(csv.toString()), CustomerImportService.Format.CSV);
+
+        assertThat(report.rows()).isEqualTo(20_000);
+        assertThat(report.imported()).isEqualTo(18_000);
+        assertThat(report.rejected()).isEqualTo(2_000);
+        assertThat(report.errors()).hasSize(CustomerImportService.MAX_REPORTED_ERRORS);
+        assertThat(report.errorsTruncated()).isTrue();
+        assertThat(report.rowsPerSecond()).isPositive();
+        assertThat(report.peakHeapBytes()).isPositive();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM CUSTOMERS WHERE email LIKE ?", Long.class,
+                tag + "-%")).isEqualTo(18_000);
+    }
+
+    @Test
+    @DisplayName("importCustomers() deve recusar CSV sem as colunas obrigatórias no cabeçalho")
+    void importCustomers_shouldRejectCsvWithoutHeader() {
+        assertThatThrownBy(() -> service.importCustomers(body("Maria,maria@example.com,1\n"), CustomerImportService.Format.CSV))
+                .isInstanceOf(InvalidImportException.class);
+    }
+}
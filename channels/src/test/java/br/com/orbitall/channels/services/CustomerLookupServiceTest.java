@@ -0,0 +1,117 @@
+package br.com.orbitall.channels.services;
+
+import br.com.orbitall.channels.canonicals.CustomerInput;
+import br.com.orbitall.channels.canonicals.TransactionInput;
+import br.com.orbitall.channels.exceptions.ResourceNotFoundException;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:customer-lookup;DB_CLOSE_DELAY=-1")
+class CustomerLookupServiceTest {
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private CustomerLookupService customerLookup;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private UUID createCustomer() {
+        return customerService.create(new CustomerInput("Maria Silva", "maria@example.com", "+55 11 90000-0000")).id();
+    }
+
+    @Test
+    @DisplayName("delete() deve invalidar o cache e impedir novas transações do cliente")
+    void delete_shouldInvalidateCacheImmediately() {
+        UUID customerId = createCustomer();
+        TransactionInput input = new TransactionInput(customerId, new BigDecimal("10.00"), "VISA");
+        transactionService.create(input);
+        transactionService.create(input);
+
+        customerService.delete(customerId);
+
+        assertThat(customerLookup.isActive(customerId)).isFalse();
+        assertThatThrownBy(() -> transactionService.create(input))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    @DisplayName("isActive() concorrente com um delete() ainda sem commit não deve deixar true no cache depois do commit")
+    void delete_shouldEvictAgainAfterCommit() throws Exception {
+        UUID customerId = createCustomer();
+        CountDownLatch deleted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Void> delete = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+            customerService.delete(customerId);
+            deleted.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        assertThat(deleted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // Antes do commit o banco ainda tem o cliente ativo, e o resultado volta para o cache
+        assertThat(customerLookup.isActive(customerId)).isTrue();
+
+        release.countDown();
+        delete.get(5, TimeUnit.SECONDS);
+
+        assertThat(customerLookup.isActive(customerId)).isFalse();
+    }
+
+    @Test
+    @DisplayName("isActive() não deve guardar resultados negativos")
+    void isActive_shouldNotCacheMisses() {
+        assertThat(customerLookup.isActive(UUID.randomUUID())).isFalse();
+
+        UUID customerId = createCustomer();
+        assertThat(customerLookup.isActive(customerId)).isTrue();
+    }
+
+    @Test
+    @DisplayName("cache deve publicar métricas de acertos, falhas e remoções")
+    void cache_shouldExposeMetrics() {
+        UUID customerId = createCustomer();
+        double hitsBefore = gets("hit");
+
+        customerLookup.isActive(customerId);
+        customerLookup.isActive(customerId);
+
+        assertThat(gets("hit")).isGreaterThan(hitsBefore);
+        assertThat(gets("miss")).isPositive();
+        assertThat(meterRegistry.find("cache.evictions").tag("cache", CustomerLookupService.ACTIVE_CUSTOMERS).meter())
+                .isNotNull();
+    }
+
+    private double gets(String result) {
+        return meterRegistry.get("cache.gets")
+                .tag("cache", CustomerLookupService.ACTIVE_CUSTOMERS)
+                .tag("result", result)
+                .functionCounter()
+                .count();
+    }
+}
@@ -0,0 +1,84 @@
+package br.com.orbitall.channels.services;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:customer-streaming;DB_CLOSE_DELAY=-1")
+class CustomerServiceStreamingTest {
+
+    private static final int CHUNK_SIZE = 500;
+    private static final long MAX_HEAP_GROWTH = 8L * 1024 * 1024;
+
+    @Autowired
+    private CustomerService service;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("forEachActive() deve manter o uso de heap estável conforme a tabela cresce")
+    void forEachActive_shouldKeepHeapFlatAsTableGrows() {
+        insertCustomers(20_000, true);
+        insertCustomers(2_000, false);
+        long smallGrowth = heapGrowthWhileStreaming(20_000);
+
+        insertCustomers(80_000, true);
+        long largeGrowth = heapGrowthWhileStreaming(100_000);
+
+        // Uma lista com 100k CustomerOutput retém dezenas de MB; o streaming deve reter apenas uma página
+        assertThat(largeGrowth).isLessThan(MAX_HEAP_GROWTH);
+        assertThat(largeGrowth - smallGrowth).isLessThan(MAX_HEAP_GROWTH);
+    }
+
+    private long heapGrowthWhileStreaming(int expectedRows) {
+        AtomicLong rows = new AtomicLong();
+        long[] samples = new long[2];
+
+        service.forEachActive(CHUNK_SIZE, customer -> {
+            long row = rows.incrementAndGet();
+            // Linha de base depois da segunda página, com caches de consulta e da sessão já aquecidos
+            if (row == 2 * CHUNK_SIZE) {
+                samples[0] = usedHeapAfterGc();
+            } else if (row == expectedRows) {
+                samples[1] = usedHeapAfterGc();
+            }
+        });
+
+        assertThat(rows.get()).isEqualTo(expectedRows);
+        return samples[1] - samples[0];
+    }
+
+    private void insertCustomers(int count, boolean active) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rows.add(new Object[]{UUID.randomUUID(), "Cliente " + i, "cliente" + i + "@example.com",
+                    "+55 11 90000-0000", now, now, active});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO CUSTOMERS (id, full_name, email, phone, created_at, updated_at, active) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?)", rows);
+    }
+
+    // Menor leitura entre algumas coletas: outros contextos Spring da mesma JVM alocam em segundo plano
+    private static long usedHeapAfterGc() {
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            used = Math.min(used, ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed());
+        }
+        return used;
+    }
+}
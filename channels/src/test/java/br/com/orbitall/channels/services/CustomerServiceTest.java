@@ -1,10 +1,15 @@
 package br.com.orbitall.channels.services;
 
 import br.com.orbitall.channels.canonicals.CustomerInput;
+import br.com.orbitall.channels.canonicals.CustomerLookupItemOutput;
 import br.com.orbitall.channels.canonicals.CustomerOutput;
+import br.com.orbitall.channels.exceptions.PreconditionFailedException;
 import br.com.orbitall.channels.exceptions.ResourceNotFoundException;
+import br.com.orbitall.channels.generators.IdGenerator;
+import br.com.orbitall.channels.generators.TimeOrderedUuidGenerator;
 import br.com.orbitall.channels.models.Customer;
 import br.com.orbitall.channels.repositories.CustomerRepository;
+import br.com.orbitall.channels.sharding.ShardRouter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -12,15 +17,23 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 class CustomerServiceTest {
@@ -28,6 +41,27 @@ class CustomerServiceTest {
     @Mock
     private CustomerRepository repository;
 
+    @Mock
+    private CustomerCascadeService cascadeService;
+
+    @Mock
+    private CustomerLookupService customerLookup;
+
+    @Spy
+    private IdGenerator idGenerator = new TimeOrderedUuidGenerator();
+
+    @Spy
+    private ShardRouter router = new ShardRouter(List.of(), "jpa");
+
+    @Spy
+    private ReadModel readModel = new ReadModel();
+
+    @Spy
+    private OutboxService outbox = new OutboxService();
+
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+
     @InjectMocks
     private CustomerService service;
 
@@ -109,12 +143,16 @@ class CustomerServiceTest {
     }
 
     @Test
-    @DisplayName("update() deve atualizar campos e salvar")
-    void update_shouldUpdateAndSave() {
+    @DisplayName("update() deve atualizar em um único comando, sem ler nem salvar a entidade")
+    void update_shouldUpdateInSingleStatement() {
         UUID id = UUID.randomUUID();
-        Customer existing = buildCustomer(id, true);
-        when(repository.findById(id)).thenReturn(Optional.of(existing));
-        when(repository.save(any(Customer.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        Customer updated = buildCustomer(id, true);
+        updated.setFullName("Nome Atualizado");
+        updated.setEmail("novo@example.com");
+        updated.setPhone("+55 21 97777-6666");
+        updated.setVersion(1);
+        when(repository.updateActive(eq(id), eq("Nome Atualizado"), eq("novo@example.com"), eq("+55 21 97777-6666"),
+                any(LocalDateTime.class), isNull())).thenReturn(Optional.of(updated));
 
         CustomerInput input = new CustomerInput("Nome Atualizado", "novo@example.com", "+55 21 97777-6666");
         CustomerOutput out = service.update(id, input);
@@ -122,33 +160,128 @@ class CustomerServiceTest {
         assertThat(out.fullName()).isEqualTo("Nome Atualizado");
         assertThat(out.email()).isEqualTo("novo@example.com");
         assertThat(out.phone()).isEqualTo("+55 21 97777-6666");
+        assertThat(out.version()).isEqualTo(1);
+
+        verify(repository, never()).findById(any());
+        verify(repository, never()).save(any(Customer.class));
+    }
 
-        verify(repository, times(1)).save(any(Customer.class));
+    @Test
+    @DisplayName("update() deve lançar ResourceNotFoundException quando nenhuma linha for alterada")
+    void update_shouldThrowWhenNoRowChanged() {
+        UUID id = UUID.randomUUID();
+        when(repository.updateActive(eq(id), any(), any(), any(), any(LocalDateTime.class), isNull())).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> service.update(id, new CustomerInput("Nome", "novo@example.com", "+55 21 97777-6666")))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    @DisplayName("update() com versão esperada desatualizada deve lançar PreconditionFailedException")
+    void update_shouldThrowPreconditionFailedOnStaleVersion() {
+        UUID id = UUID.randomUUID();
+        when(repository.updateActive(eq(id), any(), any(), any(), any(LocalDateTime.class), eq(3L))).thenReturn(Optional.empty());
+        when(repository.existsByIdAndActiveTrue(id)).thenReturn(true);
+
+        assertThatThrownBy(() -> service.update(id, new CustomerInput("Nome", "novo@example.com", "+55 21 97777-6666"), 3L))
+                .isInstanceOf(PreconditionFailedException.class);
     }
 
     @Test
-    @DisplayName("delete() deve marcar como inativo e salvar")
+    @DisplayName("delete() deve desativar em um único comando, propagar para as transações e devolver o cliente inativo")
     void delete_shouldSoftDelete() {
         UUID id = UUID.randomUUID();
-        Customer existing = buildCustomer(id, true);
-        when(repository.findById(id)).thenReturn(Optional.of(existing));
-        when(repository.save(any(Customer.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        Customer deleted = buildCustomer(id, false);
+        when(repository.deactivate(eq(id), any(LocalDateTime.class), isNull())).thenReturn(Optional.of(deleted));
 
         CustomerOutput out = service.delete(id);
 
         assertThat(out.active()).isFalse();
-        verify(repository, times(1)).save(any(Customer.class));
+        verify(repository, never()).save(any(Customer.class));
+        verify(cascadeService).deactivateTransactions(id);
+        verify(customerLookup).evict(id);
+    }
+
+    @Test
+    @DisplayName("delete() não deve propagar para as transações quando o cliente não for desativado")
+    void delete_shouldNotCascadeWhenNotFound() {
+        UUID id = UUID.randomUUID();
+        when(repository.deactivate(eq(id), any(LocalDateTime.class), isNull())).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> service.delete(id)).isInstanceOf(ResourceNotFoundException.class);
+        verify(cascadeService, never()).deactivateTransactions(any());
+        verify(customerLookup, never()).evict(any());
+    }
+
+    @Test
+    @DisplayName("findAll() deve consultar apenas clientes ativos no banco, paginando por cursor")
+    void findAll_shouldQueryOnlyActiveWithKeyset() {
+        Customer first = buildCustomer(UUID.randomUUID(), true);
+        Customer second = buildCustomer(UUID.randomUUID(), true);
+        when(repository.findActivePage(Limit.of(2))).thenReturn(Arrays.asList(first, second));
+        when(repository.findActivePageAfter(second.getId(), Limit.of(2))).thenReturn(List.of());
+
+        var list = service.findAll(null, 2);
+        assertThat(list).extracting(CustomerOutput::id).containsExactly(first.getId(), second.getId());
+
+        assertThat(service.findAll(second.getId(), 2)).isEmpty();
+        verify(repository, never()).findAll();
+    }
+
+    @Test
+    @DisplayName("findAll() deve limitar o tamanho da página")
+    void findAll_shouldClampLimit() {
+        service.findAll(null, 1_000_000);
+        verify(repository).findActivePage(Limit.of(CustomerService.MAX_PAGE_SIZE));
+
+        service.findAll(null, 0);
+        verify(repository).findActivePage(Limit.of(1));
     }
 
     @Test
-    @DisplayName("findAll() deve retornar apenas clientes ativos")
-    void findAll_shouldReturnOnlyActive() {
-        Customer active = buildCustomer(UUID.randomUUID(), true);
-        Customer inactive = buildCustomer(UUID.randomUUID(), false);
-        when(repository.findAll()).thenReturn(Arrays.asList(active, inactive));
-
-        var list = service.findAll();
-        assertThat(list).hasSize(1);
-        assertThat(list.get(0).id()).isEqualTo(active.getId());
+    @DisplayName("forEachActive() deve percorrer todas as páginas até a última incompleta")
+    void forEachActive_shouldWalkAllPages() {
+        Customer a = buildCustomer(UUID.randomUUID(), true);
+        Customer b = buildCustomer(UUID.randomUUID(), true);
+        Customer c = buildCustomer(UUID.randomUUID(), true);
+        when(repository.findActivePage(Limit.of(2))).thenReturn(Arrays.asList(a, b));
+        when(repository.findActivePageAfter(b.getId(), Limit.of(2))).thenReturn(List.of(c));
+
+        List<UUID> visited = new ArrayList<>();
+        service.forEachActive(2, customer -> visited.add(customer.id()));
+
+        assertThat(visited).containsExactly(a.getId(), b.getId(), c.getId());
+    }
+
+    @Test
+    @DisplayName("lookup() deve buscar ids distintos em um IN e responder na ordem pedida, com 404 para ausentes")
+    void lookup_shouldKeepRequestOrderAndMarkMissing() {
+        Customer a = buildCustomer(UUID.randomUUID(), true);
+        Customer b = buildCustomer(UUID.randomUUID(), true);
+        UUID missing = UUID.randomUUID();
+        when(repository.findActiveByIdIn(any())).thenReturn(List.of(b, a));
+
+        List<CustomerLookupItemOutput> items = service.lookup(List.of(a.getId(), missing, b.getId(), a.getId()));
+
+        assertThat(items).extracting(CustomerLookupItemOutput::id).containsExactly(a.getId(), missing, b.getId(), a.getId());
+        assertThat(items).extracting(CustomerLookupItemOutput::status).containsExactly(200, 404, 200, 200);
+        assertThat(items.get(1).customer()).isNull();
+        assertThat(items.get(2).customer().id()).isEqualTo(b.getId());
+        verify(repository, times(1)).findActiveByIdIn(List.of(a.getId(), missing, b.getId()));
+    }
+
+    @Test
+    @DisplayName("lookup() deve dividir listas grandes em blocos de IN")
+    void lookup_shouldQueryInChunks() {
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            ids.add(UUID.randomUUID());
+        }
+        when(repository.findActiveByIdIn(any())).thenReturn(List.of());
+
+        List<CustomerLookupItemOutput> items = service.lookup(ids);
+
+        assertThat(items).hasSize(1000).allMatch(item -> item.status() == 404);
+        verify(repository, times(2)).findActiveByIdIn(any());
     }
 }
@@ -0,0 +1,151 @@
+package br.com.orbitall.channels.services;
+
+import br.com.orbitall.channels.canonicals.CustomerInput;
+import br.com.orbitall.channels.canonicals.CustomerSummaryOutput;
+import br.com.orbitall.channels.canonicals.TransactionInput;
+import br.com.orbitall.channels.canonicals.TransactionOutput;
+import br.com.orbitall.channels.exceptions.ResourceNotFoundException;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:customer-summary;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class CustomerSummaryServiceTest {
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private CustomerSummaryService summaryService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private UUID createCustomer() {
+        return customerService.create(new CustomerInput("Maria Silva", "maria@example.com", "+55 11 90000-0000")).id();
+    }
+
+    @Test
+    @DisplayName("retrieve() deve refletir creates, lotes e deletes sem recalcular")
+    void retrieve_shouldReflectIncrementalUpdates() {
+        UUID customerId = createCustomer();
+        transactionService.create(new TransactionInput(customerId, new BigDecimal("10.00"), "VISA"));
+        TransactionOutput elo = transactionService.create(new TransactionInput(customerId, new BigDecimal("25.50"), "ELO"));
+        transactionService.createBatch(Collections.nCopies(3, new TransactionInput(customerId, new BigDecimal("5.00"), "VISA")));
+        transactionService.delete(elo.id());
+
+        CustomerSummaryOutput summary = summaryService.retrieve(customerId);
+
+        assertThat(summary.transactionCount()).isEqualTo(4);
+        assertThat(summary.totalAmount()).isEqualByComparingTo("25.00");
+        assertThat(summary.cardTypes()).containsOnlyKeys("VISA");
+        assertThat(summary.cardTypes().get("VISA").transactionCount()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("retrieve() deve ler apenas o agregado, independentemente do histórico do cliente")
+    void retrieve_shouldNotScanTransactions() {
+        UUID customerId = createCustomer();
+        transactionService.createBatch(Collections.nCopies(2_000, new TransactionInput(customerId, BigDecimal.ONE, "VISA")));
+        summaryService.retrieve(customerId);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        assertThat(summaryService.retrieve(customerId).transactionCount()).isEqualTo(2_000);
+        // cliente em cache: uma única consulta às linhas (cliente, bandeira) do agregado
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("retrieve() deve lançar quando o cliente não existir ou estiver inativo")
+    void retrieve_shouldThrowForInactiveCustomer() {
+        UUID customerId = createCustomer();
+        customerService.delete(customerId);
+
+        assertThatThrownBy(() -> summaryService.retrieve(customerId))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    @DisplayName("rebuild() deve detectar e corrigir divergências em relação a TRANSACTIONS")
+    void rebuild_shouldFixDrift() {
+        UUID customerId = createCustomer();
+        transactionService.create(new TransactionInput(customerId, new BigDecimal("10.00"), "VISA"));
+        transactionService.create(new TransactionInput(customerId, new BigDecimal("20.00"), "ELO"));
+        assertThat(summaryService.rebuild().drifted()).isZero();
+
+        jdbcTemplate.update("UPDATE TRANSACTION_AGGREGATES SET transaction_count = 7 WHERE customer_id = ? AND card_type = 'VISA'", customerId);
+        jdbcTemplate.update("DELETE FROM TRANSACTION_AGGREGATES WHERE customer_id = ? AND card_type = 'ELO'", customerId);
+        jdbcTemplate.update("INSERT INTO TRANSACTION_AGGREGATES (customer_id, card_type, transaction_count, total_amount) VALUES (?, 'AMEX', 1, 1.00)", customerId);
+
+        CustomerSummaryService.RebuildReport report = summaryService.rebuild();
+
+        assertThat(report.drifted()).isEqualTo(1);
+        CustomerSummaryOutput summary = summaryService.retrieve(customerId);
+        assertThat(summary.transactionCount()).isEqualTo(2);
+        assertThat(summary.totalAmount()).isEqualByComparingTo("30.00");
+        assertThat(summary.cardTypes()).containsOnlyKeys("ELO", "VISA");
+    }
+
+    @Test
+    @DisplayName("add() concorrentes na primeira transação da bandeira não devem falhar por chave duplicada")
+    void add_shouldNotFailOnConcurrentFirstInsert() throws Exception {
+        UUID customerId = createCustomer();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM TRANSACTION_AGGREGATES WHERE customer_id = ?",
+                Integer.class, customerId)).isZero();
+
+        CountDownLatch inserted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        // A grava a transação e cria a linha do agregado, mas segura o commit; B chega com a linha ainda invisível para ele
+        CompletableFuture<Void> first = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+            transactionService.create(new TransactionInput(customerId, new BigDecimal("10.00"), "VISA"));
+            inserted.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        assertThat(inserted.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<Void> second = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(
+                status -> transactionService.create(new TransactionInput(customerId, new BigDecimal("20.00"), "VISA"))));
+        Thread.sleep(200);
+        release.countDown();
+
+        first.get(10, TimeUnit.SECONDS);
+        second.get(10, TimeUnit.SECONDS);
+
+        CustomerSummaryOutput summary = summaryService.retrieve(customerId);
+        assertThat(summary.transactionCount()).isEqualTo(2);
+        assertThat(summary.totalAmount()).isEqualByComparingTo("30.00");
+    }
+}
@@ -0,0 +1,146 @@
+package br.com.orbitall.channels.services;
+
+import br.com.orbitall.channels.canonicals.CustomerInput;
+import br.com.orbitall.channels.canonicals.TransactionInput;
+import br.com.orbitall.channels.canonicals.TransactionOutput;
+import br.com.orbitall.channels.exceptions.IdempotencyKeyReuseException;
+import br.com.orbitall.channels.repositories.IdempotencyKeyRepository;
+import br.com.orbitall.channels.repositories.TransactionRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:idempotency;DB_CLOSE_DELAY=-1")
+class IdempotencyServiceTest {
+
+    private static final int THREADS = 64;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private CustomerSummaryService summaryService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private IdempotencyKeyRepository keyRepository;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    private UUID createCustomer() {
+        return customerService.create(new CustomerInput("Maria Silva", "maria@example.com", "+55 11 90000-0000")).id();
+    }
+
+    @Test
+    @DisplayName("create() com a mesma chave em muitas threads deve inserir uma única transação")
+    void create_shouldCoalesceConcurrentDuplicates() throws Exception {
+        UUID customerId = createCustomer();
+        TransactionInput input = new TransactionInput(customerId, new BigDecimal("99.90"), "VISA");
+        String key = UUID.randomUUID().toString();
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<TransactionOutput>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(THREADS)) {
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return idempotencyService.create(key, input);
+                }));
+            }
+            start.countDown();
+
+            List<UUID> ids = new ArrayList<>();
+            for (Future<TransactionOutput> future : futures) {
+                ids.add(future.get().id());
+            }
+            assertThat(ids).containsOnly(ids.get(0));
+        }
+
+        assertThat(transactionRepository.findActiveByCustomer(customerId)).hasSize(1);
+        assertThat(summaryService.retrieve(customerId).transactionCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("create() deve repetir o resultado original a partir da tabela quando a chave saiu da memória")
+    void create_shouldReplayFromPersistedTier() {
+        UUID customerId = createCustomer();
+        TransactionInput input = new TransactionInput(customerId, new BigDecimal("10.00"), "MASTERCARD");
+        String key = UUID.randomUUID().toString();
+
+        TransactionOutput original = idempotencyService.create(key, input);
+        ((Cache<?, ?>) ReflectionTestUtils.getField(idempotencyService, "hot")).invalidateAll();
+
+        TransactionOutput replayed = idempotencyService.create(key, new TransactionInput(customerId, new BigDecimal("10"), "MASTERCARD"));
+
+        assertThat(replayed).isEqualTo(original);
+        assertThat(keyRepository.existsById(key)).isTrue();
+        assertThat(transactionRepository.findActiveByCustomer(customerId)).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("create() repetido deve trazer o estado atual da transação, não o da criação")
+    void create_shouldReplayCurrentTransactionState() {
+        UUID customerId = createCustomer();
+        TransactionInput input = new TransactionInput(customerId, new BigDecimal("10.00"), "VISA");
+        String key = UUID.randomUUID().toString();
+
+        TransactionOutput original = idempotencyService.create(key, input);
+        assertThat(original.active()).isTrue();
+        TransactionOutput deleted = transactionService.delete(original.id());
+
+        TransactionOutput fromMemory = idempotencyService.create(key, input);
+        ((Cache<?, ?>) ReflectionTestUtils.getField(idempotencyService, "hot")).invalidateAll();
+        TransactionOutput fromTable = idempotencyService.create(key, input);
+
+        assertThat(fromMemory.id()).isEqualTo(original.id());
+        assertThat(fromMemory.active()).isFalse();
+        assertThat(fromMemory.version()).isEqualTo(deleted.version()).isGreaterThan(original.version());
+        assertThat(fromTable).isEqualTo(fromMemory);
+    }
+
+    @Test
+    @DisplayName("create() deve rejeitar outro corpo também quando a chave vem da tabela")
+    void create_shouldRejectKeyReuseFromPersistedTier() {
+        UUID customerId = createCustomer();
+        String key = UUID.randomUUID().toString();
+        idempotencyService.create(key, new TransactionInput(customerId, new BigDecimal("10.00"), "VISA"));
+        ((Cache<?, ?>) ReflectionTestUtils.getField(idempotencyService, "hot")).invalidateAll();
+
+        assertThatThrownBy(() -> idempotencyService.create(key, new TransactionInput(customerId, new BigDecimal("10.00"), "ELO")))
+                .isInstanceOf(IdempotencyKeyReuseException.class);
+        assertThat(transactionRepository.findActiveByCustomer(customerId)).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("create() deve lançar IdempotencyKeyReuseException quando a chave é reutilizada com outro corpo")
+    void create_shouldRejectKeyReuseWithDifferentBody() {
+        UUID customerId = createCustomer();
+        String key = UUID.randomUUID().toString();
+        idempotencyService.create(key, new TransactionInput(customerId, new BigDecimal("10.00"), "VISA"));
+
+        assertThatThrownBy(() -> idempotencyService.create(key, new TransactionInput(customerId, new BigDecimal("20.00"), "VISA")))
+                .isInstanceOf(IdempotencyKeyReuseException.class);
+        assertThat(transactionRepository.findActiveByCustomer(customerId)).hasSize(1);
+    }
+}
@@ -0,0 +1,10 @@
+package br.com.orbitall.channels.services;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:jpa-storage-contract;DB_CLOSE_DELAY=-1",
+        "channels.storage=jpa"
+})
+class JpaStorageContractTest extends StorageContractTest {
+}
@@ -0,0 +1,203 @@
+package br.com.orbitall.channels.services;
+
+import br.com.orbitall.channels.canonicals.CustomerInput;
+import br.com.orbitall.channels.canonicals.CustomerOutput;
+import br.com.orbitall.channels.canonicals.TransactionInput;
+import br.com.orbitall.channels.canonicals.TransactionOutput;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:read-model;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "channels.read-model.enabled=true"
+})
+@AutoConfigureMockMvc
+class ReadModelTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ReadModel readModel;
+
+    @Autowired
+    private ReadModelSynchronizer synchronizer;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private UUID newCustomer() {
+        return customerService.create(new CustomerInput("Maria Silva", "maria@example.com", "+55 11 90000-0000")).id();
+    }
+
+    private List<TransactionOutput> historyFromDatabase(UUID customerId) {
+        List<TransactionOutput> history = new ArrayList<>(transactionService.findByCustomer(customerId));
+        history.sort(ReadModel.HISTORY_ORDER);
+        return history;
+    }
+
+    @Test
+    @DisplayName("escritas de clientes e transações devem refletir no modelo exatamente como o banco as devolve")
+    void writes_shouldMatchDatabase() {
+        UUID customerId = newCustomer();
+        transactionService.create(new TransactionInput(customerId, new BigDecimal("10"), "VISA"));
+        transactionService.create(new TransactionInput(customerId, new BigDecimal("20.5"), "ELO"));
+        transactionService.createBatch(List.of(
+                new TransactionInput(customerId, new BigDecimal("1.25"), "VISA"),
+                new TransactionInput(customerId, new BigDecimal("2.50"), "MASTERCARD")));
+        TransactionOutput deleted = transactionService.create(new TransactionInput(customerId, BigDecimal.ONE, "VISA"));
+        transactionService.delete(deleted.id());
+        customerService.update(customerId, new CustomerInput("Maria Souza", "maria@example.com", "+55 11 90000-0001"));
+
+        ReadModel.View view = readModel.view(customerId);
+        assertThat(view.customer()).isEqualTo(customerService.retrieve(customerId));
+        assertThat(view.transactions()).hasSize(4).isEqualTo(historyFromDatabase(customerId));
+        assertThat(synchronizer.check().drifted()).isZero();
+    }
+
+    @Test
+    @DisplayName("GET /customers/{id} e GET /transactions?customerId= devem ser servidos do modelo, sem nenhuma consulta")
+    void get_shouldBeServedWithoutDatabase() throws Exception {
+        UUID customerId = newCustomer();
+        transactionService.create(new TransactionInput(customerId, BigDecimal.TEN, "VISA"));
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        String etag = mockMvc.perform(get("/customers/" + customerId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.fullName").value("Maria Silva"))
+                .andReturn().getResponse().getHeader("ETag");
+        mockMvc.perform(get("/customers/" + customerId).header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+        String historyEtag = mockMvc.perform(get("/transactions").param("customerId", customerId.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andReturn().getResponse().getHeader("ETag");
+        mockMvc.perform(get("/transactions").param("customerId", customerId.toString()).header("If-None-Match", historyEtag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", historyEtag));
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("check() deve detectar e corrigir uma alteração feita no banco por fora dos serviços")
+    void check_shouldRepairDrift() throws Exception {
+        UUID customerId = newCustomer();
+        jdbcTemplate.update("UPDATE CUSTOMERS SET full_name = ?, version = version + 1 WHERE id = ?", "Alterada Por Fora", customerId);
+
+        mockMvc.perform(get("/customers/" + customerId)).andExpect(jsonPath("$.fullName").value("Maria Silva"));
+
+        assertThat(synchronizer.check().drifted()).isEqualTo(1);
+        mockMvc.perform(get("/customers/" + customerId)).andExpect(jsonPath("$.fullName").value("Alterada Por Fora"));
+    }
+
+    @Test
+    @DisplayName("cliente desativado deve sair do modelo e a leitura voltar ao banco (404)")
+    void delete_shouldRemoveCustomer() throws Exception {
+        UUID customerId = newCustomer();
+        transactionService.create(new TransactionInput(customerId, BigDecimal.TEN, "VISA"));
+
+        customerService.delete(customerId);
+
+        assertThat(readModel.view(customerId)).isNull();
+        mockMvc.perform(get("/customers/" + customerId)).andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("escrita revertida não deve chegar ao modelo")
+    void rollback_shouldNotReachModel() {
+        UUID customerId = newCustomer();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            transactionService.create(new TransactionInput(customerId, BigDecimal.TEN, "VISA"));
+            status.setRollbackOnly();
+        });
+
+        assertThat(readModel.view(customerId).transactions()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("escritas commitadas durante a reconstrução devem prevalecer sobre a leitura anterior do banco")
+    void rebuild_shouldReplayConcurrentWrites() {
+        ReadModel model = new ReadModel();
+        ReflectionTestUtils.setField(model, "enabled", true);
+        ReflectionTestUtils.setField(model, "storage", "memory");
+
+        UUID customerId = UUID.randomUUID();
+        LocalDateTime now = LocalDateTime.now();
+        CustomerOutput original = new CustomerOutput(customerId, "Maria Silva", "maria@example.com", "+55 11 90000-0000", now, now, true, 0);
+        CustomerOutput updated = new CustomerOutput(customerId, "Maria Souza", "maria@example.com", "+55 11 90000-0000", now, now, true, 1);
+        TransactionOutput transaction = new TransactionOutput(UUID.randomUUID(), customerId, BigDecimal.TEN, "VISA", now, true, 0);
+
+        // Chegam antes de a visão existir; a leitura do banco (anterior a elas) é instalada depois
+        model.customerUpdated(updated);
+        model.transactionsAdded(List.of(transaction));
+        model.reconcile(customerId, new ReadModel.View(original, List.of()), () -> {
+            throw new AssertionError("leitura extra não esperada");
+        });
+        model.markReady();
+
+        assertThat(model.view(customerId)).isEqualTo(new ReadModel.View(updated, List.of(transaction)));
+    }
+
+    @Test
+    @DisplayName("with() deve inserir as novas transações na ordem do histórico, ignorando as já presentes, e atualizar a versão")
+    void with_shouldInsertInOrder() {
+        UUID customerId = UUID.randomUUID();
+        LocalDateTime start = LocalDateTime.of(2025, 9, 1, 12, 0);
+        List<TransactionOutput> all = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            all.add(new TransactionOutput(UUID.randomUUID(), customerId, BigDecimal.ONE, "VISA", start.plusMinutes(i), true, 0));
+        }
+        ReadModel.View view = new ReadModel.View(null, List.of(all.get(1), all.get(3)));
+
+        ReadModel.View merged = view.with(List.of(all.get(4), all.get(0), all.get(3), all.get(2), all.get(0)));
+
+        assertThat(merged.transactions()).isEqualTo(all);
+        assertThat(view.with(List.of(all.get(1)))).isSameAs(view);
+
+        // A versão mantida incrementalmente é a mesma que a calculada do zero sobre o histórico
+        assertThat(merged.history()).isEqualTo(new ReadModel.View(null, all).history());
+        ReadModel.View removed = merged.without(all.get(2).id());
+        assertThat(removed.history()).isEqualTo(new ReadModel.View(null, List.of(all.get(0), all.get(1), all.get(3), all.get(4))).history());
+        assertThat(removed.history().count()).isEqualTo(4);
+        assertThat(removed.without(all.get(2).id())).isSameAs(removed);
+    }
+}
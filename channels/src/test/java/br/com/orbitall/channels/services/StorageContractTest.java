@@ -0,0 +1,219 @@
+package br.com.orbitall.channels.services;
+
+import br.com.orbitall.channels.canonicals.CustomerInput;
+import br.com.orbitall.channels.canonicals.CustomerLookupItemOutput;
+import br.com.orbitall.channels.canonicals.CustomerOutput;
+import br.com.orbitall.channels.canonicals.TransactionBatchItemOutput;
+import br.com.orbitall.channels.canonicals.TransactionInput;
+import br.com.orbitall.channels.canonicals.TransactionLookupItemOutput;
+import br.com.orbitall.channels.canonicals.TransactionOutput;
+import br.com.orbitall.channels.exceptions.PreconditionFailedException;
+import br.com.orbitall.channels.exceptions.ResourceNotFoundException;
+import br.com.orbitall.channels.models.TransactionHistoryVersion;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Contrato dos serviços sobre o armazenamento real: cada subclasse sobe o contexto com um channels.storage
+// e os mesmos cenários precisam valer para o H2 (JPA) e para o armazenamento em memória
+public abstract class StorageContractTest {
+
+    @Autowired
+    protected CustomerService customerService;
+
+    @Autowired
+    protected TransactionService transactionService;
+
+    protected UUID newCustomer() {
+        return customerService.create(new CustomerInput("Maria da Silva", "maria@example.com", "+55 11 90000-0000")).id();
+    }
+
+    @Test
+    @DisplayName("contrato: create()/retrieve() de cliente devem devolver os dados gravados, ativo e com versão")
+    void customer_shouldBeCreatedAndRetrieved() {
+        CustomerOutput created = customerService.create(new CustomerInput("Maria da Silva", "maria@example.com", "+55 11 90000-0000"));
+
+        CustomerOutput retrieved = customerService.retrieve(created.id());
+
+        assertThat(retrieved.fullName()).isEqualTo("Maria da Silva");
+        assertThat(retrieved.email()).isEqualTo("maria@example.com");
+        assertThat(retrieved.active()).isTrue();
+        assertThat(retrieved.version()).isEqualTo(created.version());
+        assertThat(customerService.retrieveVersion(created.id()).version()).isEqualTo(created.version());
+    }
+
+    @Test
+    @DisplayName("contrato: update() deve incrementar a versão e recusar versão esperada desatualizada com PreconditionFailedException")
+    void customerUpdate_shouldCheckVersion() {
+        UUID id = newCustomer();
+        long version = customerService.retrieve(id).version();
+
+        CustomerOutput updated = customerService.update(id, new CustomerInput("Maria Souza", "maria@example.com", "+55 11 90000-0001"), version);
+
+        assertThat(updated.fullName()).isEqualTo("Maria Souza");
+        assertThat(updated.version()).isGreaterThan(version);
+        assertThat(customerService.retrieve(id).fullName()).isEqualTo("Maria Souza");
+        assertThatThrownBy(() -> customerService.update(id, new CustomerInput("Outra", null, null), version))
+                .isInstanceOf(PreconditionFailedException.class);
+        assertThatThrownBy(() -> customerService.delete(id, version))
+                .isInstanceOf(PreconditionFailedException.class);
+    }
+
+    @Test
+    @DisplayName("contrato: update()/delete() de cliente inexistente devem lançar ResourceNotFoundException")
+    void customerWrites_shouldThrowWhenNotFound() {
+        UUID missing = UUID.randomUUID();
+
+        assertThatThrownBy(() -> customerService.update(missing, new CustomerInput("Maria", null, null)))
+                .isInstanceOf(ResourceNotFoundException.class);
+        assertThatThrownBy(() -> customerService.update(missing, new CustomerInput("Maria", null, null), 0L))
+                .isInstanceOf(ResourceNotFoundException.class);
+        assertThatThrownBy(() -> customerService.delete(missing))
+                .isInstanceOf(ResourceNotFoundException.class);
+        assertThatThrownBy(() -> customerService.retrieve(missing))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    @DisplayName("contrato: delete() deve desativar o cliente e as transações dele e recusar novas transações")
+    void customerDelete_shouldCascade() {
+        UUID customerId = newCustomer();
+        TransactionOutput transaction = transactionService.create(new TransactionInput(customerId, new BigDecimal("10.00"), "VISA"));
+
+        CustomerOutput deleted = customerService.delete(customerId);
+
+        assertThat(deleted.active()).isFalse();
+        assertThatThrownBy(() -> customerService.retrieve(customerId)).isInstanceOf(ResourceNotFoundException.class);
+        assertThatThrownBy(() -> customerService.delete(customerId)).isInstanceOf(ResourceNotFoundException.class);
+        assertThatThrownBy(() -> transactionService.retrieve(transaction.id())).isInstanceOf(ResourceNotFoundException.class);
+        assertThat(transactionService.findByCustomer(customerId)).isEmpty();
+        assertThatThrownBy(() -> transactionService.create(new TransactionInput(customerId, BigDecimal.ONE, "VISA")))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    @DisplayName("contrato: findAll() deve limitar a página e continuar do cursor, apenas com clientes ativos")
+    void customerFindAll_shouldPageByCursor() {
+        UUID first = newCustomer();
+        UUID second = newCustomer();
+        UUID deleted = newCustomer();
+        customerService.delete(deleted);
+
+        assertThat(customerService.findAll(null, 1)).hasSize(1);
+        assertThat(customerService.findAll(first, CustomerService.MAX_PAGE_SIZE))
+                .extracting(CustomerOutput::id)
+                .doesNotContain(first, deleted);
+
+        List<UUID> seen = new ArrayList<>();
+        customerService.forEachActive(2, customer -> seen.add(customer.id()));
+        assertThat(seen).doesNotHaveDuplicates().contains(first, second).doesNotContain(deleted);
+    }
+
+    @Test
+    @DisplayName("contrato: lookup() de clientes deve responder na ordem pedida, com 404 para ausentes ou inativos")
+    void customerLookup_shouldKeepRequestOrder() {
+        UUID active = newCustomer();
+        UUID inactive = newCustomer();
+        customerService.delete(inactive);
+        UUID missing = UUID.randomUUID();
+
+        List<CustomerLookupItemOutput> items = customerService.lookup(List.of(missing, active, inactive, active));
+
+        assertThat(items).extracting(CustomerLookupItemOutput::id).containsExactly(missing, active, inactive, active);
+        assertThat(items).extracting(CustomerLookupItemOutput::status).containsExactly(404, 200, 404, 200);
+        assertThat(items.get(1).customer().id()).isEqualTo(active);
+    }
+
+    @Test
+    @DisplayName("contrato: transação deve ser criada, consultada e excluída com verificação de versão")
+    void transaction_shouldBeCreatedRetrievedAndDeleted() {
+        UUID customerId = newCustomer();
+        TransactionOutput created = transactionService.create(new TransactionInput(customerId, new BigDecimal("10.00"), "VISA"));
+
+        TransactionOutput retrieved = transactionService.retrieve(created.id());
+        assertThat(retrieved.customerId()).isEqualTo(customerId);
+        assertThat(retrieved.amount()).isEqualByComparingTo("10.00");
+        assertThat(retrieved.active()).isTrue();
+        assertThat(transactionService.retrieveVersion(created.id()).version()).isEqualTo(created.version());
+
+        assertThatThrownBy(() -> transactionService.delete(created.id(), created.version() + 1))
+                .isInstanceOf(PreconditionFailedException.class);
+
+        TransactionOutput deleted = transactionService.delete(created.id(), created.version());
+        assertThat(deleted.active()).isFalse();
+        assertThatThrownBy(() -> transactionService.retrieve(created.id())).isInstanceOf(ResourceNotFoundException.class);
+        assertThatThrownBy(() -> transactionService.delete(created.id())).isInstanceOf(ResourceNotFoundException.class);
+        assertThatThrownBy(() -> transactionService.delete(UUID.randomUUID())).isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    @DisplayName("contrato: findByCustomer() deve listar só as transações ativas do cliente, em ordem de criação")
+    void findByCustomer_shouldListActiveInOrder() {
+        UUID customerId = newCustomer();
+        UUID otherCustomer = newCustomer();
+        TransactionOutput first = transactionService.create(new TransactionInput(customerId, new BigDecimal("10.00"), "VISA"));
+        TransactionOutput deleted = transactionService.create(new TransactionInput(customerId, new BigDecimal("20.00"), "VISA"));
+        TransactionOutput third = transactionService.create(new TransactionInput(customerId, new BigDecimal("30.00"), "MASTERCARD"));
+        transactionService.create(new TransactionInput(otherCustomer, new BigDecimal("40.00"), "VISA"));
+        transactionService.delete(deleted.id());
+
+        assertThat(transactionService.findByCustomer(customerId))
+                .extracting(TransactionOutput::id)
+                .containsExactly(first.id(), third.id());
+    }
+
+    @Test
+    @DisplayName("contrato: findHistoryVersion() deve contar as transações ativas e combinar os ids delas como a lista")
+    void findHistoryVersion_shouldMatchActiveList() {
+        UUID customerId = newCustomer();
+        assertThat(transactionService.findHistoryVersion(customerId)).isEqualTo(new TransactionHistoryVersion(0, 0));
+
+        TransactionOutput first = transactionService.create(new TransactionInput(customerId, new BigDecimal("10.00"), "VISA"));
+        TransactionOutput second = transactionService.create(new TransactionInput(customerId, new BigDecimal("20.00"), "VISA"));
+        TransactionOutput deleted = transactionService.create(new TransactionInput(customerId, new BigDecimal("30.00"), "VISA"));
+        transactionService.delete(deleted.id());
+
+        assertThat(transactionService.findHistoryVersion(customerId)).isEqualTo(new TransactionHistoryVersion(2,
+                TransactionHistoryVersion.fingerprint(first.id()) ^ TransactionHistoryVersion.fingerprint(second.id())));
+    }
+
+    @Test
+    @DisplayName("contrato: createBatch() deve devolver um resultado por item, gravando só os de clientes ativos")
+    void createBatch_shouldReportPerItem() {
+        UUID customerId = newCustomer();
+        UUID missing = UUID.randomUUID();
+
+        List<TransactionBatchItemOutput> results = transactionService.createBatch(List.of(
+                new TransactionInput(customerId, new BigDecimal("10.00"), "VISA"),
+                new TransactionInput(missing, new BigDecimal("20.00"), "VISA"),
+                new TransactionInput(customerId, new BigDecimal("30.00"), "MASTERCARD")));
+
+        assertThat(results).extracting(TransactionBatchItemOutput::status).containsExactly(201, 404, 201);
+        assertThat(transactionService.findByCustomer(customerId))
+                .extracting(TransactionOutput::id)
+                .containsExactlyInAnyOrder(results.get(0).transaction().id(), results.get(2).transaction().id());
+    }
+
+    @Test
+    @DisplayName("contrato: lookup() de transações deve responder na ordem pedida, com 404 para ausentes ou inativas")
+    void transactionLookup_shouldKeepRequestOrder() {
+        UUID customerId = newCustomer();
+        TransactionOutput active = transactionService.create(new TransactionInput(customerId, new BigDecimal("10.00"), "VISA"));
+        TransactionOutput inactive = transactionService.create(new TransactionInput(customerId, new BigDecimal("20.00"), "VISA"));
+        transactionService.delete(inactive.id());
+        UUID missing = UUID.randomUUID();
+
+        List<TransactionLookupItemOutput> items = transactionService.lookup(List.of(inactive.id(), active.id(), missing));
+
+        assertThat(items).extracting(TransactionLookupItemOutput::status).containsExactly(404, 200, 404);
+        assertThat(items.get(1).transaction().amount()).isEqualByComparingTo("10.00");
+    }
+}
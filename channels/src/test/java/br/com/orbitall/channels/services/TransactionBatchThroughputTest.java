@@ -0,0 +1,70 @@
+package br.com.orbitall.channels.services;
+
+import br.com.orbitall.channels.canonicals.CustomerInput;
+import br.com.orbitall.channels.canonicals.TransactionBatchItemOutput;
+import br.com.orbitall.channels.canonicals.TransactionInput;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:transaction-batch;DB_CLOSE_DELAY=-1")
+class TransactionBatchThroughputTest {
+
+    private static final int CUSTOMERS = 50;
+    private static final int TRANSACTIONS = 5_000;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Test
+    @DisplayName("createBatch() deve ter vazão maior que o caminho item a item")
+    void createBatch_shouldOutperformSingleItemPath() {
+        List<TransactionInput> inputs = buildInputs();
+
+        // Aquecimento dos dois caminhos antes da medição
+        inputs.subList(0, 200).forEach(transactionService::create);
+        transactionService.createBatch(inputs.subList(0, 200));
+
+        long singleStart = System.nanoTime();
+        inputs.forEach(transactionService::create);
+        long singleNanos = System.nanoTime() - singleStart;
+
+        long batchStart = System.nanoTime();
+        List<TransactionBatchItemOutput> results = transactionService.createBatch(inputs);
+        long batchNanos = System.nanoTime() - batchStart;
+
+        assertThat(results).allMatch(result -> result.status() == 201);
+
+        double singleRate = TRANSACTIONS / (singleNanos / 1e9);
+        double batchRate = TRANSACTIONS / (batchNanos / 1e9);
+        System.out.printf("POST /transactions: %.0f tx/s | POST /transactions/batch: %.0f tx/s (%.1fx)%n",
+                singleRate, batchRate, batchRate / singleRate);
+
+        assertThat(batchNanos).isLessThan(singleNanos);
+    }
+
+    private List<TransactionInput> buildInputs() {
+        List<UUID> customers = new ArrayList<>(CUSTOMERS);
+        for (int i = 0; i < CUSTOMERS; i++) {
+            customers.add(customerService.create(
+                    new CustomerInput("Cliente " + i, "cliente" + i + "@example.com", "+55 11 90000-0000")).id());
+        }
+
+        List<TransactionInput> inputs = new ArrayList<>(TRANSACTIONS);
+        for (int i = 0; i < TRANSACTIONS; i++) {
+            inputs.add(new TransactionInput(customers.get(i % CUSTOMERS), new BigDecimal("10.00"), i % 2 == 0 ? "VISA" : "ELO"));
+        }
+        return inputs;
+    }
+}
@@ -0,0 +1,140 @@
+package br.com.orbitall.channels.services;
+
+import br.com.orbitall.channels.canonicals.CustomerInput;
+import br.com.orbitall.channels.canonicals.TransactionOutput;
+import br.com.orbitall.channels.exceptions.ExportDeadlineExceededException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:transaction-export;DB_CLOSE_DELAY=-1")
+class TransactionExportTest {
+
+    private static final long MAX_HEAP_GROWTH = 8L * 1024 * 1024;
+    private static final LocalDateTime FROM = LocalDateTime.of(1, 1, 1, 0, 0);
+    private static final LocalDateTime TO = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    @Autowired
+    private TransactionService service;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private UUID createCustomer() {
+        return customerService.create(new CustomerInput("Maria Silva", "maria@example.com", "+55 11 90000-0000")).id();
+    }
+
+    @Test
+    @DisplayName("exportByCustomer() deve manter o uso de heap estável conforme o histórico cresce")
+    void exportByCustomer_shouldKeepHeapFlatAsHistoryGrows() {
+        UUID customerId = createCustomer();
+
+        insertTransactions(customerId, 0, 10_000);
+        long smallGrowth = heapGrowthWhileExporting(customerId, 10_000);
+
+        insertTransactions(customerId, 10_000, 50_000);
+        long largeGrowth = heapGrowthWhileExporting(customerId, 60_000);
+
+        // A lista de findByCustomer com 60k TransactionOutput (e as entidades gerenciadas) retém dezenas de MB
+        assertThat(largeGrowth).isLessThan(MAX_HEAP_GROWTH);
+        assertThat(largeGrowth - smallGrowth).isLessThan(MAX_HEAP_GROWTH);
+    }
+
+    @Test
+    @DisplayName("exportByCustomer() deve respeitar o intervalo [from, to) em ordem cronológica")
+    void exportByCustomer_shouldFilterByCreatedAtRange() {
+        UUID customerId = createCustomer();
+        insertTransactions(customerId, 0, 100);
+
+        List<TransactionOutput> exported = new ArrayList<>();
+        service.exportByCustomer(customerId, BASE.plusMinutes(10), BASE.plusMinutes(20), exported::add);
+
+        assertThat(exported).hasSize(10);
+        assertThat(exported.get(0).createdAt()).isEqualTo(BASE.plusMinutes(10));
+        assertThat(exported.get(9).createdAt()).isEqualTo(BASE.plusMinutes(19));
+    }
+
+    @Test
+    @DisplayName("exportByCustomer() deve interromper a leitura quando o prazo máximo é excedido")
+    void exportByCustomer_shouldAbortAfterDeadline() {
+        UUID customerId = createCustomer();
+        insertTransactions(customerId, 0, 100);
+
+        TransactionService target = AopTestUtils.getTargetObject(service);
+        Duration original = (Duration) ReflectionTestUtils.getField(target, "exportMaxDuration");
+        ReflectionTestUtils.setField(target, "exportMaxDuration", Duration.ofMillis(50));
+        try {
+            AtomicLong rows = new AtomicLong();
+            assertThatThrownBy(() -> service.exportByCustomer(customerId, FROM, TO, transaction -> {
+                rows.incrementAndGet();
+                sleep(20);
+            })).isInstanceOf(ExportDeadlineExceededException.class);
+
+            assertThat(rows.get()).isLessThan(100);
+        } finally {
+            ReflectionTestUtils.setField(target, "exportMaxDuration", original);
+        }
+    }
+
+    private long heapGrowthWhileExporting(UUID customerId, int expectedRows) {
+        AtomicLong rows = new AtomicLong();
+        long[] samples = new long[2];
+
+        service.exportByCustomer(customerId, FROM, TO, transaction -> {
+            long row = rows.incrementAndGet();
+            if (row == 1_000) {
+                samples[0] = usedHeapAfterGc();
+            } else if (row == expectedRows) {
+                samples[1] = usedHeapAfterGc();
+            }
+        });
+
+        assertThat(rows.get()).isEqualTo(expectedRows);
+        return samples[1] - samples[0];
+    }
+
+    // Uma transação por minuto a partir de BASE
+    private void insertTransactions(UUID customerId, int offset, int count) {
+        List<Object[]> rows = new ArrayList<>(count);
+        for (int i = offset; i < offset + count; i++) {
+            rows.add(new Object[]{UUID.randomUUID(), customerId, new BigDecimal("10.00"), "VISA",
+                    Timestamp.valueOf(BASE.plusMinutes(i)), true});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO TRANSACTIONS (id, customer_id, amount, card_type, created_at, active) "
+                + "VALUES (?, ?, ?, ?, ?, ?)", rows);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static long usedHeapAfterGc() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
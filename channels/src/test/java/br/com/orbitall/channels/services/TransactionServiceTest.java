@@ -1,28 +1,44 @@
 package br.com.orbitall.channels.services;
 
 import br.com.orbitall.channels.canonicals.TransactionInput;
+import br.com.orbitall.channels.canonicals.TransactionLookupItemOutput;
 import br.com.orbitall.channels.canonicals.TransactionOutput;
+import br.com.orbitall.channels.exceptions.PreconditionFailedException;
 import br.com.orbitall.channels.exceptions.ResourceNotFoundException;
-import br.com.orbitall.channels.models.Customer;
+import br.com.orbitall.channels.exceptions.VelocityLimitExceededException;
+import br.com.orbitall.channels.generators.IdGenerator;
+import br.com.orbitall.channels.generators.TimeOrderedUuidGenerator;
 import br.com.orbitall.channels.models.Transaction;
 import br.com.orbitall.channels.repositories.CustomerRepository;
 import br.com.orbitall.channels.repositories.TransactionRepository;
+import br.com.orbitall.channels.sharding.ShardRouter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 class TransactionServiceTest {
@@ -33,6 +49,33 @@ class TransactionServiceTest {
     @Mock
     private CustomerRepository customerRepository;
 
+    @Mock
+    private CustomerLookupService customerLookup;
+
+    @Mock
+    private CustomerSummaryService summaryService;
+
+    @Mock
+    private VelocityGuard velocityGuard;
+
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @Spy
+    private IdGenerator idGenerator = new TimeOrderedUuidGenerator();
+
+    @Spy
+    private ShardRouter router = new ShardRouter(List.of(), "jpa");
+
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+
+    @Spy
+    private ReadModel readModel = new ReadModel();
+
+    @Spy
+    private OutboxService outbox = new OutboxService();
+
     @InjectMocks
     private TransactionService service;
 
@@ -41,18 +84,6 @@ class TransactionServiceTest {
         MockitoAnnotations.openMocks(this);
     }
 
-    private Customer buildCustomer(UUID id, boolean active) {
-        Customer c = new Customer();
-        c.setId(id);
-        c.setFullName("Cliente Teste");
-        c.setEmail("cliente@teste.com");
-        c.setPhone("+55 11 90000-0000");
-        c.setCreatedAt(LocalDateTime.now().minusDays(1));
-        c.setUpdatedAt(LocalDateTime.now().minusHours(1));
-        c.setActive(active);
-        return c;
-    }
-
     private Transaction buildTransaction(UUID id, UUID customerId, boolean active) {
         Transaction t = new Transaction();
         t.setId(id);
@@ -69,8 +100,7 @@ class TransactionServiceTest {
     @DisplayName("create() deve validar cliente e salvar transação")
     void create_shouldValidateCustomerAndSave() {
         UUID customerId = UUID.randomUUID();
-        Customer customer = buildCustomer(customerId, true);
-        when(customerRepository.findById(customerId)).thenReturn(Optional.of(customer));
+        when(customerLookup.isActive(customerId)).thenReturn(true);
         when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         TransactionInput input = new TransactionInput(customerId, new BigDecimal("200.00"), "MASTERCARD");
@@ -82,24 +112,46 @@ class TransactionServiceTest {
         assertThat(out.amount()).isEqualByComparingTo("200.00");
         assertThat(out.cardType()).isEqualTo("MASTERCARD");
         assertThat(out.active()).isTrue();
+        verify(summaryService).add(any(Transaction.class));
     }
 
     @Test
     @DisplayName("create() deve lançar quando cliente não existir ou estiver inativo")
     void create_shouldThrowWhenCustomerMissingOrInactive() {
         UUID customerId = UUID.randomUUID();
-        when(customerRepository.findById(customerId)).thenReturn(Optional.empty());
+        when(customerLookup.isActive(customerId)).thenReturn(false);
 
         TransactionInput input = new TransactionInput(customerId, new BigDecimal("200.00"), "ELO");
         assertThatThrownBy(() -> service.create(input))
                 .isInstanceOf(ResourceNotFoundException.class)
                 .hasMessageContaining("Customer not found");
 
-        // cliente inativo
-        Customer inactive = buildCustomer(customerId, false);
-        when(customerRepository.findById(customerId)).thenReturn(Optional.of(inactive));
-        assertThatThrownBy(() -> service.create(input))
-                .isInstanceOf(ResourceNotFoundException.class);
+        // cliente inativo: aceito enquanto ativo, recusado depois de desativado
+        UUID inactiveId = UUID.randomUUID();
+        when(customerLookup.isActive(inactiveId)).thenReturn(true, false);
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        TransactionInput inactiveInput = new TransactionInput(inactiveId, new BigDecimal("200.00"), "ELO");
+        service.create(inactiveInput);
+        assertThatThrownBy(() -> service.create(inactiveInput))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessageContaining("Customer not found");
+
+        verify(transactionRepository, times(1)).save(any(Transaction.class));
+    }
+
+    @Test
+    @DisplayName("create() recusada pelo limite de velocidade não deve gravar nem somar no resumo")
+    void create_shouldNotSaveWhenVelocityLimitIsExceeded() {
+        UUID customerId = UUID.randomUUID();
+        when(customerLookup.isActive(customerId)).thenReturn(true);
+        when(velocityGuard.acquire(eq(customerId), eq("VISA"), any()))
+                .thenThrow(new VelocityLimitExceededException("Customer exceeded the limit", Duration.ofSeconds(1)));
+
+        assertThatThrownBy(() -> service.create(new TransactionInput(customerId, new BigDecimal("10.00"), "VISA")))
+                .isInstanceOf(VelocityLimitExceededException.class);
+
+        verify(transactionRepository, never()).save(any(Transaction.class));
+        verify(summaryService, never()).add(any(Transaction.class));
     }
 
     @Test
@@ -132,28 +184,111 @@ class TransactionServiceTest {
     }
 
     @Test
-    @DisplayName("findByCustomer() deve retornar apenas transações ativas")
+    @DisplayName("findByCustomer() deve delegar o filtro de ativas e a ordenação ao banco")
     void findByCustomer_shouldReturnOnlyActive() {
         UUID customerId = UUID.randomUUID();
-        Transaction active = buildTransaction(UUID.randomUUID(), customerId, true);
-        Transaction inactive = buildTransaction(UUID.randomUUID(), customerId, false);
-        when(transactionRepository.findByCustomerId(customerId)).thenReturn(Arrays.asList(active, inactive));
+        Transaction older = buildTransaction(UUID.randomUUID(), customerId, true);
+        Transaction newer = buildTransaction(UUID.randomUUID(), customerId, true);
+        when(transactionRepository.findActiveByCustomer(customerId))
+                .thenReturn(Arrays.asList(older, newer));
 
         var list = service.findByCustomer(customerId);
-        assertThat(list).hasSize(1);
-        assertThat(list.get(0).id()).isEqualTo(active.getId());
+        assertThat(list).extracting(TransactionOutput::id).containsExactly(older.getId(), newer.getId());
+        verify(transactionRepository, never()).findAll();
     }
 
     @Test
-    @DisplayName("delete() deve marcar transação como inativa e salvar")
+    @DisplayName("delete() deve desativar a transação em um único comando e ajustar os agregados")
     void delete_shouldSoftDelete() {
         UUID id = UUID.randomUUID();
-        Transaction existing = buildTransaction(id, UUID.randomUUID(), true);
-        when(transactionRepository.findById(id)).thenReturn(Optional.of(existing));
-        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        Transaction deleted = buildTransaction(id, UUID.randomUUID(), false);
+        when(transactionRepository.deactivate(eq(id), any(LocalDateTime.class), isNull())).thenReturn(Optional.of(deleted));
 
         TransactionOutput out = service.delete(id);
         assertThat(out.active()).isFalse();
-        verify(transactionRepository, times(1)).save(any(Transaction.class));
+        verify(transactionRepository, never()).save(any(Transaction.class));
+        verify(summaryService).subtract(deleted);
+    }
+
+    @Test
+    @DisplayName("delete() deve lançar quando a transação não existir, estiver inativa ou em outra versão")
+    void delete_shouldThrowWhenNoRowChanged() {
+        UUID id = UUID.randomUUID();
+        when(transactionRepository.deactivate(eq(id), any(), any())).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> service.delete(id)).isInstanceOf(ResourceNotFoundException.class);
+
+        when(transactionRepository.findById(id)).thenReturn(Optional.of(buildTransaction(id, UUID.randomUUID(), true)));
+        assertThatThrownBy(() -> service.delete(id, 5L)).isInstanceOf(PreconditionFailedException.class);
+        verify(summaryService, never()).subtract(any());
+    }
+
+    @Test
+    @DisplayName("createBatch() deve validar clientes em uma consulta e retornar um resultado por item")
+    @SuppressWarnings("unchecked")
+    void createBatch_shouldReturnResultPerItem() {
+        UUID active = UUID.randomUUID();
+        UUID missing = UUID.randomUUID();
+        when(customerRepository.findActiveIdsByIdIn(anyCollection())).thenReturn(Set.of(active));
+
+        List<TransactionInput> inputs = Arrays.asList(
+                new TransactionInput(active, new BigDecimal("10.00"), "VISA"),
+                new TransactionInput(missing, new BigDecimal("20.00"), "ELO"),
+                new TransactionInput(active, new BigDecimal("-1.00"), "VISA"),
+                null,
+                new TransactionInput(active, new BigDecimal("30.00"), "MASTERCARD")
+        );
+
+        var results = service.createBatch(inputs);
+
+        assertThat(results).extracting("index").containsExactly(0, 1, 2, 3, 4);
+        assertThat(results).extracting("status").containsExactly(201, 404, 400, 400, 201);
+        assertThat(results.get(0).transaction().customerId()).isEqualTo(active);
+        assertThat(results.get(1).error()).contains("Customer not found");
+        assertThat(results.get(2).error()).contains("Amount must be greater than zero");
+
+        verify(customerRepository, times(1)).findActiveIdsByIdIn(anyCollection());
+        verify(customerRepository, never()).findById(any());
+
+        ArgumentCaptor<List<Transaction>> captor = ArgumentCaptor.forClass(List.class);
+        verify(transactionRepository).saveAll(captor.capture());
+        assertThat(captor.getValue()).extracting(Transaction::getCardType).containsExactly("VISA", "MASTERCARD");
+    }
+
+    @Test
+    @DisplayName("createBatch() deve marcar com 429 os itens recusados pelo limite de velocidade e gravar os demais")
+    @SuppressWarnings("unchecked")
+    void createBatch_shouldRejectItemsOverVelocityLimit() {
+        UUID customerId = UUID.randomUUID();
+        when(customerRepository.findActiveIdsByIdIn(anyCollection())).thenReturn(Set.of(customerId));
+        when(velocityGuard.acquire(eq(customerId), any(), any()))
+                .thenReturn(null)
+                .thenThrow(new VelocityLimitExceededException("Customer exceeded the limit", Duration.ofSeconds(1)));
+
+        var results = service.createBatch(List.of(
+                new TransactionInput(customerId, new BigDecimal("10.00"), "VISA"),
+                new TransactionInput(customerId, new BigDecimal("20.00"), "VISA")));
+
+        assertThat(results).extracting("status").containsExactly(201, 429);
+        assertThat(results.get(1).error()).contains("exceeded the limit");
+
+        ArgumentCaptor<List<Transaction>> captor = ArgumentCaptor.forClass(List.class);
+        verify(transactionRepository).saveAll(captor.capture());
+        assertThat(captor.getValue()).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("lookup() deve responder na ordem pedida, com 404 para transações ausentes ou inativas")
+    void lookup_shouldKeepRequestOrderAndMarkMissing() {
+        UUID customerId = UUID.randomUUID();
+        Transaction active = buildTransaction(UUID.randomUUID(), customerId, true);
+        UUID inactive = UUID.randomUUID();
+        when(transactionRepository.findActiveByIdIn(any())).thenReturn(List.of(active));
+
+        List<TransactionLookupItemOutput> items = service.lookup(List.of(inactive, active.getId()));
+
+        assertThat(items).extracting(TransactionLookupItemOutput::status).containsExactly(404, 200);
+        assertThat(items.get(1).transaction().id()).isEqualTo(active.getId());
+        verify(transactionRepository, times(1)).findActiveByIdIn(any());
     }
 }
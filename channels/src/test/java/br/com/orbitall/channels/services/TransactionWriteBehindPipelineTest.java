@@ -0,0 +1,83 @@
+package br.com.orbitall.channels.services;
+
+import br.com.orbitall.channels.canonicals.CustomerInput;
+import br.com.orbitall.channels.canonicals.CustomerSummaryOutput;
+import br.com.orbitall.channels.canonicals.TransactionInput;
+import br.com.orbitall.channels.canonicals.TransactionWriteStatus;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:write-behind;DB_CLOSE_DELAY=-1",
+        "channels.write-behind.enabled=true",
+        "channels.write-behind.max-delay=50ms"
+})
+class TransactionWriteBehindPipelineTest {
+
+    @Autowired
+    private TransactionWriteBehindService writeBehind;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private CustomerSummaryService summaryService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private void awaitPersisted(List<UUID> ids) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        for (UUID id : ids) {
+            while (writeBehind.status(id).status() == TransactionWriteStatus.QUEUED) {
+                assertThat(System.currentTimeMillis()).isLessThan(deadline);
+                Thread.sleep(10);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("accept() deve gravar as transações em grupos e atualizar os totais do cliente")
+    void accept_shouldPersistInGroups() throws InterruptedException {
+        UUID customerId = customerService.create(new CustomerInput("Maria Silva", "maria@example.com", "+55 11 90000-0000")).id();
+
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            ids.add(writeBehind.accept(new TransactionInput(customerId, new BigDecimal("10.00"), "VISA")).id());
+        }
+        awaitPersisted(ids);
+
+        assertThat(ids).allSatisfy(id ->
+                assertThat(writeBehind.status(id).status()).isEqualTo(TransactionWriteStatus.PERSISTED));
+
+        CustomerSummaryOutput summary = summaryService.retrieve(customerId);
+        assertThat(summary.transactionCount()).isEqualTo(1000);
+        assertThat(summary.totalAmount()).isEqualByComparingTo("10000.00");
+
+        // Menos commits que transações: cada grupo carrega várias
+        assertThat(meterRegistry.get("channels.write-behind.group.size").summary().max()).isGreaterThan(1);
+    }
+
+    @Test
+    @DisplayName("status() deve indicar FAILED quando o cliente é desativado antes da gravação")
+    void status_shouldReportFailureForDeactivatedCustomer() throws InterruptedException {
+        UUID customerId = customerService.create(new CustomerInput("João Souza", "joao@example.com", "+55 11 90000-0001")).id();
+
+        UUID id = writeBehind.accept(new TransactionInput(customerId, new BigDecimal("10.00"), "VISA")).id();
+        customerService.delete(customerId);
+        awaitPersisted(List.of(id));
+
+        // O grupo pode ter sido gravado antes do delete; qualquer desfecho é definitivo (não mais QUEUED)
+        assertThat(writeBehind.status(id).status()).isIn(TransactionWriteStatus.PERSISTED, TransactionWriteStatus.FAILED);
+    }
+}
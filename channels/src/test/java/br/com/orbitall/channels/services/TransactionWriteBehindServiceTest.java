@@ -0,0 +1,185 @@
+package br.com.orbitall.channels.services;
+
+import br.com.orbitall.channels.canonicals.TransactionInput;
+import br.com.orbitall.channels.canonicals.TransactionStatusOutput;
+import br.com.orbitall.channels.canonicals.TransactionWriteStatus;
+import br.com.orbitall.channels.exceptions.ResourceNotFoundException;
+import br.com.orbitall.channels.exceptions.WriteQueueFullException;
+import br.com.orbitall.channels.generators.TimeOrderedUuidGenerator;
+import br.com.orbitall.channels.models.Transaction;
+import br.com.orbitall.channels.repositories.TransactionRepository;
+import br.com.orbitall.channels.sharding.ShardRouter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class TransactionWriteBehindServiceTest {
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private CustomerLookupService customerLookup;
+
+    @Mock
+    private VelocityGuard velocityGuard;
+
+    private TransactionService transactionService;
+
+    private TransactionWriteBehindService service;
+
+    // Grupos entregues ao TransactionService; o primeiro fica preso até o latch abrir
+    private final List<List<UUID>> groups = new CopyOnWriteArrayList<>();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final CountDownLatch firstGroup = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        transactionService = spy(new TransactionService());
+        ReflectionTestUtils.setField(transactionService, "idGenerator", new TimeOrderedUuidGenerator());
+        doAnswer(invocation -> {
+            List<Transaction> group = invocation.getArgument(0);
+            groups.add(group.stream().map(Transaction::getId).toList());
+            firstGroup.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return Map.of();
+        }).when(transactionService).persistAccepted(anyList());
+
+        service = new TransactionWriteBehindService(new SimpleMeterRegistry(), 2, 100, Duration.ofMillis(5), Duration.ofSeconds(5));
+        ReflectionTestUtils.setField(service, "transactionService", transactionService);
+        ReflectionTestUtils.setField(service, "transactionRepository", transactionRepository);
+        ReflectionTestUtils.setField(service, "customerLookup", customerLookup);
+        ReflectionTestUtils.setField(service, "velocityGuard", velocityGuard);
+        ReflectionTestUtils.setField(service, "router", new ShardRouter(List.of(), "jpa"));
+
+        when(customerLookup.isActive(any(UUID.class))).thenReturn(true);
+        service.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (service.isRunning()) {
+            service.stop();
+        }
+    }
+
+    private TransactionInput input() {
+        return new TransactionInput(UUID.randomUUID(), new BigDecimal("10.00"), "VISA");
+    }
+
+    @Test
+    @DisplayName("accept() deve devolver o id na hora e o status deve ficar QUEUED até o commit")
+    void accept_shouldReturnIdBeforePersisting() throws InterruptedException {
+        TransactionStatusOutput accepted = service.accept(input());
+        assertThat(firstGroup.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(accepted.status()).isEqualTo(TransactionWriteStatus.QUEUED);
+        assertThat(service.status(accepted.id()).status()).isEqualTo(TransactionWriteStatus.QUEUED);
+    }
+
+    @Test
+    @DisplayName("accept() deve recusar com WriteQueueFullException quando a fila está cheia")
+    void accept_shouldRejectWhenQueueIsFull() throws InterruptedException {
+        service.accept(input());
+        assertThat(firstGroup.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // Escritor preso no primeiro grupo: a fila (capacidade 2) enche
+        service.accept(input());
+        service.accept(input());
+
+        assertThatThrownBy(() -> service.accept(input()))
+                .isInstanceOf(WriteQueueFullException.class);
+    }
+
+    @Test
+    @DisplayName("accept() deve lançar ResourceNotFoundException para cliente inativo sem enfileirar")
+    void accept_shouldRejectInactiveCustomer() {
+        when(customerLookup.isActive(any(UUID.class))).thenReturn(false);
+
+        assertThatThrownBy(() -> service.accept(input()))
+                .isInstanceOf(ResourceNotFoundException.class);
+        verify(transactionService, never()).persistAccepted(anyList());
+    }
+
+    @Test
+    @DisplayName("flush() deve devolver a reserva do limite de velocidade só das transações recusadas na gravação")
+    void flush_shouldReleaseReservationOfRefused() {
+        TransactionInput refusedInput = input();
+        TransactionInput acceptedInput = input();
+        VelocityGuard.Reservation refusedReservation = new VelocityGuard.Reservation(null, 1, 1000);
+        VelocityGuard.Reservation acceptedReservation = new VelocityGuard.Reservation(null, 2, 1000);
+        when(velocityGuard.acquire(eq(refusedInput.customerId()), any(), any())).thenReturn(refusedReservation);
+        when(velocityGuard.acquire(eq(acceptedInput.customerId()), any(), any())).thenReturn(acceptedReservation);
+        doAnswer(invocation -> {
+            List<Transaction> group = invocation.getArgument(0);
+            Map<UUID, String> refused = new HashMap<>();
+            group.stream().filter(transaction -> transaction.getCustomerId().equals(refusedInput.customerId()))
+                    .forEach(transaction -> refused.put(transaction.getId(), "Customer not found"));
+            return refused;
+        }).when(transactionService).persistAccepted(anyList());
+
+        UUID refusedId = service.accept(refusedInput).id();
+        service.accept(acceptedInput);
+        service.stop();
+
+        verify(velocityGuard).release(refusedReservation);
+        verify(velocityGuard, never()).release(acceptedReservation);
+        assertThat(service.status(refusedId).status()).isEqualTo(TransactionWriteStatus.FAILED);
+    }
+
+    @Test
+    @DisplayName("flush() deve devolver as reservas de todas as transações de um grupo que falhou")
+    void flush_shouldReleaseReservationsOfFailedGroup() {
+        VelocityGuard.Reservation reservation = new VelocityGuard.Reservation(null, 1, 1000);
+        when(velocityGuard.acquire(any(), any(), any())).thenReturn(reservation);
+        doThrow(new IllegalStateException("database down")).when(transactionService).persistAccepted(anyList());
+
+        service.accept(input());
+        service.accept(input());
+        service.stop();
+
+        verify(velocityGuard, times(2)).release(reservation);
+    }
+
+    @Test
+    @DisplayName("stop() deve drenar a fila antes de encerrar")
+    void stop_shouldDrainQueue() throws InterruptedException {
+        UUID first = service.accept(input()).id();
+        assertThat(firstGroup.await(5, TimeUnit.SECONDS)).isTrue();
+        UUID second = service.accept(input()).id();
+        UUID third = service.accept(input()).id();
+
+        release.countDown();
+        service.stop();
+
+        assertThat(groups).flatExtracting(group -> group).containsExactlyInAnyOrder(first, second, third);
+        // Os dois últimos chegaram juntos enquanto o escritor estava ocupado: um único grupo
+        assertThat(groups).hasSize(2);
+        assertThatThrownBy(() -> service.accept(input()))
+                .isInstanceOf(WriteQueueFullException.class);
+    }
+}
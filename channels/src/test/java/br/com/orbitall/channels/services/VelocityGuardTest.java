@@ -0,0 +1,166 @@
+package br.com.orbitall.channels.services;
+
+import br.com.orbitall.channels.exceptions.VelocityLimitExceededException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class VelocityGuardTest {
+
+    private static final BigDecimal TEN = new BigDecimal("10.00");
+
+    private VelocityGuard guard(long maxTransactions, String maxAmount, boolean perCardType) {
+        VelocityGuard guard = new VelocityGuard();
+        ReflectionTestUtils.setField(guard, "enabled", true);
+        ReflectionTestUtils.setField(guard, "window", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(guard, "slices", 60);
+        ReflectionTestUtils.setField(guard, "maxTransactions", maxTransactions);
+        ReflectionTestUtils.setField(guard, "maxAmount", new BigDecimal(maxAmount));
+        ReflectionTestUtils.setField(guard, "perCardType", perCardType);
+        ReflectionTestUtils.setField(guard, "maxTrackedCustomers", 1000L);
+        ReflectionTestUtils.setField(guard, "registry", new SimpleMeterRegistry());
+        guard.init();
+        return guard;
+    }
+
+    @Test
+    @DisplayName("acquire() deve recusar com Retry-After ao passar de max-transactions na janela, por cliente")
+    void acquire_shouldLimitTransactionsPerCustomer() {
+        VelocityGuard guard = guard(3, "0", false);
+        UUID customerId = UUID.randomUUID();
+
+        for (int i = 0; i < 3; i++) {
+            guard.acquire(customerId, "VISA", TEN);
+        }
+
+        assertThatThrownBy(() -> guard.acquire(customerId, "ELO", TEN))
+                .isInstanceOf(VelocityLimitExceededException.class)
+                .hasMessageContaining("limit of 3 transactions")
+                .satisfies(e -> assertThat(((VelocityLimitExceededException) e).getRetryAfter())
+                        .isPositive().isLessThanOrEqualTo(Duration.ofMinutes(1)));
+        // Outro cliente tem a própria janela
+        guard.acquire(UUID.randomUUID(), "VISA", TEN);
+    }
+
+    @Test
+    @DisplayName("acquire() deve somar valores na janela e recusar sem Retry-After um valor que sozinho passa do limite")
+    void acquire_shouldLimitAmount() {
+        VelocityGuard guard = guard(0, "25.00", false);
+        UUID customerId = UUID.randomUUID();
+
+        guard.acquire(customerId, "VISA", TEN);
+        guard.acquire(customerId, "VISA", TEN);
+
+        assertThatThrownBy(() -> guard.acquire(customerId, "VISA", TEN))
+                .isInstanceOf(VelocityLimitExceededException.class)
+                .satisfies(e -> assertThat(((VelocityLimitExceededException) e).getRetryAfter()).isNotNull());
+        guard.acquire(customerId, "VISA", new BigDecimal("5.00"));
+
+        assertThatThrownBy(() -> guard.acquire(UUID.randomUUID(), "VISA", new BigDecimal("25.01")))
+                .isInstanceOf(VelocityLimitExceededException.class)
+                .satisfies(e -> assertThat(((VelocityLimitExceededException) e).getRetryAfter()).isNull());
+    }
+
+    @Test
+    @DisplayName("com per-card-type, cada bandeira do cliente deve ter a própria janela")
+    void acquire_shouldSeparateCardTypes() {
+        VelocityGuard guard = guard(1, "0", true);
+        UUID customerId = UUID.randomUUID();
+
+        guard.acquire(customerId, "VISA", TEN);
+        guard.acquire(customerId, "MASTERCARD", TEN);
+
+        assertThatThrownBy(() -> guard.acquire(customerId, "VISA", TEN)).isInstanceOf(VelocityLimitExceededException.class);
+    }
+
+    @Test
+    @DisplayName("reserva feita dentro de uma transação revertida deve ser desfeita")
+    void acquire_shouldReleaseOnRollback() {
+        VelocityGuard guard = guard(1, "0", false);
+        UUID customerId = UUID.randomUUID();
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            guard.acquire(customerId, "VISA", TEN);
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        guard.acquire(customerId, "VISA", TEN);
+    }
+
+    @Test
+    @DisplayName("janela deslizante: fatias que saem da janela devem liberar quantidade e valor")
+    void slidingWindow_shouldExpireOldSlices() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(4);
+
+        assertThat(counter.tryAcquire(0, 100, 2, 0)).isZero();
+        assertThat(counter.tryAcquire(2, 100, 2, 0)).isEqualTo(2);
+        // Cheia: a fatia 0 sai da janela na fatia 4, daqui a 1 fatia
+        assertThat(counter.tryAcquire(3, 100, 2, 0)).isEqualTo(-1);
+
+        assertThat(counter.tryAcquire(4, 100, 2, 0)).isEqualTo(4);
+        assertThat(counter.count()).isEqualTo(2);
+        assertThat(counter.amount()).isEqualTo(200);
+
+        // Muito tempo depois: janela vazia
+        assertThat(counter.tryAcquire(100, 100, 2, 0)).isEqualTo(100);
+        assertThat(counter.count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("64 threads no mesmo cliente: exatamente max-transactions reservas devem ser aceitas")
+    void acquire_shouldHoldLimitUnderContention() throws Exception {
+        VelocityGuard guard = guard(1000, "0", false);
+        UUID customerId = UUID.randomUUID();
+        int threads = 64;
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<Integer>> results = new ArrayList<>();
+        try {
+            for (int t = 0; t < threads; t++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    int accepted = 0;
+                    for (int i = 0; i < 50; i++) {
+                        try {
+                            guard.acquire(customerId, "VISA", TEN);
+                            accepted++;
+                        } catch (VelocityLimitExceededException e) {
+                            // esperado depois do limite
+                        }
+                    }
+                    return accepted;
+                }));
+            }
+            start.countDown();
+
+            int accepted = 0;
+            for (Future<Integer> result : results) {
+                accepted += result.get();
+            }
+            assertThat(accepted).isEqualTo(1000);
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package br.com.orbitall.channels.sharding;
+
+import br.com.orbitall.channels.canonicals.CustomerInput;
+import br.com.orbitall.channels.canonicals.CustomerOutput;
+import br.com.orbitall.channels.canonicals.TransactionBatchItemOutput;
+import br.com.orbitall.channels.canonicals.TransactionInput;
+import br.com.orbitall.channels.canonicals.TransactionLookupItemOutput;
+import br.com.orbitall.channels.canonicals.TransactionOutput;
+import br.com.orbitall.channels.exceptions.ResourceNotFoundException;
+import br.com.orbitall.channels.repositories.memory.InMemoryCustomerRepository;
+import br.com.orbitall.channels.services.CustomerService;
+import br.com.orbitall.channels.services.TransactionService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "channels.sharding.urls=jdbc:h2:mem:sharding-0;DB_CLOSE_DELAY=-1,"
+                + "jdbc:h2:mem:sharding-1;DB_CLOSE_DELAY=-1,"
+                + "jdbc:h2:mem:sharding-2;DB_CLOSE_DELAY=-1",
+        "spring.datasource.hikari.minimum-idle=2"
+})
+class ShardingTest {
+
+    @Autowired
+    private ShardRouter router;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private List<UUID> createCustomers(int count) {
+        List<UUID> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(customerService.create(new CustomerInput("Cliente " + i, "cliente" + i + "@example.com", "+55 11 90000-0000")).id());
+        }
+        return ids;
+    }
+
+    private boolean existsOn(int shard, String table, UUID id) {
+        return router.onShard(shard, () -> jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM " + table + " WHERE id = ?", Integer.class, id)) > 0;
+    }
+
+    @Test
+    @DisplayName("cliente e transações devem ficar apenas no shard do hash do customerId")
+    void create_shouldKeepCustomerAndTransactionsOnOneShard() {
+        List<UUID> customers = createCustomers(30);
+        Set<Integer> used = new HashSet<>();
+
+        for (UUID customerId : customers) {
+            int home = router.shardOf(customerId);
+            used.add(home);
+            TransactionOutput transaction = transactionService.create(new TransactionInput(customerId, BigDecimal.TEN, "VISA"));
+
+            for (int shard = 0; shard < router.shards(); shard++) {
+                assertThat(existsOn(shard, "CUSTOMERS", customerId)).isEqualTo(shard == home);
+                assertThat(existsOn(shard, "TRANSACTIONS", transaction.id())).isEqualTo(shard == home);
+            }
+            assertThat(transactionService.findByCustomer(customerId)).extracting(TransactionOutput::id).containsExactly(transaction.id());
+            assertThat(customerService.retrieve(customerId).id()).isEqualTo(customerId);
+        }
+
+        assertThat(used).hasSize(router.shards());
+    }
+
+    @Test
+    @DisplayName("findAll() deve intercalar os shards na ordem de id, página a página pelo cursor")
+    void findAll_shouldMergeShardsInIdOrder() {
+        Set<UUID> created = new HashSet<>(createCustomers(25));
+
+        List<UUID> seen = new ArrayList<>();
+        UUID after = null;
+        List<CustomerOutput> page;
+        do {
+            page = customerService.findAll(after, 7);
+            page.forEach(customer -> seen.add(customer.id()));
+            after = page.isEmpty() ? after : page.get(page.size() - 1).id();
+        } while (page.size() == 7);
+
+        assertThat(seen).doesNotHaveDuplicates().containsAll(created);
+        assertThat(seen).isSortedAccordingTo(InMemoryCustomerRepository.UUID_ORDER);
+    }
+
+    @Test
+    @DisplayName("lote, consulta por id, lookup, exclusão e intervalo devem funcionar com transações em vários shards")
+    void transactions_shouldBeFoundAcrossShards() {
+        LocalDateTime from = LocalDateTime.now().minusSeconds(1);
+        List<UUID> customers = createCustomers(12);
+        List<TransactionInput> inputs = new ArrayList<>();
+        customers.forEach(customerId -> inputs.add(new TransactionInput(customerId, BigDecimal.ONE, "ELO")));
+
+        List<TransactionBatchItemOutput> results = transactionService.createBatch(inputs);
+        assertThat(results).extracting(TransactionBatchItemOutput::status).containsOnly(201);
+        List<UUID> ids = results.stream().map(result -> result.transaction().id()).toList();
+
+        ids.forEach(id -> assertThat(transactionService.retrieve(id).id()).isEqualTo(id));
+        assertThat(transactionService.lookup(ids)).extracting(TransactionLookupItemOutput::status).containsOnly(200);
+
+        List<TransactionOutput> range = transactionService.findInRange(from, LocalDateTime.now().plusSeconds(1), "ELO", null, null, 100);
+        assertThat(range).extracting(TransactionOutput::id).containsExactlyInAnyOrderElementsOf(ids);
+        assertThat(range).isSortedAccordingTo(Comparator.comparing(TransactionOutput::createdAt)
+                .thenComparing(TransactionOutput::id, InMemoryCustomerRepository.UUID_ORDER));
+
+        UUID deleted = ids.get(ids.size() - 1);
+        assertThat(transactionService.delete(deleted).active()).isFalse();
+        assertThatThrownBy(() -> transactionService.retrieve(deleted)).isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    @DisplayName("falha de um shard no lote deve marcar só os itens dele e manter os gravados nos outros como 201")
+    void createBatch_shouldReportFailedShardPerItem() {
+        List<UUID> customers = createCustomers(12);
+        List<TransactionInput> inputs = new ArrayList<>();
+        customers.forEach(customerId -> inputs.add(new TransactionInput(customerId, BigDecimal.ONE, "ELO")));
+
+        // Shard 1 recusa qualquer INSERT em TRANSACTIONS durante o lote
+        router.onShard(1, () -> jdbcTemplate.execute("ALTER TABLE TRANSACTIONS ADD CONSTRAINT CK_FAIL_SHARD CHECK (amount < 0) NOCHECK"));
+        List<TransactionBatchItemOutput> results;
+        try {
+            results = transactionService.createBatch(inputs);
+        } finally {
+            router.onShard(1, () -> jdbcTemplate.execute("ALTER TABLE TRANSACTIONS DROP CONSTRAINT CK_FAIL_SHARD"));
+        }
+
+        for (int i = 0; i < inputs.size(); i++) {
+            TransactionBatchItemOutput result = results.get(i);
+            if (router.shardOf(customers.get(i)) == 1) {
+                assertThat(result.status()).isEqualTo(500);
+                assertThat(result.transaction()).isNull();
+                assertThat(transactionService.findByCustomer(customers.get(i))).isEmpty();
+            } else {
+                assertThat(result.status()).isEqualTo(201);
+                assertThat(transactionService.retrieve(result.transaction().id()).id()).isEqualTo(result.transaction().id());
+            }
+        }
+        assertThat(results).extracting(TransactionBatchItemOutput::status).contains(500, 201);
+    }
+
+    @Test
+    @DisplayName("trocar de shard com uma transação do banco aberta deve falhar em vez de usar a conexão errada")
+    void onShard_shouldRejectSwitchInsideTransaction() {
+        assertThatThrownBy(() -> router.onShard(0, () -> transactionTemplate.executeWithoutResult(status ->
+                router.onShard(1, () -> jdbcTemplate.queryForObject("SELECT 1", Integer.class)))))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}